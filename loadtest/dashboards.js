@@ -0,0 +1,56 @@
+// Load test of the patient dashboards: 5000 patients log in once and keep reloading their dashboard
+// and a doctor search, with a think time between page views.
+//
+// Start the server in one mode, then run k6 against it and compare the summaries:
+//   ./gradlew loadTestServer -PloadTestArgs="--healthhaven.loadtest.statement-latency=2ms"
+//   ./gradlew loadTestServer -PjavaVersion=21 -PloadTestArgs="--spring.profiles.include=virtual --healthhaven.loadtest.statement-latency=2ms"
+//   k6 run loadtest/dashboards.js
+// The second mode needs Gradle itself to run on a JDK 21. Run both modes on the same machine, and compare
+// http_req_duration p99, http_req_failed and the peak of the jvm_threads_live_threads and hikaricp_connections_pending
+// metrics; the request thresholds below fail the run if either mode degrades.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USERS = parseInt(__ENV.USERS || '5000');
+const SPECIALITIES = ['CARDIOLOGY', 'DERMATOLOGY', 'NEUROLOGY', 'PEDIATRICS', 'ORTHOPEDICS'];
+
+export const options = {
+    scenarios: {
+        dashboards: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: USERS },
+                { duration: '3m', target: USERS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    thresholds: {
+        'http_req_failed': ['rate<0.01'],
+        'http_req_duration{page:dashboard}': ['p(99)<2000'],
+        'http_req_duration{page:search}': ['p(99)<2000'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    if (__ITER === 0) {
+        const login = http.post(`${BASE_URL}/login`, {
+            username: `patient${__VU % USERS + 1}`,
+            password: 'Secret12#',
+        }, { tags: { page: 'login' } });
+        check(login, { 'logged in': (r) => r.status === 200 && !r.url.includes('error') });
+    }
+
+    const dashboard = http.get(`${BASE_URL}/patients/dashboard`, { tags: { page: 'dashboard' } });
+    check(dashboard, { 'dashboard 200': (r) => r.status === 200 });
+    sleep(1 + Math.random());
+
+    const speciality = SPECIALITIES[Math.floor(Math.random() * SPECIALITIES.length)];
+    const search = http.get(`${BASE_URL}/patients/dashboard/search?speciality=${speciality}`, { tags: { page: 'search' } });
+    check(search, { 'search 200': (r) => r.status === 200 });
+    sleep(1 + Math.random());
+}
@@ -0,0 +1,91 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUser;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.Role;
+import gr.aueb.cf.healthhaven.service.AppointmentSlotIndex;
+import gr.aueb.cf.healthhaven.service.DoctorSlots;
+import gr.aueb.cf.healthhaven.service.IAppointmentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the booking path of {@link IAppointmentService#createAppointment} and the slot availability
+ * check behind it, against the seeded database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AppointmentServiceBenchmark {
+
+    private static final LocalDateTime BOOKING_FIRST_DAY = SeededApplication.FIRST_DAY.plusDays(SeededApplication.DAYS);
+
+    private ConfigurableApplicationContext context;
+    private IAppointmentService appointmentService;
+    private AppointmentSlotIndex slotIndex;
+    private final AtomicLong bookings = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start();
+        appointmentService = context.getBean(IAppointmentService.class);
+        slotIndex = context.getBean(AppointmentSlotIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * The security context of a logged-in patient, set on every benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class LoggedInPatient {
+
+        final SplittableRandom random = new SplittableRandom(42);
+
+        @Setup(Level.Trial)
+        public void logIn() {
+            AuthenticatedUser patient = new AuthenticatedUser(1L, "patient1", null, Role.PATIENT, null, 1L);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(patient, null, patient.getAuthorities()));
+        }
+    }
+
+    /**
+     * Books a slot that is always free, past the seeded year, so every invocation inserts an appointment.
+     */
+    @Benchmark
+    public Appointment createAppointment(LoggedInPatient patient) throws Exception {
+        int hours = DoctorSlots.DEFAULT_CLOSING_TIME.getHour() - DoctorSlots.DEFAULT_OPENING_TIME.getHour();
+        long booking = bookings.getAndIncrement();
+        long doctorId = booking % SeededApplication.DOCTORS + 1;
+        long daySlot = booking / SeededApplication.DOCTORS;
+        LocalDateTime dateTime = BOOKING_FIRST_DAY.plusDays(daySlot / hours).plusHours(daySlot % hours);
+        return appointmentService.createAppointment(new AppointmentRegisterDTO(doctorId,
+                dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour()));
+    }
+
+    /**
+     * The availability check of {@code AppointmentServiceImpl.isAppointmentTimeFree}, which is private
+     * and answered by the slot index.
+     */
+    @Benchmark
+    public boolean isAppointmentTimeFree(LoggedInPatient patient) {
+        int hours = DoctorSlots.DEFAULT_CLOSING_TIME.getHour() - DoctorSlots.DEFAULT_OPENING_TIME.getHour();
+        long doctorId = patient.random.nextInt(SeededApplication.DOCTORS) + 1;
+        LocalDateTime dateTime = SeededApplication.FIRST_DAY
+                .plusDays(patient.random.nextInt(SeededApplication.DAYS))
+                .plusHours(patient.random.nextInt(hours));
+        return slotIndex.isFree(doctorId, dateTime, DoctorSlots.DEFAULT_SLOT_MINUTES);
+    }
+}
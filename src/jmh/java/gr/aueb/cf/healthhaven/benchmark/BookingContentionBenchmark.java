@@ -0,0 +1,100 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import gr.aueb.cf.healthhaven.service.AppointmentSlotIndex;
+import gr.aueb.cf.healthhaven.service.AppointmentSlotLocks;
+import gr.aueb.cf.healthhaven.service.DoctorSlots;
+import gr.aueb.cf.healthhaven.service.IAppointmentService;
+import gr.aueb.cf.healthhaven.service.InMemoryBookings;
+import gr.aueb.cf.healthhaven.service.exceptions.SlotUnavailableException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the booking throughput of {@link IAppointmentService#createAppointment} with 1, 8, 64 and 512 concurrent
+ * bookers, with every booker targeting the same doctor or the bookers spread over the seeded number of doctors.
+ * The database is replaced by stubs whose insert is a fixed 200µs pause standing for the database round-trip,
+ * so the numbers show the contention of the slot locks and index alone. Every booked slot is given back,
+ * so the grid never fills up and most attempts pay for the insert.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BookingContentionBenchmark {
+
+    private static final long INSERT_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int HOURS = DoctorSlots.DEFAULT_CLOSING_TIME.getHour() - DoctorSlots.DEFAULT_OPENING_TIME.getHour();
+
+    @Param({"1", "10000"})
+    public int doctors;
+
+    private AppointmentSlotIndex slotIndex;
+    private IAppointmentService appointmentService;
+    private final AtomicInteger bookers = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        slotIndex = new AppointmentSlotIndex(mock(AppointmentRepository.class));
+        appointmentService = InMemoryBookings.appointmentService(slotIndex, new AppointmentSlotLocks(), INSERT_NANOS);
+    }
+
+    /**
+     * The slots a booker tries, from a seed of its own so that the bookers do not all try the same slots.
+     */
+    @State(Scope.Thread)
+    public static class Booker {
+
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(BookingContentionBenchmark benchmark) {
+            random = new SplittableRandom(42 + benchmark.bookers.getAndIncrement());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean oneBooker(Booker booker) throws Exception {
+        return book(booker);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean eightBookers(Booker booker) throws Exception {
+        return book(booker);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean sixtyFourBookers(Booker booker) throws Exception {
+        return book(booker);
+    }
+
+    @Benchmark
+    @Threads(512)
+    public boolean fiveHundredTwelveBookers(Booker booker) throws Exception {
+        return book(booker);
+    }
+
+    private boolean book(Booker booker) throws Exception {
+        long doctorId = booker.random.nextInt(doctors) + 1;
+        LocalDateTime slot = SeededApplication.FIRST_DAY.plusDays(booker.random.nextInt(SeededApplication.DAYS))
+                .plusHours(booker.random.nextInt(HOURS));
+        try {
+            appointmentService.createAppointment(new AppointmentRegisterDTO(doctorId,
+                    slot.getYear(), slot.getMonthValue(), slot.getDayOfMonth(), slot.getHour()));
+        } catch (SlotUnavailableException e) {
+            // Another booker holds the slot until it gives it back
+            return false;
+        }
+        slotIndex.release(doctorId, slot);
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.service.DoctorSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the doctor search index with 100,000 doctors whose names are built from Greek syllables,
+ * for a prefix, a misspelled and a two-field query. The index is filled directly, without the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DoctorSearchBenchmark {
+
+    private static final int DOCTORS = 100_000;
+    private static final String[] SYLLABLES = {"pa", "do", "po", "ni", "ko", "la", "ou", "ge", "or", "gi",
+            "ma", "ri", "ka", "ra", "th", "an", "as", "ta", "si", "le", "ne", "mi", "tri", "chri", "sto", "di", "ki"};
+    private static final String[] ENDINGS = {"s", "ou", "is", "as", "akis", "idis", "opoulos", "iou"};
+
+    private final DoctorSearchIndex searchIndex = new DoctorSearchIndex(null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(20240501L);
+        Speciality[] specialities = Speciality.values();
+        for (int i = 1; i <= DOCTORS; i++) {
+            searchIndex.put(i, name(random, 2), name(random, 3) + ENDINGS[random.nextInt(ENDINGS.length)],
+                    specialities[i % specialities.length], String.format("%07d", i));
+        }
+        searchIndex.put(DOCTORS + 1, "Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "9999999");
+    }
+
+    private static String name(SplittableRandom random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    @Benchmark
+    public List<DoctorReadOnlyDTO> prefix() {
+        return searchIndex.search("papadop", 0, 10);
+    }
+
+    @Benchmark
+    public List<DoctorReadOnlyDTO> misspelled() {
+        return searchIndex.search("papadopolous", 0, 10);
+    }
+
+    @Benchmark
+    public List<DoctorReadOnlyDTO> nameAndSpeciality() {
+        return searchIndex.search("nikos cardiol", 0, 10);
+    }
+}
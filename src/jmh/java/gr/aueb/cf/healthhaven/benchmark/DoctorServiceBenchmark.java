@@ -0,0 +1,41 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.service.IDoctorService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the speciality search of the patients against the seeded database,
+ * 500 doctors per speciality.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DoctorServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private IDoctorService doctorService;
+    private final Speciality[] specialities = Speciality.values();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededApplication.start();
+        doctorService = context.getBean(IDoctorService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Doctor> findDoctorBySpeciality() throws Exception {
+        return doctorService.findDoctorBySpeciality(specialities[next++ % specialities.length]);
+    }
+}
@@ -0,0 +1,44 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the seeded application on port 8080 for the k6 load test in {@code loadtest/}.
+ * The first {@link #USERS} patients get a login, {@code patient<N>} with password {@link #PASSWORD}.
+ * Start with {@code ./gradlew loadTestServer}.
+ */
+final class LoadTestServer {
+
+    static final int USERS = 5_000;
+    static final String PASSWORD = "Secret12#";
+
+    private LoadTestServer() {
+    }
+
+    public static void main(String[] args) {
+        String[] serverArgs = new String[args.length + 1];
+        serverArgs[0] = "--server.port=8080";
+        System.arraycopy(args, 0, serverArgs, 1, args.length);
+
+        ConfigurableApplicationContext context = SeededApplication.start(serverArgs);
+        seedUsers(context.getBean(JdbcTemplate.class));
+        System.out.println("Load test server is ready on port 8080 with " + USERS + " patient logins");
+    }
+
+    private static void seedUsers(JdbcTemplate jdbcTemplate) {
+        // One hash is shared by every user, the logins are cached after the first one anyway
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<Object[]> users = new ArrayList<>(USERS);
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, hash, "patient" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, password, username, role) VALUES (?, ?, ?, 'PATIENT')", users);
+        jdbcTemplate.update("UPDATE patients SET user_id = id WHERE id <= ?", USERS);
+        jdbcTemplate.update("UPDATE users_seq SET next_val = (SELECT MAX(id) + 1 FROM users)");
+    }
+}
@@ -0,0 +1,52 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUser;
+import gr.aueb.cf.healthhaven.authentication.AuthenticationCache;
+import gr.aueb.cf.healthhaven.authentication.CachingAuthenticationProvider;
+import gr.aueb.cf.healthhaven.model.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the logins of the authentication provider at bcrypt cost 10, 11 and 12, once with the authentication
+ * cache disabled (every login verifies the bcrypt hash) and once with repeated HTTP-Basic logins served by the cache.
+ * One thread runs per core, so the logins per second per core are the score divided by the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class LoginThroughputBenchmark {
+
+    private static final String USERNAME = "patient1";
+    private static final String PASSWORD = "Secret123!";
+
+    @Param({"10", "11", "12"})
+    public int strength;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private CachingAuthenticationProvider authProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(strength);
+        AuthenticatedUser user = new AuthenticatedUser(1L, USERNAME, passwordEncoder.encode(PASSWORD), Role.PATIENT, null, 1L);
+
+        authProvider = new CachingAuthenticationProvider(new AuthenticationCache(cached ? Duration.ofMinutes(5) : Duration.ZERO));
+        authProvider.setUserDetailsService(username -> user.copy());
+        authProvider.setPasswordEncoder(passwordEncoder);
+    }
+
+    @Benchmark
+    public Authentication login() {
+        return authProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+    }
+}
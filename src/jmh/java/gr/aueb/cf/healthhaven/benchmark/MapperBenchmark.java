@@ -0,0 +1,47 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorUpdateDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+import gr.aueb.cf.healthhaven.mapper.Mapper;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions of the registration and update DTOs to entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final DoctorRegisterDTO doctorRegisterDTO = new DoctorRegisterDTO("drnikos", "Secret12#", "Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567");
+    private final PatientRegisterDTO patientRegisterDTO = new PatientRegisterDTO("maria", "Secret12#", "Maria", "Georgiou", "123456789", "maria@mail.gr", "6900000000");
+    private final DoctorUpdateDTO doctorUpdateDTO = new DoctorUpdateDTO(1L, "Nikos", "Papadakis", Speciality.NEUROLOGY, null);
+    private final Doctor doctor = new Doctor("Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567");
+
+    @Benchmark
+    public Doctor extractDoctorFromRegisterDTO() {
+        return Mapper.extractDoctorFromRegisterDTO(doctorRegisterDTO);
+    }
+
+    @Benchmark
+    public Patient extractPatientFromRegisterDTO() {
+        return Mapper.extractPatientFromRegisterDTO(patientRegisterDTO);
+    }
+
+    @Benchmark
+    public User extractUserFromRegisterDTO() {
+        return Mapper.extractUserFromRegisterDTO(patientRegisterDTO);
+    }
+
+    @Benchmark
+    public Doctor mapToDoctor() {
+        return Mapper.mapToDoctor(doctor, doctorUpdateDTO);
+    }
+}
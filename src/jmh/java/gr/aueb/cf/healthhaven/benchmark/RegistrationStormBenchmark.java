@@ -0,0 +1,57 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+import gr.aueb.cf.healthhaven.validator.PatientRegisterValidator;
+import gr.aueb.cf.healthhaven.validator.ValidationRules;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the format checks of a patient registration done with {@code String.matches}, as the validators
+ * used to do, against the same checks done with {@link ValidationRules}, and measures the whole
+ * {@link PatientRegisterValidator}, with eight threads registering at once.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports the allocation per registration as gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Threads(8)
+public class RegistrationStormBenchmark {
+
+    private final PatientRegisterValidator patientRegisterValidator = new PatientRegisterValidator();
+    private final PatientRegisterDTO patient = new PatientRegisterDTO("maria", "Secret12#", "Maria", "Georgiou", "123456789", "maria@mail.gr", "6900000000");
+
+    @Benchmark
+    public int stringMatches() {
+        int rejected = 0;
+        if (!patient.getPassword().matches("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$")) rejected++;
+        if (!patient.getFirstname().matches("^[A-Za-z]+$")) rejected++;
+        if (!patient.getLastname().matches("^[A-Za-z]+$")) rejected++;
+        if (!patient.getEmail().matches("^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+$")) rejected++;
+        if (!patient.getPhoneNumber().matches("^\\d{10}$")) rejected++;
+        if (!patient.getSsn().matches("^\\d{9}$")) rejected++;
+        return rejected;
+    }
+
+    @Benchmark
+    public int validationRules() {
+        int rejected = 0;
+        if (!ValidationRules.isStrongPassword(patient.getPassword())) rejected++;
+        if (!ValidationRules.isLetters(patient.getFirstname())) rejected++;
+        if (!ValidationRules.isLetters(patient.getLastname())) rejected++;
+        if (!ValidationRules.isEmail(patient.getEmail())) rejected++;
+        if (!ValidationRules.isDigits(patient.getPhoneNumber(), 10)) rejected++;
+        if (!ValidationRules.isDigits(patient.getSsn(), 9)) rejected++;
+        return rejected;
+    }
+
+    @Benchmark
+    public Errors patientRegisterValidator() {
+        Errors errors = new BeanPropertyBindingResult(patient, "patient");
+        patientRegisterValidator.validate(patient, errors);
+        return errors;
+    }
+}
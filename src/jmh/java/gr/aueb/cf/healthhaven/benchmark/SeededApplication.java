@@ -0,0 +1,92 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.HealthHavenApplication;
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.service.AppointmentSlotIndex;
+import gr.aueb.cf.healthhaven.service.DoctorSlots;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Starts the application against an in-memory H2 database seeded with production-like volumes.
+ * The data is generated from a fixed seed, so every run measures the same database.
+ */
+final class SeededApplication {
+
+    static final int DOCTORS = 10_000;
+    static final int PATIENTS = 100_000;
+    static final int APPOINTMENTS = 1_000_000;
+    static final LocalDateTime FIRST_DAY = LocalDateTime.of(2030, 1, 1, DoctorSlots.DEFAULT_OPENING_TIME.getHour(), 0);
+    static final int DAYS = 365;
+
+    private static final long SEED = 20240501L;
+    private static final int BATCH_SIZE = 10_000;
+
+    private SeededApplication() {
+    }
+
+    /**
+     * Starts the application with the {@code jmh} profile and seeds its database.
+     *
+     * @param args extra command line arguments of the application
+     * @return the started application context
+     */
+    static ConfigurableApplicationContext start(String... args) {
+        String[] runArgs = new String[args.length + 1];
+        runArgs[0] = "--spring.profiles.active=jmh";
+        System.arraycopy(args, 0, runArgs, 1, args.length);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HealthHavenApplication.class)
+                .sources(StatementLatency.class)
+                .run(runArgs);
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(AppointmentSlotIndex.class).warmUp();
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Speciality[] specialities = Speciality.values();
+
+        List<Object[]> doctors = new ArrayList<>(DOCTORS);
+        for (int i = 1; i <= DOCTORS; i++) {
+            doctors.add(new Object[]{"Doctor" + i, "Lastname" + i, specialities[i % specialities.length].name(), String.format("%07d", i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctors (firstname, lastname, speciality, medical_license_number) VALUES (?, ?, ?, ?)", doctors);
+
+        List<Object[]> patients = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= PATIENTS; i++) {
+            patients.add(new Object[]{"Patient" + i, "Lastname" + i, String.format("%09d", i), "patient" + i + "@mail.gr", "6900000000"});
+            if (patients.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO patients (firstname, lastname, ssn, email, phone_number) VALUES (?, ?, ?, ?, ?)", patients);
+                patients.clear();
+            }
+        }
+        // The rows were inserted without the id generator, so move it past them
+        jdbcTemplate.update("UPDATE patients_seq SET next_val = (SELECT MAX(id) + 1 FROM patients)");
+
+        // Every (doctor, day, hour) slot is taken at most once, as the booking rules require
+        int hours = DoctorSlots.DEFAULT_CLOSING_TIME.getHour() - DoctorSlots.DEFAULT_OPENING_TIME.getHour();
+        List<Object[]> appointments = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            long slot = (long) i * 7919 % ((long) DOCTORS * DAYS * hours);
+            int doctorId = (int) (slot % DOCTORS) + 1;
+            long daySlot = slot / DOCTORS;
+            LocalDateTime dateTime = FIRST_DAY.plusDays(daySlot / hours).plusHours(daySlot % hours);
+            AppointmentStatus status = random.nextInt(10) == 0 ? AppointmentStatus.CANCELLED : AppointmentStatus.PENDING;
+            appointments.add(new Object[]{Timestamp.valueOf(dateTime), doctorId, random.nextInt(PATIENTS) + 1, status.name()});
+            if (appointments.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO appointments (`date`, doctor_id, patient_id, status) VALUES (?, ?, ?, ?)", appointments);
+                appointments.clear();
+            }
+        }
+        jdbcTemplate.update("UPDATE appointments_seq SET next_val = (SELECT MAX(id) + 1 FROM appointments)");
+    }
+}
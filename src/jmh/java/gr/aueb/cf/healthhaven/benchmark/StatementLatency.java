@@ -0,0 +1,79 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds a fixed delay to every statement sent to the in-memory database, standing for the network round trip to MySQL.
+ * Without it the H2 database answers in microseconds and request threads never block on the database,
+ * which is exactly the case the virtual thread mode is meant for.
+ * The delay is added beneath the Hikari pool, to the connections it opens, so the data source stays the
+ * {@link HikariDataSource} that the pool metrics and anything else casting or unwrapping it expect.
+ * Disabled unless {@code healthhaven.loadtest.statement-latency} is set.
+ */
+@Configuration(proxyBeanMethods = false)
+class StatementLatency implements BeanPostProcessor {
+
+    private final Duration latency;
+
+    StatementLatency(@Value("${healthhaven.loadtest.statement-latency:0ms}") Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // The pool starts on its first connection, so its source of connections can still be replaced here
+        if (bean instanceof HikariDataSource hikari && !latency.isZero()) {
+            DriverManagerDataSource driver = new DriverManagerDataSource(hikari.getJdbcUrl(), hikari.getUsername(), hikari.getPassword());
+            if (hikari.getDriverClassName() != null) {
+                driver.setDriverClassName(hikari.getDriverClassName());
+            }
+            hikari.setDataSource((DataSource) proxy(DataSource.class, driver));
+        }
+        return bean;
+    }
+
+    private Object proxy(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, new Handler(target));
+    }
+
+    private final class Handler implements InvocationHandler {
+
+        private final Object target;
+
+        private Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                return proxy(returnType, result);
+            }
+            return result;
+        }
+    }
+}
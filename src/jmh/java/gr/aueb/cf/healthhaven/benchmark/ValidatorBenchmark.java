@@ -0,0 +1,50 @@
+package gr.aueb.cf.healthhaven.benchmark;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.validator.DoctorRegisterValidator;
+import gr.aueb.cf.healthhaven.validator.PatientRegisterValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the registration validators with a valid and an invalid form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ValidatorBenchmark {
+
+    private final PatientRegisterValidator patientRegisterValidator = new PatientRegisterValidator();
+    private final DoctorRegisterValidator doctorRegisterValidator = new DoctorRegisterValidator();
+
+    private final PatientRegisterDTO validPatient = new PatientRegisterDTO("maria", "Secret12#", "Maria", "Georgiou", "123456789", "maria@mail.gr", "6900000000");
+    private final PatientRegisterDTO invalidPatient = new PatientRegisterDTO("m", "secret", "M4ria", "G", "12345", "maria.mail.gr", "69000");
+    private final DoctorRegisterDTO validDoctor = new DoctorRegisterDTO("drnikos", "Secret12#", "Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567");
+
+    @Benchmark
+    public Errors validPatientRegistration() {
+        return validate(patientRegisterValidator, validPatient);
+    }
+
+    @Benchmark
+    public Errors invalidPatientRegistration() {
+        return validate(patientRegisterValidator, invalidPatient);
+    }
+
+    @Benchmark
+    public Errors validDoctorRegistration() {
+        return validate(doctorRegisterValidator, validDoctor);
+    }
+
+    private static Errors validate(Validator validator, Object target) {
+        Errors errors = new BeanPropertyBindingResult(target, "target");
+        validator.validate(target, errors);
+        return errors;
+    }
+}
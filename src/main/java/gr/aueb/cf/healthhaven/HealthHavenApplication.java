@@ -1,8 +1,10 @@
 package gr.aueb.cf.healthhaven;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HealthHavenApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,117 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import gr.aueb.cf.healthhaven.model.Role;
+import gr.aueb.cf.healthhaven.model.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Principal stored in the security context after a successful login.
+ * Besides the credentials it carries the IDs of the patient or doctor the user belongs to,
+ * resolved once at authentication time, so that the services can find the current patient or doctor
+ * without looking the user up by username on every request.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final String username;
+    private String password;
+    private final Role role;
+    private final Long doctorId;
+    private final Long patientId;
+
+    public AuthenticatedUser(Long userId, String username, String password, Role role, Long doctorId, Long patientId) {
+        this.userId = userId;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+    }
+
+    /**
+     * Creates the principal of the given user.
+     *
+     * @param user the user entity, with its doctor or patient loaded
+     * @return the principal of the user
+     */
+    public static AuthenticatedUser of(User user) {
+        Long doctorId = user.getDoctor() == null ? null : user.getDoctor().getId();
+        Long patientId = user.getPatient() == null ? null : user.getPatient().getId();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), doctorId, patientId);
+    }
+
+    /**
+     * Creates a copy of this principal, credentials included.
+     *
+     * @return the copy
+     */
+    public AuthenticatedUser copy() {
+        return new AuthenticatedUser(userId, username, password, role, doctorId, patientId);
+    }
+
+    /**
+     * Creates a copy of this principal with a new password hash.
+     *
+     * @param newPassword the new password hash
+     * @return the copy
+     */
+    public AuthenticatedUser withPassword(String newPassword) {
+        return new AuthenticatedUser(userId, username, newPassword, role, doctorId, patientId);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AuthenticatedUser that)) return false;
+        return Objects.equals(username, that.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(username);
+    }
+}
@@ -0,0 +1,42 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expires the sessions and the cached credentials of a user, so that a principal that carries
+ * the IDs of a deleted patient or doctor is not used again.
+ */
+@Component
+@Slf4j
+public class AuthenticatedUserSessions {
+
+    private final SessionRegistry sessionRegistry;
+    private final AuthenticationCache authenticationCache;
+
+    @Autowired
+    public AuthenticatedUserSessions(SessionRegistry sessionRegistry, AuthenticationCache authenticationCache) {
+        this.sessionRegistry = sessionRegistry;
+        this.authenticationCache = authenticationCache;
+    }
+
+    /**
+     * Expires every session and evicts the cached credentials of the user with the given username.
+     *
+     * @param username the username of the user
+     */
+    public void expireSessionsOf(String username) {
+        authenticationCache.removeUserFromCache(username);
+        for (Object principal : sessionRegistry.getAllPrincipals()) {
+            if (principal instanceof AuthenticatedUser user && user.getUsername().equals(username)) {
+                for (SessionInformation session : sessionRegistry.getAllSessions(principal, false)) {
+                    session.expireNow();
+                }
+                log.info("Sessions of user with username: " + username + " were expired");
+            }
+        }
+    }
+}
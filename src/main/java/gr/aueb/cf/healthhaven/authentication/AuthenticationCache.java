@@ -0,0 +1,105 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Short-lived caches in front of the authentication of HTTP-Basic and form logins.
+ * The user cache spares the lookup of the user by username, and the verified-credential cache
+ * spares the password hash verification of credentials that were already verified.
+ * Verified credentials are kept only as an HMAC, keyed with a secret generated at startup,
+ * of the username, the presented password and the stored password hash, so a changed
+ * password hash never matches an older entry.
+ */
+@Component
+public class AuthenticationCache implements UserCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MAX_USERS = 10_000;
+
+    private final Cache<String, AuthenticatedUser> users;
+    private final Cache<String, byte[]> verifiedCredentials;
+    private final SecretKeySpec secret;
+
+    @Autowired
+    public AuthenticationCache(@Value("${healthhaven.security.authentication-cache-ttl:5m}") Duration ttl) {
+        this.users = Caffeine.newBuilder().maximumSize(MAX_USERS).expireAfterWrite(ttl).build();
+        this.verifiedCredentials = Caffeine.newBuilder().maximumSize(MAX_USERS).expireAfterWrite(ttl).build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Returns a copy of the cached user, so that erasing the credentials of an authentication
+     * never erases the password hash kept in the cache.
+     */
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        AuthenticatedUser user = users.getIfPresent(username);
+        return user == null ? null : user.copy();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (user instanceof AuthenticatedUser authenticatedUser && authenticatedUser.getPassword() != null) {
+            users.put(user.getUsername(), authenticatedUser.copy());
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+        verifiedCredentials.invalidate(username);
+    }
+
+    /**
+     * Checks if the presented password was already verified against the stored password hash.
+     *
+     * @param user              the user, with its stored password hash
+     * @param presentedPassword the password presented by the client
+     * @return true if the same credentials were verified recently, false otherwise
+     */
+    public boolean isVerified(UserDetails user, String presentedPassword) {
+        byte[] verified = verifiedCredentials.getIfPresent(user.getUsername());
+        return verified != null && MessageDigest.isEqual(verified, digest(user, presentedPassword));
+    }
+
+    /**
+     * Remembers that the presented password matches the stored password hash.
+     *
+     * @param user              the user, with its stored password hash
+     * @param presentedPassword the password presented by the client
+     */
+    public void markVerified(UserDetails user, String presentedPassword) {
+        verifiedCredentials.put(user.getUsername(), digest(user, presentedPassword));
+    }
+
+    private byte[] digest(UserDetails user, String presentedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            mac.update(user.getUsername().getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(presentedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(user.getPassword().getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * {@link DaoAuthenticationProvider} that skips the password hash verification when the same
+ * credentials were verified recently, as remembered by the {@link AuthenticationCache}.
+ */
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final AuthenticationCache authenticationCache;
+
+    public CachingAuthenticationProvider(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+        setUserCache(authenticationCache);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        if (authentication.getCredentials() != null && userDetails.getPassword() != null
+                && authenticationCache.isVerified(userDetails, authentication.getCredentials().toString())) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        authenticationCache.markVerified(userDetails, authentication.getCredentials().toString());
+    }
+}
@@ -1,42 +1,69 @@
 package gr.aueb.cf.healthhaven.authentication;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Configuration class for custom authentication provider.
  */
 @Configuration
 public class CustomAuthProvider {
 
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+
     private final CustomUserDetailsService customUserDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final String passwordEncoding;
+    private final int bcryptStrength;
+    private final MeterRegistry meterRegistry;
 
     /**
-     * Constructor to inject custom user details service.
+     * Constructor to inject custom user details service, authentication cache, password encoding settings and meter registry.
      *
      * @param customUserDetailsService the custom user details service.
+     * @param authenticationCache      the authentication cache.
+     * @param passwordEncoding         the algorithm new password hashes are encoded with, bcrypt or argon2.
+     * @param bcryptStrength           the cost of new bcrypt password hashes.
+     * @param meterRegistry            the registry the password hashing timers are recorded in.
      */
     @Autowired
-    public CustomAuthProvider(CustomUserDetailsService customUserDetailsService) {
+    public CustomAuthProvider(CustomUserDetailsService customUserDetailsService, AuthenticationCache authenticationCache,
+                              @Value("${healthhaven.security.password-encoding:bcrypt}") String passwordEncoding,
+                              @Value("${healthhaven.security.bcrypt-strength:11}") int bcryptStrength,
+                              MeterRegistry meterRegistry) {
         this.customUserDetailsService = customUserDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.passwordEncoding = passwordEncoding;
+        this.bcryptStrength = bcryptStrength;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
      * Bean definition for authentication provider.
+     * Users and recently verified credentials are cached, and password hashes that are not encoded
+     * with the configured algorithm and cost are rehashed on login.
      *
      * @return the authentication provider.
      */
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        CachingAuthenticationProvider authProvider = new CachingAuthenticationProvider(authenticationCache);
         authProvider.setUserDetailsService(customUserDetailsService);
+        authProvider.setUserDetailsPasswordService(customUserDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
@@ -54,11 +81,24 @@ public class CustomAuthProvider {
 
     /**
      * Bean definition for password encoder.
+     * New hashes are prefixed with the id of their algorithm. Hashes stored before the prefix was
+     * introduced are plain bcrypt hashes and are still matched as such.
+     * Hashing and verification times are recorded as the {@code healthhaven.auth.password} timer.
      *
      * @return the password encoder.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(11);
+        if (!BCRYPT.equals(passwordEncoding) && !ARGON2.equals(passwordEncoding)) {
+            throw new IllegalArgumentException("Unsupported password encoding: " + passwordEncoding);
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(ARGON2, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordEncoding, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new TimedPasswordEncoder(passwordEncoder, meterRegistry);
     }
 }
@@ -1,32 +1,52 @@
 package gr.aueb.cf.healthhaven.authentication;
 
+import gr.aueb.cf.healthhaven.model.User;
 import gr.aueb.cf.healthhaven.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
 
 /**
  * Custom user details service for loading user-specific data.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final AuthenticationCache authenticationCache;
+    private final TransactionTemplate readOnlyTransaction;
 
     /**
-     * Constructor to inject user repository.
+     * Constructor to inject user repository, authentication cache and transaction manager.
      *
-     * @param userRepository the user repository.
+     * @param userRepository      the user repository.
+     * @param authenticationCache the authentication cache.
+     * @param transactionManager  the transaction manager.
      */
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, AuthenticationCache authenticationCache,
+                                    PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
+        this.authenticationCache = authenticationCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
      * Locates the user based on the username.
+     * The returned principal carries the IDs of the user's patient or doctor.
+     * The user is read in a read-only transaction, served by a read replica when one is configured; a user that
+     * signed up moments ago may not have reached the replica yet, so a user missing there is looked up on the primary.
      *
      * @param username the username identifying the user whose data is required.
      * @return the user details.
@@ -34,7 +54,32 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findUserByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User with username: " + username + " not found"));
+        Optional<AuthenticatedUser> user = readOnlyTransaction.execute(status ->
+                userRepository.findForLoginByUsername(username).map(AuthenticatedUser::of));
+        if (user.isEmpty()) {
+            user = userRepository.findForLoginByUsername(username).map(AuthenticatedUser::of);
+        }
+        return user.orElseThrow(() -> new UsernameNotFoundException("User with username: " + username + " not found"));
+    }
+
+    /**
+     * Stores the password hash of a user that was rehashed on login, because it was encoded
+     * with an older algorithm or a lower cost than the configured one.
+     *
+     * @param user        the authenticated user.
+     * @param newPassword the new password hash.
+     * @return the user details with the new password hash.
+     */
+    @Transactional
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User userToUpdate = userRepository.findUserByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User with username: " + user.getUsername() + " not found"));
+        userToUpdate.setPassword(newPassword);
+        authenticationCache.removeUserFromCache(user.getUsername());
+        log.info("Password hash of user with username: " + user.getUsername() + " was upgraded");
+        return user instanceof AuthenticatedUser authenticatedUser
+                ? authenticatedUser.withPassword(newPassword)
+                : AuthenticatedUser.of(userToUpdate);
     }
 }
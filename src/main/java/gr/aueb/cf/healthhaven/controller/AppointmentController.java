@@ -1,14 +1,21 @@
 package gr.aueb.cf.healthhaven.controller;
 
 import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentSeriesResultDTO;
+import gr.aueb.cf.healthhaven.model.Recurrence;
 import gr.aueb.cf.healthhaven.service.IAppointmentService;
+import gr.aueb.cf.healthhaven.service.IWaitlistService;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
 import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import gr.aueb.cf.healthhaven.service.exceptions.SlotUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
 /**
  * Controller for handling appointment-related requests for patients.
  */
@@ -17,15 +24,18 @@ import org.springframework.web.bind.annotation.*;
 public class AppointmentController {
 
     private final IAppointmentService appointmentService;
+    private final IWaitlistService waitlistService;
 
     /**
-     * Constructs an AppointmentController with the specified appointment service.
+     * Constructs an AppointmentController with the specified services.
      *
      * @param appointmentService the appointment service
+     * @param waitlistService    the waitlist service
      */
     @Autowired
-    public AppointmentController(IAppointmentService appointmentService) {
+    public AppointmentController(IAppointmentService appointmentService, IWaitlistService waitlistService) {
         this.appointmentService = appointmentService;
+        this.waitlistService = waitlistService;
     }
 
     /**
@@ -39,12 +49,14 @@ public class AppointmentController {
     public String showBookAppointmentForm(@RequestParam("doctorId") Long doctorId, Model model) {
         AppointmentRegisterDTO appointmentForm = new AppointmentRegisterDTO();
         model.addAttribute("appointmentForm", appointmentForm);
-        model.addAttribute("doctorId", doctorId);
+        addDoctorAttributes(model, doctorId);
         return "book-appointment";
     }
 
     /**
-     * Handles the booking of an appointment.
+     * Handles the booking of an appointment, or of a recurring series of appointments if a recurrence is given.
+     * If the slot is already taken, the form is shown again with the option to join the waitlist of the doctor for that day.
+     * Of a series, the free occurrences are booked and the taken ones are listed.
      *
      * @param appointmentForm the appointment registration form
      * @param model           the model
@@ -55,11 +67,55 @@ public class AppointmentController {
     @PostMapping("/book")
     public String bookAppointment(@ModelAttribute("appointmentForm") AppointmentRegisterDTO appointmentForm, Model model) throws InvalidAppointmentException, EntityNotFoundException {
         try {
+            if (appointmentForm.getRecurrence() != null && appointmentForm.getRecurrence() != Recurrence.NONE) {
+                AppointmentSeriesResultDTO seriesResult = appointmentService.createAppointmentSeries(appointmentForm);
+                addDoctorAttributes(model, appointmentForm.getDoctorId());
+                model.addAttribute("seriesResult", seriesResult);
+                return "book-appointment";
+            }
             appointmentService.createAppointment(appointmentForm);
             model.addAttribute("successMessage", true);
+        } catch (SlotUnavailableException e) {
+            addDoctorAttributes(model, appointmentForm.getDoctorId());
+            model.addAttribute("errorMessage", e.getMessage());
+            model.addAttribute("waitlistDay", LocalDate.of(appointmentForm.getYear(), appointmentForm.getMonth(), appointmentForm.getDay()));
         } catch (InvalidAppointmentException | EntityNotFoundException e) {
             throw e;
         }
         return "book-appointment";
     }
+
+    /**
+     * Puts the patient on the waitlist of a doctor for a day. The first slot of that day to be freed is booked for
+     * the patient that has waited the longest.
+     *
+     * @param doctorId the ID of the doctor
+     * @param day      the day, in ISO format
+     * @param model    the model
+     * @return the view name for booking an appointment
+     * @throws InvalidAppointmentException if the day is in the past or the patient already waits for it
+     * @throws EntityNotFoundException     if the doctor is not found
+     */
+    @PostMapping("/waitlist")
+    public String joinWaitlist(@RequestParam("doctorId") Long doctorId, @RequestParam("day") String day, Model model) throws InvalidAppointmentException, EntityNotFoundException {
+        LocalDate waitlistDay;
+        try {
+            waitlistDay = LocalDate.parse(day);
+        } catch (DateTimeException e) {
+            throw new InvalidAppointmentException("Invalid waitlist day: " + day);
+        }
+        waitlistService.joinWaitlist(doctorId, waitlistDay);
+        model.addAttribute("appointmentForm", new AppointmentRegisterDTO());
+        addDoctorAttributes(model, doctorId);
+        model.addAttribute("waitlistMessage", "You are on the waitlist for " + waitlistDay + ". If a slot of that day is freed, it will be booked for you.");
+        return "book-appointment";
+    }
+
+    /**
+     * Adds the doctor of the booking form and the slot length of the doctor, which the form offers the minutes of, to the model.
+     */
+    private void addDoctorAttributes(Model model, Long doctorId) {
+        model.addAttribute("doctorId", doctorId);
+        model.addAttribute("slotMinutes", appointmentService.getSlotMinutes(doctorId));
+    }
 }
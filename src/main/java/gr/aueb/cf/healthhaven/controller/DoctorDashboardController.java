@@ -1,20 +1,40 @@
 package gr.aueb.cf.healthhaven.controller;
 
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusResultDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusUpdateDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorUpdateDTO;
+import gr.aueb.cf.healthhaven.mapper.Mapper;
 import gr.aueb.cf.healthhaven.model.Appointment;
 import gr.aueb.cf.healthhaven.model.AppointmentStatus;
 import gr.aueb.cf.healthhaven.model.Doctor;
-import gr.aueb.cf.healthhaven.model.User;
+import gr.aueb.cf.healthhaven.model.StatusUpdateOutcome;
+import gr.aueb.cf.healthhaven.service.AppointmentEventBus;
+import gr.aueb.cf.healthhaven.service.AppointmentExportFormat;
+import gr.aueb.cf.healthhaven.service.IAppointmentExportService;
 import gr.aueb.cf.healthhaven.service.IAppointmentService;
 import gr.aueb.cf.healthhaven.service.IDoctorService;
-import gr.aueb.cf.healthhaven.service.IUserService;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidStatusTransitionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,82 +44,178 @@ import java.util.List;
 @RequestMapping("/doctors")
 public class DoctorDashboardController {
 
+    private static final int PAGE_SIZE = 20;
+
     private final IDoctorService doctorService;
     private final IAppointmentService appointmentService;
-    private final IUserService userService;
+    private final IAppointmentExportService appointmentExportService;
+    private final AppointmentEventBus appointmentEventBus;
 
     /**
      * Constructs a DoctorDashboardController with the specified services.
      *
-     * @param doctorService      the doctor service
-     * @param appointmentService the appointment service
-     * @param userService        the user service
+     * @param doctorService            the doctor service
+     * @param appointmentService       the appointment service
+     * @param appointmentExportService the appointment export service
+     * @param appointmentEventBus      the bus of the appointment events of the dashboards
      */
     @Autowired
-    public DoctorDashboardController(IDoctorService doctorService, IAppointmentService appointmentService, IUserService userService) {
+    public DoctorDashboardController(IDoctorService doctorService, IAppointmentService appointmentService,
+                                     IAppointmentExportService appointmentExportService, AppointmentEventBus appointmentEventBus) {
         this.doctorService = doctorService;
         this.appointmentService = appointmentService;
-        this.userService = userService;
+        this.appointmentExportService = appointmentExportService;
+        this.appointmentEventBus = appointmentEventBus;
     }
 
     /**
-     * Displays the doctor dashboard.
+     * Displays one page of the doctor's appointments in date order, within a date window if one is given.
+     * Without a window the upcoming appointments are listed, starting today, unless the whole history is asked for.
      *
+     * @param from      the first day of the window, today if not given
+     * @param to        the last day of the window, optional
+     * @param all       whether to list the whole history when no first day is given
+     * @param afterTime the date and time of the last appointment of the previous page, optional
+     * @param afterId   the ID of the last appointment of the previous page, optional
      * @param model     the model
-     * @param principal the principal
      * @return the view name for the doctor dashboard
-     * @throws EntityNotFoundException if the entity is not found
+     * @throws EntityNotFoundException if no doctor is logged in
      */
     @GetMapping("/dashboard")
-    public String doctorDashboard(Model model, Principal principal) throws EntityNotFoundException {
-        try {
-            String username = principal.getName();
-            User user = userService.getUserByUsername(username);
-            Doctor doctor = user.getDoctor();
-            List<Appointment> appointments = appointmentService.getAppointmentsByDoctorId(doctor.getId());
-            model.addAttribute("appointments", appointments);
-            model.addAttribute("noAppointments", false);
-        } catch (EntityNotFoundException e) {
-            model.addAttribute("noAppointments", true);
+    public String doctorDashboard(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(defaultValue = "false") boolean all,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+                                  @RequestParam(required = false) Long afterId,
+                                  Model model) throws EntityNotFoundException {
+        Long doctorId = doctorService.getCurrentDoctorId();
+        if (from == null && !all) {
+            from = LocalDate.now();
         }
+        AppointmentPageDTO page = appointmentService.getAppointmentPageByDoctorId(doctorId,
+                from == null ? null : from.atStartOfDay(), to == null ? null : to.plusDays(1).atStartOfDay(), afterTime, afterId, PAGE_SIZE);
+        model.addAttribute("appointments", page.getAppointments());
+        model.addAttribute("page", page);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("all", all);
+        model.addAttribute("noAppointments", page.getAppointments().isEmpty());
         return "doctors-dashboard";
     }
 
     /**
-     * Changes the status of an appointment.
+     * Streams the new appointments and the status changes of the doctor's appointments to the dashboard
+     * as server-sent events, so the list is patched in place instead of being reloaded.
+     * With open-in-view disabled, the connection holds no persistence context or database connection while it is open.
      *
-     * @param id     the ID of the appointment
-     * @param status the new status of the appointment
-     * @param model  the model
+     * @return the stream of events
+     * @throws EntityNotFoundException if no doctor is logged in
+     */
+    @GetMapping(path = "/appointments/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter appointmentEvents() throws EntityNotFoundException {
+        return appointmentEventBus.subscribe(doctorService.getCurrentDoctorId());
+    }
+
+    /**
+     * Downloads the whole appointment history of the doctor, for billing reconciliation.
+     * The export is streamed to the client while it is read from the database.
+     *
+     * @param format the format of the export, {@code csv} or {@code json}
+     * @return the export, or 400 if the format is not supported
+     * @throws EntityNotFoundException if no doctor is logged in
+     */
+    @GetMapping("/appointments/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(@RequestParam(defaultValue = "csv") String format) throws EntityNotFoundException {
+        AppointmentExportFormat exportFormat;
+        try {
+            exportFormat = AppointmentExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long doctorId = doctorService.getCurrentDoctorId();
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("appointments-" + doctorId + "." + exportFormat.getExtension()).build();
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(out -> appointmentExportService.exportAppointmentsByDoctorId(doctorId, exportFormat, out));
+    }
+
+    /**
+     * Changes the status of an appointment of the doctor.
+     * A status that cannot follow the current one of the appointment is reported on the dashboard.
+     *
+     * @param id                 the ID of the appointment
+     * @param status             the new status of the appointment
+     * @param redirectAttributes the attributes for the dashboard
      * @return the view name after changing the status of the appointment
-     * @throws EntityNotFoundException if the entity is not found
+     * @throws EntityNotFoundException if no doctor is logged in, or the appointment is not one of the doctor's
      */
     @PostMapping("/appointments/changeStatus")
-    public String changeAppointmentStatus(@RequestParam("id") Long id, @RequestParam("status") String status, Model model) throws EntityNotFoundException {
+    public String changeAppointmentStatus(@RequestParam("id") Long id, @RequestParam("status") String status,
+                                          RedirectAttributes redirectAttributes) throws EntityNotFoundException {
         try {
             AppointmentStatus newStatus = AppointmentStatus.valueOf(status);
-            appointmentService.updateAppointmentStatus(id, newStatus);
-            return "redirect:/doctors/dashboard";
-        } catch (EntityNotFoundException e) {
-            throw e;
+            AppointmentStatusResultDTO result = appointmentService.updateAppointmentStatuses(doctorService.getCurrentDoctorId(),
+                    List.of(id), newStatus).get(0);
+            if (result.getOutcome() == StatusUpdateOutcome.NOT_FOUND) {
+                throw new EntityNotFoundException(Appointment.class, id);
+            }
+            if (result.getOutcome() == StatusUpdateOutcome.INVALID_TRANSITION) {
+                throw new InvalidStatusTransitionException(result.getStatus(), newStatus);
+            }
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Unknown appointment status: " + status);
+        } catch (InvalidAppointmentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error", "The appointment was changed meanwhile, please try again.");
+        }
+        return "redirect:/doctors/dashboard";
+    }
+
+    /**
+     * Changes the status of many appointments of the doctor at once, so a whole selection is confirmed
+     * or cancelled with one request instead of one form post and dashboard reload per appointment.
+     *
+     * A rejected request is answered with a problem detail whose detail is the message to show to the doctor.
+     *
+     * @param dto the IDs of the appointments and their new status
+     * @return the outcome for every appointment, 400 if no status, no appointments or too many appointments are given,
+     * or 409 if the appointments kept being changed concurrently
+     * @throws EntityNotFoundException if no doctor is logged in
+     */
+    @PostMapping("/appointments/statuses")
+    @ResponseBody
+    public ResponseEntity<?> changeAppointmentStatuses(@RequestBody AppointmentStatusUpdateDTO dto) throws EntityNotFoundException {
+        Long doctorId = doctorService.getCurrentDoctorId();
+        try {
+            return ResponseEntity.ok(appointmentService.updateAppointmentStatuses(doctorId, dto.getIds(), dto.getStatus()));
+        } catch (InvalidAppointmentException e) {
+            return ResponseEntity.badRequest().body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                    "The appointments were changed meanwhile, please try again."));
         }
     }
 
     /**
-     * Displays the form for updating the doctor's profile.
+     * Displays the form for updating the doctor's profile, filled with the current details of the doctor.
      *
      * @param model the model
      * @return the view name for updating the doctor's profile
+     * @throws EntityNotFoundException if the doctor is not found
      */
     @GetMapping("/profile/update")
-    public String updateProfileForm(Model model) {
-        DoctorUpdateDTO doctorUpdateDTO = new DoctorUpdateDTO();
-        model.addAttribute("doctorUpdateDTO", doctorUpdateDTO);
+    public String updateProfileForm(Model model) throws EntityNotFoundException {
+        model.addAttribute("doctorUpdateDTO", Mapper.mapToDoctorUpdateDTO(doctorService.getCurrentDoctor()));
         return "update-doctor-profile";
     }
 
     /**
      * Handles the profile update for a doctor.
+     * A form loaded before the latest change of the profile is rejected and filled again with the current details.
      *
      * @param doctorUpdateDTO the doctor update DTO
      * @param model           the model
@@ -108,8 +224,16 @@ public class DoctorDashboardController {
     @PostMapping("/profile/update")
     public String updateProfile(@ModelAttribute("doctorUpdateDTO") DoctorUpdateDTO doctorUpdateDTO, Model model) {
         try {
-            doctorService.updateDoctor(doctorUpdateDTO);
+            Doctor updated = doctorService.updateDoctor(doctorUpdateDTO);
+            model.addAttribute("doctorUpdateDTO", Mapper.mapToDoctorUpdateDTO(updated));
             model.addAttribute("successMessage", "Profile updated successfully!");
+        } catch (OptimisticLockingFailureException e) {
+            try {
+                model.addAttribute("doctorUpdateDTO", Mapper.mapToDoctorUpdateDTO(doctorService.getCurrentDoctor()));
+                model.addAttribute("errorMessage", "Your profile was changed in the meantime. Please review the current details and try again.");
+            } catch (EntityNotFoundException notFound) {
+                model.addAttribute("errorMessage", "An error occurred while updating the profile: " + notFound.getMessage());
+            }
         } catch (EntityNotFoundException e) {
             model.addAttribute("errorMessage", "An error occurred while updating the profile: " + e.getMessage());
         }
@@ -1,17 +1,29 @@
 package gr.aueb.cf.healthhaven.controller;
 
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.DoctorFreeSlotsDTO;
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientUpdateDTO;
-import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.mapper.Mapper;
+import gr.aueb.cf.healthhaven.model.Patient;
 import gr.aueb.cf.healthhaven.model.Speciality;
 import gr.aueb.cf.healthhaven.service.IAppointmentService;
 import gr.aueb.cf.healthhaven.service.IDoctorService;
 import gr.aueb.cf.healthhaven.service.IPatientService;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,6 +33,13 @@ import java.util.List;
 @RequestMapping("patients")
 public class PatientDashboardController {
 
+    private static final int MAX_FREE_SLOT_DAYS = 31;
+    private static final int MAX_FREE_SLOTS_PER_DOCTOR = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_TYPEAHEAD_SIZE = 20;
+    private static final Duration TYPEAHEAD_MAX_AGE = Duration.ofSeconds(30);
+
     private final IDoctorService doctorService;
     private final IAppointmentService appointmentService;
     private final IPatientService patientService;
@@ -72,17 +91,85 @@ public class PatientDashboardController {
     }
 
     /**
-     * Displays the patient's appointments.
+     * Searches for doctors by any words of their name, specialty or license number, for the typeahead
+     * of the patient dashboard. The ETag is the version of the search index, so a browser revalidating
+     * a query gets a 304 without a search until a doctor is registered, updated or deleted. The version carries
+     * the identity of the index, so a restarted or another instance never confirms results it did not serve.
      *
-     * @param model the model
+     * @param query   the words typed so far
+     * @param size    the maximum number of doctors
+     * @param request the web request
+     * @return the best matching doctors, or 304 if the ones the client has are still current
+     */
+    @GetMapping("/dashboard/doctors")
+    @ResponseBody
+    public ResponseEntity<List<DoctorReadOnlyDTO>> typeaheadDoctors(@RequestParam("q") String query,
+                                                                    @RequestParam(defaultValue = "8") int size,
+                                                                    WebRequest request) {
+        String etag = "\"" + doctorService.getSearchVersion() + "\"";
+        if (request.checkNotModified(etag)) return null;
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(TYPEAHEAD_MAX_AGE).cachePrivate())
+                .body(doctorService.searchDoctors(query, 0, Math.min(Math.max(size, 1), MAX_TYPEAHEAD_SIZE)));
+    }
+
+    /**
+     * Returns the next free slots of every doctor of a specialty within a date range, one page of doctors at a time.
+     *
+     * @param speciality     the specialty
+     * @param from           the first day of the range
+     * @param to             the last day of the range
+     * @param slotsPerDoctor the maximum number of free slots per doctor
+     * @param page           the zero-based page of doctors
+     * @param size           the number of doctors per page
+     * @return the free slots of the doctors of the requested page
+     */
+    @GetMapping("/dashboard/free-slots")
+    @ResponseBody
+    public List<DoctorFreeSlotsDTO> searchFreeSlots(@RequestParam Speciality speciality,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @RequestParam(defaultValue = "5") int slotsPerDoctor,
+                                                    @RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        LocalDate lastDay = to.isAfter(from.plusDays(MAX_FREE_SLOT_DAYS)) ? from.plusDays(MAX_FREE_SLOT_DAYS) : to;
+        return appointmentService.findFreeSlotsBySpeciality(speciality, from, lastDay,
+                Math.min(Math.max(slotsPerDoctor, 1), MAX_FREE_SLOTS_PER_DOCTOR), Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Displays one page of the patient's appointments in date order, within a date window if one is given.
+     * Without a window the upcoming appointments are listed, starting today, unless the whole history is asked for.
+     *
+     * @param from      the first day of the window, today if not given
+     * @param to        the last day of the window, optional
+     * @param all       whether to list the whole history when no first day is given
+     * @param afterTime the date and time of the last appointment of the previous page, optional
+     * @param afterId   the ID of the last appointment of the previous page, optional
+     * @param model     the model
      * @return the view name for the appointments page
      * @throws EntityNotFoundException if the entity is not found
      */
     @GetMapping("/appointments")
-    public String viewAppointments(Model model) throws EntityNotFoundException {
+    public String viewAppointments(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(defaultValue = "false") boolean all,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+                                   @RequestParam(required = false) Long afterId,
+                                   Model model) throws EntityNotFoundException {
+        if (from == null && !all) {
+            from = LocalDate.now();
+        }
         try {
-            List<Appointment> appointments = appointmentService.getAppointmentByPatient();
-            model.addAttribute("appointments", appointments);
+            AppointmentPageDTO page = appointmentService.getAppointmentPageByPatient(
+                    from == null ? null : from.atStartOfDay(), to == null ? null : to.plusDays(1).atStartOfDay(), afterTime, afterId, PAGE_SIZE);
+            model.addAttribute("appointments", page.getAppointments());
+            model.addAttribute("page", page);
+            model.addAttribute("from", from);
+            model.addAttribute("to", to);
+            model.addAttribute("all", all);
         } catch (EntityNotFoundException e) {
             throw e;
         }
@@ -90,20 +177,22 @@ public class PatientDashboardController {
     }
 
     /**
-     * Displays the form for updating the patient's profile.
+     * Displays the form for updating the patient's profile, filled with the current details of the patient.
      *
      * @param model the model
      * @return the view name for updating the patient's profile
+     * @throws EntityNotFoundException if the patient is not found
      */
     @GetMapping("/profile/update")
-    public String updateProfileForm(Model model) {
-        PatientUpdateDTO patientUpdateDTO = new PatientUpdateDTO();
-        model.addAttribute("patientUpdateDTO", patientUpdateDTO);
+    public String updateProfileForm(Model model) throws EntityNotFoundException {
+        model.addAttribute("patientUpdateDTO", Mapper.mapToPatientUpdateDTO(patientService.getCurrentPatient()));
         return "update-patient-profile";
     }
 
     /**
      * Handles the profile update for a patient.
+     * If the profile was changed since the form was loaded, for example from another tab, nothing is updated
+     * and the form is filled again with the current details.
      *
      * @param patientUpdateDTO the patient update DTO
      * @param model            the model
@@ -112,8 +201,16 @@ public class PatientDashboardController {
     @PostMapping("/profile/update")
     public String updateProfile(@ModelAttribute("patientUpdateDTO") PatientUpdateDTO patientUpdateDTO, Model model) {
         try {
-            patientService.updatePatient(patientUpdateDTO);
+            Patient updated = patientService.updatePatient(patientUpdateDTO);
+            model.addAttribute("patientUpdateDTO", Mapper.mapToPatientUpdateDTO(updated));
             model.addAttribute("successMessage", "Profile updated successfully!");
+        } catch (OptimisticLockingFailureException e) {
+            try {
+                model.addAttribute("patientUpdateDTO", Mapper.mapToPatientUpdateDTO(patientService.getCurrentPatient()));
+                model.addAttribute("errorMessage", "Your profile was changed in the meantime. Please review the current details and try again.");
+            } catch (EntityNotFoundException notFound) {
+                model.addAttribute("errorMessage", "An error occurred while updating the profile: " + notFound.getMessage());
+            }
         } catch (EntityNotFoundException e) {
             model.addAttribute("errorMessage", "An error occurred while updating the profile: " + e.getMessage());
         }
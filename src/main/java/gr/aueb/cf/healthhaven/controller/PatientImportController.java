@@ -0,0 +1,67 @@
+package gr.aueb.cf.healthhaven.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientImportResultDTO;
+import gr.aueb.cf.healthhaven.service.IPatientImportService;
+import gr.aueb.cf.healthhaven.service.PatientImportRows;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Controller for importing the patients of a clinic in bulk.
+ */
+@Controller
+@RequestMapping("patients")
+public class PatientImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final IPatientImportService patientImportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a PatientImportController with the specified service and object mapper.
+     *
+     * @param patientImportService the patient import service
+     * @param objectMapper         the object mapper
+     */
+    @Autowired
+    public PatientImportController(IPatientImportService patientImportService, ObjectMapper objectMapper) {
+        this.patientImportService = patientImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports the patients of a CSV file with a header line.
+     * The request body is streamed, so files of tens of thousands of patients can be imported at once.
+     *
+     * @param request the HTTP request
+     * @return the number of rows read and imported, and the error of every skipped row
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    @ResponseBody
+    public PatientImportResultDTO importCsv(HttpServletRequest request) throws IOException {
+        return patientImportService.importPatients(PatientImportRows.fromCsv(request.getInputStream()));
+    }
+
+    /**
+     * Imports the patients of a JSON array of patient registrations.
+     *
+     * @param request the HTTP request
+     * @return the number of rows read and imported, and the error of every skipped row
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public PatientImportResultDTO importJson(HttpServletRequest request) throws IOException {
+        return patientImportService.importPatients(PatientImportRows.fromJson(request.getInputStream(), objectMapper));
+    }
+}
@@ -0,0 +1,59 @@
+package gr.aueb.cf.healthhaven.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Keeps the reads of a user on the primary database for a while after the user has written to it,
+ * so that a user never reads from a replica that has not caught up with their own booking or profile update.
+ * The deadline is kept in the HTTP session of the user, so it holds whichever instance serves the next request;
+ * work done outside of a request, such as background jobs, is never kept on the primary.
+ */
+public class ReadYourWrites {
+
+    private static final String PRIMARY_UNTIL = ReadYourWrites.class.getName() + ".PRIMARY_UNTIL";
+
+    private final long windowMillis;
+
+    public ReadYourWrites(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Keeps the reads of the current user on the primary once the current transaction commits.
+     * Called for every write of the transaction, but only the first one registers the commit action.
+     */
+    public void stickAfterCommit() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PRIMARY_UNTIL)) return;
+        TransactionSynchronizationManager.bindResource(PRIMARY_UNTIL, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                request.setAttribute(PRIMARY_UNTIL, System.currentTimeMillis() + windowMillis, RequestAttributes.SCOPE_SESSION);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_UNTIL);
+            }
+        });
+    }
+
+    /**
+     * Checks if the reads of the current user must go to the primary.
+     *
+     * @return true if the current user has written to the primary within the window, false otherwise
+     */
+    public boolean isSticky() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) return false;
+        Object primaryUntil = request.getAttribute(PRIMARY_UNTIL, RequestAttributes.SCOPE_SESSION);
+        return primaryUntil instanceof Long until && System.currentTimeMillis() < until;
+    }
+}
@@ -0,0 +1,101 @@
+package gr.aueb.cf.healthhaven.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration of a MySQL read replica, active when {@code healthhaven.datasource.replica.url} is set.
+ * The primary keeps the {@code spring.datasource} settings; the replica shares its driver and, unless given,
+ * its credentials. Read-only transactions are served by the replica, everything else by the primary.
+ */
+@Configuration
+@ConditionalOnProperty("healthhaven.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * The connection pool of the primary database.
+     *
+     * @param properties the {@code spring.datasource} settings
+     * @return the pool of the primary
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * The connection pool of the replica.
+     *
+     * @param properties the {@code spring.datasource} settings
+     * @param url        the JDBC URL of the replica
+     * @param username   the user of the replica
+     * @param password   the password of the replica
+     * @return the pool of the replica
+     */
+    @Bean
+    @ConfigurationProperties("healthhaven.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${healthhaven.datasource.replica.url}") String url,
+                                              @Value("${healthhaven.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${healthhaven.datasource.replica.password:${spring.datasource.password}}") String password) {
+        return DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    /**
+     * The data source of the application, routing each transaction to the primary or the replica.
+     *
+     * @param primary        the pool of the primary
+     * @param replica        the pool of the replica
+     * @param readYourWrites the read-your-writes deadlines
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWrites));
+    }
+
+    /**
+     * The deadlines until which the reads of each user stay on the primary.
+     *
+     * @param window how long the reads of a user stay on the primary after the user wrote to it
+     * @return the read-your-writes deadlines
+     */
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${healthhaven.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    /**
+     * Lets Hibernate report the writes of each transaction, so that only the transactions that wrote keep the
+     * reads of their user on the primary.
+     *
+     * @param readYourWrites the read-your-writes deadlines
+     * @return the customizer of the Hibernate settings
+     */
+    @Bean
+    public HibernatePropertiesCustomizer writeStatementInspector(ReadYourWrites readYourWrites) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new WriteStatementInspector(readYourWrites));
+    }
+}
@@ -0,0 +1,41 @@
+package gr.aueb.cf.healthhaven.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes the connections of read-only transactions to a replica and all the others to the primary database.
+ * The route is decided when a connection is obtained, so this data source must be wrapped in a
+ * {@code LazyConnectionDataSourceProxy}: the connection is then obtained on the first statement, once the
+ * transaction has been marked read-only. Transactions that wrote keep the reads of their user on the primary
+ * for a while after they commit, see {@link ReadYourWrites} and {@link WriteStatementInspector}. The route is only right if every transaction obtains
+ * its own connection, which is why {@code spring.jpa.open-in-view} is off: an entity manager held open across
+ * the request would keep the connection of its first transaction for all the later ones.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        return readYourWrites.isSticky() ? Route.PRIMARY : Route.REPLICA;
+    }
+}
@@ -0,0 +1,33 @@
+package gr.aueb.cf.healthhaven.datasource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+
+/**
+ * Sees every statement Hibernate sends to the database and keeps the reads of the current user on the primary
+ * once a transaction that actually wrote commits. Transactions that are read-write only in name, such as
+ * the {@code @Transactional} finders of the repositories, then leave the user's later reads on the replica.
+ */
+public class WriteStatementInspector implements StatementInspector {
+
+    private final ReadYourWrites readYourWrites;
+
+    public WriteStatementInspector(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (isWrite(sql)) {
+            readYourWrites.stickAfterCommit();
+        }
+        return sql;
+    }
+
+    private static boolean isWrite(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("insert") || statement.startsWith("update") || statement.startsWith("delete")
+                || statement.startsWith("merge") || statement.startsWith("replace");
+    }
+}
@@ -3,6 +3,7 @@ package gr.aueb.cf.healthhaven.dto.appointmentDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientReadOnlyDTO;
 import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.model.Speciality;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,4 +22,18 @@ public class AppointmentReadOnlyDTO {
     private PatientReadOnlyDTO patientInfo;
     private LocalDateTime appointmentTime;
     private AppointmentStatus status;
+
+    /**
+     * Flat constructor used by the JPQL constructor expressions of {@code AppointmentRepository},
+     * so that an appointment together with its doctor and patient is read in a single statement.
+     */
+    public AppointmentReadOnlyDTO(Long id, Long doctorId, String doctorFirstname, String doctorLastname, Speciality doctorSpeciality,
+                                  Long patientId, String patientFirstname, String patientLastname, String patientSsn,
+                                  String patientEmail, String patientPhoneNumber, LocalDateTime appointmentTime, AppointmentStatus status) {
+        this.id = id;
+        this.doctorInfo = new DoctorReadOnlyDTO(doctorId, doctorFirstname, doctorLastname, doctorSpeciality);
+        this.patientInfo = new PatientReadOnlyDTO(patientId, patientFirstname, patientLastname, patientSsn, patientEmail, patientPhoneNumber);
+        this.appointmentTime = appointmentTime;
+        this.status = status;
+    }
 }
@@ -1,5 +1,6 @@
 package gr.aueb.cf.healthhaven.dto.appointmentDTO;
 
+import gr.aueb.cf.healthhaven.model.Recurrence;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,4 +17,15 @@ public class AppointmentRegisterDTO {
     private int month;
     private int day;
     private int hour;
+    private int minute;
+    private Recurrence recurrence = Recurrence.NONE;
+    private int occurrences = 1;
+
+    public AppointmentRegisterDTO(Long doctorId, int year, int month, int day, int hour) {
+        this.doctorId = doctorId;
+        this.year = year;
+        this.month = month;
+        this.day = day;
+        this.hour = hour;
+    }
 }
@@ -0,0 +1,19 @@
+package gr.aueb.cf.healthhaven.dto.appointmentDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AppointmentSeriesResultDTO {
+
+    private List<LocalDateTime> booked;
+    private List<LocalDateTime> conflicts;
+}
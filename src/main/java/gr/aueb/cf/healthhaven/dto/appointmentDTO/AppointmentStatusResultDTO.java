@@ -0,0 +1,19 @@
+package gr.aueb.cf.healthhaven.dto.appointmentDTO;
+
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.model.StatusUpdateOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AppointmentStatusResultDTO {
+
+    private Long id;
+    private StatusUpdateOutcome outcome;
+    private AppointmentStatus status;
+}
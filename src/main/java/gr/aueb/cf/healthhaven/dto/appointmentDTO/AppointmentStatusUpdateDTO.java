@@ -0,0 +1,19 @@
+package gr.aueb.cf.healthhaven.dto.appointmentDTO;
+
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class AppointmentStatusUpdateDTO {
+
+    private List<Long> ids;
+    private AppointmentStatus status;
+}
@@ -18,4 +18,5 @@ public class AppointmentUpdateDTO {
     private int month;
     private int day;
     private int hour;
+    private int minute;
 }
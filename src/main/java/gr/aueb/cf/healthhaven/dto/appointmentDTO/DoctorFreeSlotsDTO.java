@@ -0,0 +1,21 @@
+package gr.aueb.cf.healthhaven.dto.appointmentDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class DoctorFreeSlotsDTO {
+
+    private Long doctorId;
+    private String firstname;
+    private String lastname;
+    private List<LocalDateTime> freeSlots;
+}
@@ -11,6 +11,7 @@ import lombok.Setter;
 @Getter
 @Setter
 public class DoctorReadOnlyDTO {
+    private Long id;
     private String firstname;
     private String lastname;
     private Speciality speciality;
@@ -0,0 +1,22 @@
+package gr.aueb.cf.healthhaven.dto.doctorDTO;
+
+import gr.aueb.cf.healthhaven.model.ScheduleException;
+import gr.aueb.cf.healthhaven.model.WorkingHours;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DoctorScheduleDTO {
+
+    private int slotMinutes;
+    private Set<WorkingHours> weeklyHours = new HashSet<>();
+    private Set<ScheduleException> exceptions = new HashSet<>();
+}
@@ -16,4 +16,5 @@ public class DoctorUpdateDTO {
     private String firstname;
     private String lastname;
     private Speciality speciality;
+    private Long version;
 }
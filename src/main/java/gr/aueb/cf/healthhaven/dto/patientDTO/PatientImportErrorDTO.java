@@ -0,0 +1,16 @@
+package gr.aueb.cf.healthhaven.dto.patientDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PatientImportErrorDTO {
+
+    private int row;
+    private String message;
+}
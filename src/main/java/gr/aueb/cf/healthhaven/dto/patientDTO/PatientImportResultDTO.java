@@ -0,0 +1,19 @@
+package gr.aueb.cf.healthhaven.dto.patientDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PatientImportResultDTO {
+
+    private int rows;
+    private int imported;
+    private List<PatientImportErrorDTO> errors;
+}
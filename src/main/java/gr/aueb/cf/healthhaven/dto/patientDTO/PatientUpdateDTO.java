@@ -17,6 +17,7 @@ public class PatientUpdateDTO {
     private String lastname;
     private String email;
     private String phoneNumber;
+    private Long version;
 
 }
 
@@ -1,9 +1,11 @@
 package gr.aueb.cf.healthhaven.mapper;
 
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorRegisterDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorUpdateDTO;
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientUpdateDTO;
+import gr.aueb.cf.healthhaven.model.Appointment;
 import gr.aueb.cf.healthhaven.model.Doctor;
 import gr.aueb.cf.healthhaven.model.Patient;
 import gr.aueb.cf.healthhaven.model.User;
@@ -85,4 +87,39 @@ public class Mapper {
         patient.setPhoneNumber(dto.getPhoneNumber());
         return patient;
     }
+
+    /**
+     * Converts a Doctor entity to a DoctorUpdateDTO holding its current details and version.
+     *
+     * @param doctor The Doctor entity to be edited.
+     * @return A DoctorUpdateDTO to fill the profile form with.
+     */
+    public static DoctorUpdateDTO mapToDoctorUpdateDTO(Doctor doctor) {
+        return new DoctorUpdateDTO(doctor.getId(), doctor.getFirstname(), doctor.getLastname(), doctor.getSpeciality(), doctor.getVersion());
+    }
+
+    /**
+     * Converts a Patient entity to a PatientUpdateDTO holding its current details and version.
+     *
+     * @param patient The Patient entity to be edited.
+     * @return A PatientUpdateDTO to fill the profile form with.
+     */
+    public static PatientUpdateDTO mapToPatientUpdateDTO(Patient patient) {
+        return new PatientUpdateDTO(patient.getId(), patient.getFirstname(), patient.getLastname(), patient.getEmail(),
+                patient.getPhoneNumber(), patient.getVersion());
+    }
+
+    /**
+     * Converts an Appointment entity, with its doctor and patient, to an AppointmentReadOnlyDTO.
+     *
+     * @param appointment The Appointment entity to be converted.
+     * @return An AppointmentReadOnlyDTO with the details of the appointment, its doctor and its patient.
+     */
+    public static AppointmentReadOnlyDTO mapToAppointmentReadOnlyDTO(Appointment appointment) {
+        Doctor doctor = appointment.getDoctor();
+        Patient patient = appointment.getPatient();
+        return new AppointmentReadOnlyDTO(appointment.getId(), doctor.getId(), doctor.getFirstname(), doctor.getLastname(), doctor.getSpeciality(),
+                patient.getId(), patient.getFirstname(), patient.getLastname(), patient.getSsn(), patient.getEmail(), patient.getPhoneNumber(),
+                appointment.getAppointmentDateTime(), appointment.getStatus());
+    }
 }
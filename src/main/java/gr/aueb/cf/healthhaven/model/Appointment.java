@@ -11,16 +11,21 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "APPOINTMENTS")
+@Table(name = "APPOINTMENTS", indexes = {
+        @Index(name = "IDX_APPOINTMENTS_DOCTOR_DATE_STATUS", columnList = "DOCTOR_ID, DATE, STATUS"),
+        @Index(name = "IDX_APPOINTMENTS_PATIENT_DATE", columnList = "PATIENT_ID, DATE")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Appointment {
 
+    // Pooled ids let Hibernate batch the inserts of a recurring series, which IDENTITY keys prevent
     @Id
     @Column(name = "ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "APPOINTMENTS_SEQ", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -36,8 +41,17 @@ public class Appointment {
     @Column(name = "DATE" ,nullable = false)
     private LocalDateTime appointmentDateTime;
 
+    // The slot length of the doctor when the appointment was booked, so a later schedule change does not move its end
+    @Column(name = "DURATION_MINUTES", nullable = false)
+    private int durationMinutes = 60;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "STATUS", nullable = false)
     private AppointmentStatus status = AppointmentStatus.PENDING;
 
+    // Checked on every update, so concurrent changes of the same appointment fail instead of overwriting each other
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private long version;
+
 }
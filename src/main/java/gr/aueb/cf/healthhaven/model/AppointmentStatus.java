@@ -1,7 +1,52 @@
 package gr.aueb.cf.healthhaven.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum AppointmentStatus {
     PENDING,
     CONFIRMED,
-    CANCELLED
+    CANCELLED;
+
+    // Cancelling is final: the freed slot may already have been booked for a patient of the waitlist
+    private static final Map<AppointmentStatus, Set<AppointmentStatus>> TRANSITIONS = new EnumMap<>(Map.of(
+            PENDING, EnumSet.of(CONFIRMED, CANCELLED),
+            CONFIRMED, EnumSet.of(CANCELLED),
+            CANCELLED, EnumSet.noneOf(AppointmentStatus.class)));
+
+    /**
+     * Returns the statuses an appointment in this status can be moved to.
+     *
+     * @return the next statuses, empty if this status is final
+     */
+    public Set<AppointmentStatus> nextStatuses() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
+
+    /**
+     * Checks if an appointment in this status can be moved to the given status.
+     *
+     * @param next the new status
+     * @return true if the transition is allowed, false otherwise
+     */
+    public boolean canMoveTo(AppointmentStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * Returns the statuses from which an appointment can be moved to the given status.
+     *
+     * @param next the new status
+     * @return the previous statuses
+     */
+    public static Set<AppointmentStatus> previousStatusesOf(AppointmentStatus next) {
+        Set<AppointmentStatus> previous = EnumSet.noneOf(AppointmentStatus.class);
+        TRANSITIONS.forEach((status, nextStatuses) -> {
+            if (nextStatuses.contains(next)) previous.add(status);
+        });
+        return previous;
+    }
 }
@@ -5,17 +5,28 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "DOCTORS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Doctor.CACHE_REGION)
+@Table(name = "DOCTORS", indexes = {
+        @Index(name = "IDX_DOCTORS_SPECIALITY", columnList = "SPECIALITY"),
+        @Index(name = "IDX_DOCTORS_LASTNAME", columnList = "LASTNAME")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Doctor {
 
+    public static final String CACHE_REGION = "doctors";
+    public static final String SEARCH_CACHE_REGION = "doctor-searches";
+
     @Id
     @Column(name = "ID")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,10 +48,14 @@ public class Doctor {
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL)
     private Set<Appointment> appointments = new HashSet<>();
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "USER_ID", referencedColumnName = "ID")
     private User user;
 
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private long version;
+
     public Doctor(String firstname, String lastname, Speciality speciality, String medicalLicenseNumber) {
         this.firstname = firstname;
         this.lastname = lastname;
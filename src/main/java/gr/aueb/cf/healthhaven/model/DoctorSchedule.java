@@ -0,0 +1,44 @@
+package gr.aueb.cf.healthhaven.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The working schedule of a doctor: the length of an appointment slot, the working hours of each day
+ * of the week, and the days on which the doctor is off or works different hours.
+ * Doctors without a schedule work the default office hours.
+ */
+@Entity
+@Table(name = "DOCTOR_SCHEDULES")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class DoctorSchedule {
+
+    @Id
+    @Column(name = "ID")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "DOCTOR_ID", nullable = false, unique = true)
+    private Doctor doctor;
+
+    @Column(name = "SLOT_MINUTES", nullable = false)
+    private int slotMinutes;
+
+    @ElementCollection
+    @CollectionTable(name = "DOCTOR_WORKING_HOURS", joinColumns = @JoinColumn(name = "SCHEDULE_ID"))
+    private Set<WorkingHours> weeklyHours = new HashSet<>();
+
+    @ElementCollection
+    @CollectionTable(name = "DOCTOR_SCHEDULE_EXCEPTIONS", joinColumns = @JoinColumn(name = "SCHEDULE_ID"))
+    private Set<ScheduleException> exceptions = new HashSet<>();
+}
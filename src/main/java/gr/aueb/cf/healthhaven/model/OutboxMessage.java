@@ -0,0 +1,62 @@
+package gr.aueb.cf.healthhaven.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting to be delivered, written in the same transaction as the change it reports.
+ * Messages are delivered in the background, in the order they were written, and retried with
+ * a growing delay until they are sent or run out of attempts.
+ */
+@Entity
+@Table(name = "OUTBOX_MESSAGES", indexes = {
+        @Index(name = "IDX_OUTBOX_MESSAGES_STATUS_NEXT_ATTEMPT_AT", columnList = "STATUS, NEXT_ATTEMPT_AT")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class OutboxMessage {
+
+    @Id
+    @Column(name = "ID")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // No foreign key, so the notification of a deleted appointment is still delivered
+    @Column(name = "APPOINTMENT_ID")
+    private Long appointmentId;
+
+    @Column(name = "RECIPIENT", nullable = false)
+    private String recipient;
+
+    @Column(name = "SUBJECT", nullable = false)
+    private String subject;
+
+    @Column(name = "BODY", nullable = false, length = 2000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "ATTEMPTS", nullable = false)
+    private int attempts;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "NEXT_ATTEMPT_AT", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "SENT_AT")
+    private LocalDateTime sentAt;
+
+    @Column(name = "LAST_ERROR", length = 500)
+    private String lastError;
+}
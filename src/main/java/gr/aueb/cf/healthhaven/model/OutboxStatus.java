@@ -0,0 +1,7 @@
+package gr.aueb.cf.healthhaven.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -18,9 +18,11 @@ import java.util.Set;
 @AllArgsConstructor
 public class Patient {
 
+    // Pooled ids let Hibernate batch the inserts of a bulk import, which IDENTITY keys prevent
     @Id
     @Column(name = "ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "PATIENTS_SEQ", allocationSize = 50)
     private long id;
 
     @Column(name = "FIRSTNAME", nullable = false)
@@ -45,6 +47,10 @@ public class Patient {
     @JoinColumn(name = "USER_ID", referencedColumnName = "ID")
     private User user;
 
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private long version;
+
     public Patient(String firstname, String lastname, String ssn, String email, String phoneNumber) {
         this.firstname = firstname;
         this.lastname = lastname;
@@ -0,0 +1,12 @@
+package gr.aueb.cf.healthhaven.model;
+
+/**
+ * How often the appointments of a recurring series repeat.
+ */
+public enum Recurrence {
+    NONE,
+    DAILY,
+    WEEKLY,
+    BIWEEKLY,
+    MONTHLY
+}
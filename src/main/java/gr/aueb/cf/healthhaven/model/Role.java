@@ -1,6 +1,7 @@
 package gr.aueb.cf.healthhaven.model;
 
 public enum Role {
+    ADMIN,
     DOCTOR,
     PATIENT
 }
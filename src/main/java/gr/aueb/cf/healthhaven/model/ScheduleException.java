@@ -0,0 +1,33 @@
+package gr.aueb.cf.healthhaven.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A day on which a doctor does not follow the weekly schedule. Without start and end time the doctor is off
+ * for the whole day, otherwise the given period replaces the weekly hours of that day.
+ */
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class ScheduleException {
+
+    @Column(name = "DAY", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "START_TIME")
+    private LocalTime startTime;
+
+    @Column(name = "END_TIME")
+    private LocalTime endTime;
+}
@@ -0,0 +1,8 @@
+package gr.aueb.cf.healthhaven.model;
+
+public enum StatusUpdateOutcome {
+    UPDATED,
+    UNCHANGED,
+    INVALID_TRANSITION,
+    NOT_FOUND
+}
@@ -0,0 +1,53 @@
+package gr.aueb.cf.healthhaven.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A patient waiting for any slot of a doctor on a given day to become free.
+ * Patients are served in the order they joined the waitlist.
+ */
+@Entity
+@Table(name = "WAITLIST_ENTRIES", indexes = {
+        @Index(name = "IDX_WAITLIST_ENTRIES_STATUS_DAY", columnList = "STATUS, DAY"),
+        @Index(name = "IDX_WAITLIST_ENTRIES_DOCTOR_PATIENT_DAY", columnList = "DOCTOR_ID, PATIENT_ID, DAY")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class WaitlistEntry {
+
+    @Id
+    @Column(name = "ID")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "DOCTOR_ID", nullable = false)
+    private Doctor doctor;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "PATIENT_ID", nullable = false)
+    private Patient patient;
+
+    @Column(name = "DAY", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "REQUESTED_AT", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "APPOINTMENT_ID")
+    private Appointment appointment;
+}
@@ -0,0 +1,6 @@
+package gr.aueb.cf.healthhaven.model;
+
+public enum WaitlistStatus {
+    WAITING,
+    BOOKED
+}
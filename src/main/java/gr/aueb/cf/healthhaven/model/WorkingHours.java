@@ -0,0 +1,33 @@
+package gr.aueb.cf.healthhaven.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * A period of the weekly schedule of a doctor. A day may have several periods, e.g. around a lunch break.
+ */
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class WorkingHours {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "DAY_OF_WEEK", nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(name = "START_TIME", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "END_TIME", nullable = false)
+    private LocalTime endTime;
+}
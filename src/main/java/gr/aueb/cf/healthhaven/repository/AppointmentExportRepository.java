@@ -0,0 +1,21 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
+
+import java.util.stream.Stream;
+
+/**
+ * Streaming queries of {@link AppointmentRepository}, used for exports that must not hold the whole result in memory.
+ */
+public interface AppointmentExportRepository {
+
+    /**
+     * Streams every appointment of a doctor, oldest first, straight from a forward-only JDBC cursor.
+     * The stream must be consumed and closed inside a transaction.
+     *
+     * @param doctorId  the ID of the doctor
+     * @param fetchSize the number of rows the driver fetches per round trip
+     * @return the appointments of the doctor
+     */
+    Stream<AppointmentReadOnlyDTO> streamReadOnlyDTOsByDoctorId(Long doctorId, int fetchSize);
+}
@@ -0,0 +1,28 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link AppointmentExportRepository}.
+ * Rows are read as DTOs, so nothing is attached to the persistence context and memory stays flat however long the history is.
+ */
+public class AppointmentExportRepositoryImpl implements AppointmentExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<AppointmentReadOnlyDTO> streamReadOnlyDTOsByDoctorId(Long doctorId, int fetchSize) {
+        return entityManager.createQuery(AppointmentRepository.READ_ONLY_DTO_SELECT +
+                        "WHERE d.id = :doctorId ORDER BY a.appointmentDateTime, a.id", AppointmentReadOnlyDTO.class)
+                .setParameter("doctorId", doctorId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,19 +1,51 @@
 package gr.aueb.cf.healthhaven.repository;
 
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
 import gr.aueb.cf.healthhaven.model.Appointment;
 import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 //@Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentExportRepository {
+
+    String READ_ONLY_DTO_SELECT = "SELECT new gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO(" +
+            "a.id, d.id, d.firstname, d.lastname, d.speciality, p.id, p.firstname, p.lastname, p.ssn, p.email, p.phoneNumber, " +
+            "a.appointmentDateTime, a.status) FROM Appointment a JOIN a.doctor d JOIN a.patient p ";
 
     Optional<Appointment>  findAppointmentByPatientFirstnameAndPatientLastname(String firstname, String lastname);
     List<Appointment> findAllByDoctorId(Long id);
     List<Appointment> findAllByPatientId(Long id);
     List<Appointment> findAppointmentByDoctorIdAndAppointmentDateTimeBetweenAndStatusNot(Long doctorId, LocalDateTime startTime, LocalDateTime endTime, AppointmentStatus status);
 
+    String SEEK_CONDITION = "AND (a.appointmentDateTime > :afterTime OR (a.appointmentDateTime = :afterTime AND a.id > :afterId)) " +
+            "AND a.appointmentDateTime < :beforeTime ORDER BY a.appointmentDateTime, a.id";
+
+    @Query(READ_ONLY_DTO_SELECT + "WHERE d.id = :doctorId " + SEEK_CONDITION)
+    List<AppointmentReadOnlyDTO> findReadOnlyDTOsByDoctorIdAfter(Long doctorId, LocalDateTime afterTime, Long afterId, LocalDateTime beforeTime, Pageable pageable);
+
+    @Query(READ_ONLY_DTO_SELECT + "WHERE p.id = :patientId " + SEEK_CONDITION)
+    List<AppointmentReadOnlyDTO> findReadOnlyDTOsByPatientIdAfter(Long patientId, LocalDateTime afterTime, Long afterId, LocalDateTime beforeTime, Pageable pageable);
+
+    @Query("SELECT a.doctor.id, a.appointmentDateTime, a.durationMinutes FROM Appointment a WHERE a.status <> :status")
+    List<Object[]> findDoctorIdAndDateTimeAndDurationByStatusNot(AppointmentStatus status);
+
+    @Query("SELECT a.appointmentDateTime FROM Appointment a WHERE a.doctor.id = :doctorId AND a.id IN :ids")
+    List<LocalDateTime> findDateTimesByDoctorIdAndIdIn(Long doctorId, Collection<Long> ids);
+
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient WHERE a.doctor.id = :doctorId AND a.id IN :ids")
+    List<Appointment> findAllWithPatientByDoctorIdAndIdIn(Long doctorId, Collection<Long> ids);
+
+    // One statement for a whole selection; the status condition leaves out rows that were moved on since they were read
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = :status, a.version = a.version + 1 WHERE a.id IN :ids AND a.status IN :previousStatuses")
+    int updateStatusByIdInAndStatusIn(Collection<Long> ids, Collection<AppointmentStatus> previousStatuses, AppointmentStatus status);
+
 }
@@ -2,16 +2,43 @@ package gr.aueb.cf.healthhaven.repository;
 
 import gr.aueb.cf.healthhaven.model.Doctor;
 import gr.aueb.cf.healthhaven.model.Speciality;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 //@Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
+    // Doctors fill the second-level and query caches, so they are read in read-write transactions, which a replica
+    // never serves: a lagging replica read would otherwise be cached as current
+    @Override
+    @Transactional
+    Optional<Doctor> findById(Long id);
+
     Optional<Doctor> findDoctorByMedicalLicenseNumber(String medicalLicenseNumber);
+
+    // The searches of the patients are served from the query cache, which Hibernate invalidates on any write to DOCTORS
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = Doctor.SEARCH_CACHE_REGION)})
+    @Transactional
     List<Doctor> findDoctorBySpeciality(Speciality speciality);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = Doctor.SEARCH_CACHE_REGION)})
+    @Transactional
     List<Doctor> findDoctorByLastnameStartingWith(String lastname);
 
+    @Query("SELECT d.id, d.firstname, d.lastname FROM Doctor d WHERE d.speciality = :speciality ORDER BY d.id")
+    List<Object[]> findIdAndNameBySpeciality(Speciality speciality, Pageable pageable);
+
+    @Query("SELECT d.id, d.firstname, d.lastname, d.speciality, d.medicalLicenseNumber FROM Doctor d")
+    List<Object[]> findIdAndSearchFields();
+
 }
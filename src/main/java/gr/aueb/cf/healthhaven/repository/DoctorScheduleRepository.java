@@ -0,0 +1,13 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.model.DoctorSchedule;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule, Long> {
+
+    @EntityGraph(attributePaths = {"weeklyHours", "exceptions"})
+    Optional<DoctorSchedule> findByDoctorId(Long doctorId);
+}
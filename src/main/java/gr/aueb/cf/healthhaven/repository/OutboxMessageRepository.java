@@ -0,0 +1,23 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.model.OutboxMessage;
+import gr.aueb.cf.healthhaven.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Rows locked by another dispatcher are skipped rather than waited for, so instances drain the outbox side by side
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now ORDER BY m.id")
+    List<OutboxMessage> findDueForUpdate(OutboxStatus status, LocalDateTime now, Pageable pageable);
+}
@@ -2,11 +2,17 @@ package gr.aueb.cf.healthhaven.repository;
 
 import gr.aueb.cf.healthhaven.model.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 //@Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     Optional<Patient> findPatientBySsn(String ssn);
+
+    @Query("SELECT p.ssn FROM Patient p WHERE p.ssn IN :ssns")
+    Set<String> findSsnsBySsnIn(Collection<String> ssns);
 }
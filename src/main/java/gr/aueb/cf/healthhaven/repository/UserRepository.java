@@ -1,12 +1,28 @@
 package gr.aueb.cf.healthhaven.repository;
 
 import gr.aueb.cf.healthhaven.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
 
 //@Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findUserByUsername(String username);
 
+    // May be read from a replica, so the doctor loaded with the user is only read from the second-level cache,
+    // never put there: a replica that lags behind an update would leave the stale row cached
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "GET"))
+    @Query("SELECT u FROM User u WHERE u.username = :username")
+    Optional<User> findForLoginByUsername(String username);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findUsernamesByUsernameIn(Collection<String> usernames);
+
 }
@@ -0,0 +1,17 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.model.WaitlistEntry;
+import gr.aueb.cf.healthhaven.model.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    boolean existsByDoctorIdAndPatientIdAndDayAndStatus(Long doctorId, Long patientId, LocalDate day, WaitlistStatus status);
+
+    @Query("SELECT w.id, w.doctor.id, w.patient.id, w.day, w.requestedAt FROM WaitlistEntry w WHERE w.status = :status AND w.day >= :fromDay")
+    List<Object[]> findWaitingFromDay(WaitlistStatus status, LocalDate fromDay);
+}
@@ -0,0 +1,70 @@
+package gr.aueb.cf.healthhaven.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Keeps the in-memory indexes in step with the database by deferring their updates
+ * to the outcome of the current transaction, and keeps the slot locks guarding them until that outcome is known.
+ */
+final class AfterTransaction {
+
+    private AfterTransaction() {
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away if there is no transaction.
+     *
+     * @param action the action
+     */
+    static void onCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Releases a lock held by the current thread once the current transaction has committed or rolled back,
+     * after the actions registered before it, or right away if there is no transaction.
+     *
+     * @param lock the lock
+     */
+    static void unlockOnCompletion(Lock lock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Runs the action if the current transaction rolls back. Without a transaction the action never runs.
+     *
+     * @param action the action
+     */
+    static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
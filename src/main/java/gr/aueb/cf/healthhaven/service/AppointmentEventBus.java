@@ -0,0 +1,310 @@
+package gr.aueb.cf.healthhaven.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process bus of the appointment events of each doctor, delivered to their open dashboards as server-sent events.
+ * A dashboard connection is an asynchronous request, so it holds no request thread between events. Publishing never
+ * waits for a client: every subscriber has a bounded buffer, drained by a small pool of sender threads, and a
+ * subscriber whose buffer fills up is disconnected instead of slowing everyone down; the browser reconnects on its
+ * own and reloads the list. Heartbeats keep idle connections open through proxies and let dead ones be noticed.
+ * <p>
+ * Writing to a client that stopped reading blocks the sender until the container's write timeout, so a few such
+ * clients could take every sender. A send that stays in flight longer than the send timeout gets its subscriber
+ * disconnected and its sender replaced by a new one, which the pool gives back once the blocked write returns.
+ * <p>
+ * The heartbeats and the stalled send checks run on a scheduler of their own rather than on the application's
+ * shared one, so jobs that block for long there, such as the notification dispatch during a mail server outage,
+ * cannot hold up the replacement of blocked senders or let idle connections drop.
+ */
+@Component
+@Slf4j
+public class AppointmentEventBus {
+
+    public static final String APPOINTMENT_CREATED = "appointment-created";
+    public static final String APPOINTMENT_STATUS_CHANGED = "appointment-status-changed";
+
+    private static final Event HEARTBEAT = new Event(null, null);
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService scheduler;
+    private final int bufferSize;
+    private final int senderThreads;
+    private final long sendTimeoutNanos;
+    private final Duration heartbeatInterval;
+    private final Duration sendCheckInterval;
+    private final Counter droppedCounter;
+    private int blockedSenders;
+
+    @Autowired
+    public AppointmentEventBus(MeterRegistry meterRegistry,
+                               @Value("${healthhaven.events.buffer-size:128}") int bufferSize,
+                               @Value("${healthhaven.events.sender-threads:4}") int senderThreads,
+                               @Value("${healthhaven.events.send-timeout:PT10S}") Duration sendTimeout,
+                               @Value("${healthhaven.events.heartbeat-interval:PT30S}") Duration heartbeatInterval,
+                               @Value("${healthhaven.events.send-check-interval:PT1S}") Duration sendCheckInterval) {
+        this.bufferSize = bufferSize;
+        this.senderThreads = senderThreads;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.heartbeatInterval = heartbeatInterval;
+        this.sendCheckInterval = sendCheckInterval;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "appointment-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "appointment-events-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("healthhaven.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Dashboards connected to the appointment events")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("healthhaven.events.dropped")
+                .description("Dashboards disconnected because they did not keep up with their events or stopped reading them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts sending the heartbeats and checking for stalled sends.
+     */
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> runScheduled("Heartbeat", this::heartbeat),
+                heartbeatInterval.toNanos(), heartbeatInterval.toNanos(), TimeUnit.NANOSECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runScheduled("Stalled send check", this::closeStalledSends),
+                sendCheckInterval.toNanos(), sendCheckInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        subscribers.values().forEach(doctorSubscribers -> doctorSubscribers.forEach(this::close));
+        senders.shutdown();
+    }
+
+    /**
+     * Subscribes a dashboard to the appointment events of a doctor.
+     * The connection lasts until the client leaves, falls behind or the asynchronous request times out.
+     *
+     * @param doctorId the ID of the doctor
+     * @return the emitter of the server-sent events
+     */
+    public SseEmitter subscribe(Long doctorId) {
+        return subscribe(doctorId, new SseEmitter());
+    }
+
+    SseEmitter subscribe(Long doctorId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(doctorId, emitter, new LinkedBlockingQueue<>(bufferSize));
+        // Added within the map's compute, so a concurrent removal of the doctor's last subscriber cannot drop the set it joins
+        subscribers.compute(doctorId, (id, doctorSubscribers) -> {
+            Set<Subscriber> joined = doctorSubscribers == null ? ConcurrentHashMap.newKeySet() : doctorSubscribers;
+            joined.add(subscriber);
+            return joined;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Publishes an event to the dashboards of a doctor. The event is only queued, so this never blocks.
+     *
+     * @param doctorId the ID of the doctor
+     * @param name     the name of the event
+     * @param data     the data of the event, sent as JSON
+     */
+    public void publish(Long doctorId, String name, Object data) {
+        Set<Subscriber> doctorSubscribers = subscribers.get(doctorId);
+        if (doctorSubscribers == null) return;
+        Event event = new Event(name, data);
+        doctorSubscribers.forEach(subscriber -> offer(subscriber, event));
+    }
+
+    /**
+     * Sends a heartbeat to every dashboard.
+     */
+    public void heartbeat() {
+        subscribers.values().forEach(doctorSubscribers -> doctorSubscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT)));
+    }
+
+    /**
+     * Disconnects the dashboards whose current send has been in flight longer than the send timeout, and starts
+     * a sender in place of each thread they block. The emitter is not touched here: the blocked send holds its lock,
+     * so the blocked sender completes it once the container fails or finishes the write.
+     */
+    public void closeStalledSends() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(doctorSubscribers -> doctorSubscribers.forEach(subscriber -> {
+            // Under the subscriber's monitor the send cannot end meanwhile, so its sender is still the blocked one
+            synchronized (subscriber) {
+                if (subscriber.sender == null || now - subscriber.sendStartedAt < sendTimeoutNanos || subscriber.stalled) return;
+                subscriber.stalled = true;
+                subscriber.closed = true;
+                resizeSenders(1);
+                subscriber.sender.interrupt();
+            }
+            log.warn("Dashboard of doctor with id: " + subscriber.doctorId + " stopped reading its events and was disconnected");
+            droppedCounter.increment();
+            remove(subscriber);
+        }));
+    }
+
+    /**
+     * Returns the number of connected dashboards.
+     *
+     * @return the number of subscribers
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // A task of a scheduled executor that throws is never run again, so a failure is only logged
+    private void runScheduled(String what, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error(what + " of the appointment events failed", e);
+        }
+    }
+
+    private void offer(Subscriber subscriber, Event event) {
+        if (!subscriber.queue.offer(event)) {
+            log.warn("Dashboard of doctor with id: " + subscriber.doctorId + " did not keep up with its events and was disconnected");
+            droppedCounter.increment();
+            close(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    // The emitter is only ever used by the sender that drains the subscriber, so a client that is slow to read never
+    // holds up the publisher; it holds up its sender until closeStalledSends replaces it
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.closed = true;
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        boolean replaced = false;
+        try {
+            Event event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                synchronized (subscriber) {
+                    subscriber.sendStartedAt = System.nanoTime();
+                    subscriber.sender = Thread.currentThread();
+                }
+                try {
+                    subscriber.emitter.send(event == HEARTBEAT
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+                } finally {
+                    synchronized (subscriber) {
+                        subscriber.sender = null;
+                        replaced = subscriber.stalled;
+                    }
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone; the container completes the request
+            subscriber.closed = true;
+            subscriber.queue.clear();
+            remove(subscriber);
+        } finally {
+            if (replaced) {
+                // This sender was replaced while it was blocked and is given back now; its interrupt must not outlive the drain
+                Thread.interrupted();
+                resizeSenders(-1);
+            }
+            subscriber.scheduled.set(false);
+            if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        blockedSenders += delta;
+        int size = senderThreads + blockedSenders;
+        // The core size may never exceed the maximum, so the order depends on the direction
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) return;
+        subscribers.computeIfPresent(subscriber.doctorId, (id, doctorSubscribers) -> {
+            doctorSubscribers.remove(subscriber);
+            return doctorSubscribers.isEmpty() ? null : doctorSubscribers;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private record Event(String name, Object data) {
+    }
+
+    private static final class Subscriber {
+
+        private final Long doctorId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private volatile boolean closed;
+        // Guarded by the subscriber's monitor
+        private boolean stalled;
+        private long sendStartedAt;
+        private Thread sender;
+
+        private Subscriber(Long doctorId, SseEmitter emitter, BlockingQueue<Event> queue) {
+            this.doctorId = doctorId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
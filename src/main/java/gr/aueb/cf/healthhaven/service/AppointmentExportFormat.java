@@ -0,0 +1,44 @@
+package gr.aueb.cf.healthhaven.service;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The formats an appointment history can be exported in.
+ */
+public enum AppointmentExportFormat {
+
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    JSON(MediaType.APPLICATION_JSON, "json");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    AppointmentExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Finds the format with the given file extension, ignoring case.
+     *
+     * @param extension the file extension, e.g. {@code csv}
+     * @return the format
+     * @throws IllegalArgumentException if no format has the extension
+     */
+    public static AppointmentExportFormat of(String extension) {
+        for (AppointmentExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) return format;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + extension);
+    }
+}
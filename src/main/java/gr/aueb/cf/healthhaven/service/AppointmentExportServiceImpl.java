@@ -0,0 +1,157 @@
+package gr.aueb.cf.healthhaven.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientReadOnlyDTO;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for exporting the appointment history of a doctor.
+ * Appointments are streamed from a database cursor and written to the output one by one,
+ * so the memory used by an export does not depend on the number of appointments.
+ */
+@Service
+@Slf4j
+public class AppointmentExportServiceImpl implements IAppointmentExportService {
+
+    private static final String CSV_HEADER = "id,appointmentTime,status,doctorFirstname,doctorLastname,speciality," +
+            "patientId,patientFirstname,patientLastname,patientSsn,patientEmail,patientPhoneNumber\n";
+
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    @Autowired
+    public AppointmentExportServiceImpl(AppointmentRepository appointmentRepository, ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${healthhaven.export.fetch-size:1000}") int fetchSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every appointment of a doctor, oldest first, to the given output.
+     * The header is flushed before the query is run, so the client starts receiving the export right away.
+     *
+     * @param doctorId the ID of the doctor
+     * @param format   the format of the export
+     * @param out      the output, left open
+     * @throws IOException if the output cannot be written
+     */
+    @Override
+    public void exportAppointmentsByDoctorId(Long doctorId, AppointmentExportFormat format, OutputStream out) throws IOException {
+        long rows;
+        try {
+            rows = switch (format) {
+                case CSV -> exportCsv(doctorId, out);
+                case JSON -> exportJson(doctorId, out);
+            };
+        } catch (UncheckedIOException e) {
+            log.error("Export of the appointments of doctor with id: " + doctorId + " was aborted. " + e.getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported " + rows + " appointments of doctor with id: " + doctorId + " as " + format);
+    }
+
+    private long exportCsv(Long doctorId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.flush();
+
+        long rows = streamAppointments(doctorId, appointment -> writeCsvRow(writer, appointment));
+        writer.flush();
+        return rows;
+    }
+
+    private long exportJson(Long doctorId, OutputStream out) throws IOException {
+        JsonGenerator generator = jsonWriter.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        generator.flush();
+
+        long rows = streamAppointments(doctorId, appointment -> jsonWriter.writeValue(generator, appointment));
+        generator.writeEndArray();
+        generator.close();
+        return rows;
+    }
+
+    private long streamAppointments(Long doctorId, RowWriter rowWriter) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<AppointmentReadOnlyDTO> appointments = appointmentRepository.streamReadOnlyDTOsByDoctorId(doctorId, fetchSize)) {
+                for (AppointmentReadOnlyDTO appointment : (Iterable<AppointmentReadOnlyDTO>) appointments::iterator) {
+                    rowWriter.write(appointment);
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static void writeCsvRow(Writer writer, AppointmentReadOnlyDTO appointment) throws IOException {
+        DoctorReadOnlyDTO doctor = appointment.getDoctorInfo();
+        PatientReadOnlyDTO patient = appointment.getPatientInfo();
+        writer.write(String.valueOf(appointment.getId()));
+        writeCsvField(writer, appointment.getAppointmentTime());
+        writeCsvField(writer, appointment.getStatus());
+        writeCsvField(writer, doctor.getFirstname());
+        writeCsvField(writer, doctor.getLastname());
+        writeCsvField(writer, doctor.getSpeciality());
+        writeCsvField(writer, patient.getId());
+        writeCsvField(writer, patient.getFirstname());
+        writeCsvField(writer, patient.getLastname());
+        writeCsvField(writer, patient.getSsn());
+        writeCsvField(writer, patient.getEmail());
+        writeCsvField(writer, patient.getPhoneNumber());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) return;
+        String text = value.toString();
+        boolean quoted = false;
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            char c = text.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(AppointmentReadOnlyDTO appointment) throws IOException;
+    }
+}
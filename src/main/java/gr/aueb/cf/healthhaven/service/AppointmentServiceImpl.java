@@ -1,62 +1,129 @@
 package gr.aueb.cf.healthhaven.service;
 
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
 import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentSeriesResultDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusResultDTO;
 import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentUpdateDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.DoctorFreeSlotsDTO;
+import gr.aueb.cf.healthhaven.mapper.Mapper;
 import gr.aueb.cf.healthhaven.model.*;
 import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
 import gr.aueb.cf.healthhaven.repository.DoctorRepository;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
 import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidStatusTransitionException;
+import gr.aueb.cf.healthhaven.service.exceptions.SlotUnavailableException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service implementation for managing appointments within the Medical Appointment Management system.
  * This class handles all business logic related to appointment entities, including creation, updates,
  * deletion, and querying of appointment data.
+ * The appointment pages are read in read-only transactions, which are served by a read replica when one is configured.
+ * New appointments and status changes are published to the open dashboards of their doctor once they are committed.
  */
 @Service
 @Slf4j
+@Timed(value = "healthhaven.service", histogram = true)
 public class AppointmentServiceImpl implements IAppointmentService {
 
+    private static final LocalDateTime NO_WINDOW_START = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime NO_WINDOW_END = LocalDateTime.of(9999, 12, 31, 23, 59);
+    private static final int MAX_SERIES_OCCURRENCES = 52;
+    static final int MAX_STATUS_ATTEMPTS = 3;
+    private static final int MAX_BULK_STATUS_UPDATES = 100;
+
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final IPatientService patientService;
+    private final AppointmentSlotIndex slotIndex;
+    private final AppointmentSlotLocks slotLocks;
+    private final DoctorScheduleCache scheduleCache;
+    private final IWaitlistService waitlistService;
+    private final INotificationService notificationService;
+    private final AppointmentEventBus eventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter bookedCounter;
+    private final Counter conflictCounter;
 
     @Autowired
-    public AppointmentServiceImpl(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository, IPatientService patientService) {
+    public AppointmentServiceImpl(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository, IPatientService patientService,
+                                  AppointmentSlotIndex slotIndex, AppointmentSlotLocks slotLocks, DoctorScheduleCache scheduleCache,
+                                  IWaitlistService waitlistService, INotificationService notificationService, AppointmentEventBus eventBus,
+                                  TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
         this.appointmentRepository = appointmentRepository;
         this.doctorRepository = doctorRepository;
         this.patientService = patientService;
+        this.slotIndex = slotIndex;
+        this.slotLocks = slotLocks;
+        this.scheduleCache = scheduleCache;
+        this.waitlistService = waitlistService;
+        this.notificationService = notificationService;
+        this.eventBus = eventBus;
+        this.transactionTemplate = transactionTemplate;
+        this.bookedCounter = bookingCounter(meterRegistry, "booked");
+        this.conflictCounter = bookingCounter(meterRegistry, "conflict");
+    }
+
+    private static Counter bookingCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("healthhaven.appointments.bookings")
+                .description("Appointment bookings by outcome, a conflict being a slot that was already taken")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
      * Validates and constructs the date and time for a new appointment.
      * Converts the provided year, month, day, hour, and minute into a LocalDateTime object and
-     * validates that it falls within office hours.
+     * validates that one of the slots of the doctor starts then.
      *
+     * @param slots  the compiled slots of the doctor
      * @param year   the year of the appointment
      * @param month  the month of the appointment
      * @param day    the day of the appointment
      * @param hour   the hour of the appointment
      * @param minute the minute of the appointment
      * @return the validated LocalDateTime of the appointment
-     * @throws InvalidAppointmentException if the appointment time is outside office hours
+     * @throws InvalidAppointmentException if the appointment time is not the start of a slot within office hours
      */
-    private LocalDateTime validateAndGetAppointmentDateTime(int year, int month, int day, int hour, int minute) throws InvalidAppointmentException {
-        LocalDateTime appointmentDateTime = LocalDateTime.of(year, month, day, hour, minute);
-
-        int openingHour = 9;
-        int closingHour = 21;
-
-        LocalDateTime officeOpeningTime = LocalDateTime.of(year, month, day, openingHour, 0);
-        LocalDateTime officeClosingTime = LocalDateTime.of(year, month, day, closingHour, 0);
+    private LocalDateTime validateAndGetAppointmentDateTime(DoctorSlots slots, int year, int month, int day, int hour, int minute) throws InvalidAppointmentException {
+        LocalDateTime appointmentDateTime;
+        try {
+            appointmentDateTime = LocalDateTime.of(year, month, day, hour, minute);
+        } catch (DateTimeException e) {
+            throw new InvalidAppointmentException("Invalid appointment time.");
+        }
+        // The dates a DATETIME column can hold
+        if (appointmentDateTime.isBefore(NO_WINDOW_START) || appointmentDateTime.isAfter(NO_WINDOW_END)) {
+            throw new InvalidAppointmentException("Invalid appointment time.");
+        }
 
-        if (appointmentDateTime.isBefore(officeOpeningTime) || appointmentDateTime.isAfter(officeClosingTime.minusMinutes(10))) {
+        if (!slots.isSlot(appointmentDateTime)) {
             throw new InvalidAppointmentException("Appointment time is outside of office hours.");
         }
 
@@ -64,24 +131,23 @@ public class AppointmentServiceImpl implements IAppointmentService {
     }
 
     /**
-     * Checks if the appointment time is free (i.e., the doctor doesn't have an appointment at that time).
+     * Checks if the appointment time is free (i.e., no appointment of the doctor overlaps it).
+     * The check is answered by the in-memory {@link AppointmentSlotIndex} without querying the database.
      *
      * @param dateTime the date and time of the appointment
+     * @param minutes  the duration of the appointment
      * @param doctorId the ID of the doctor
      * @return true if the appointment time is free, false otherwise
      */
-    private boolean isAppointmentTimeFree(LocalDateTime dateTime, Long doctorId) {
-        LocalDateTime appointmentEndTime = dateTime.plusHours(1);
-        List<Appointment> appointments = appointmentRepository
-                .findAppointmentByDoctorIdAndAppointmentDateTimeBetweenAndStatusNot(
-                        doctorId, dateTime, appointmentEndTime, AppointmentStatus.CANCELLED);
-
-        return appointments.isEmpty();
+    private boolean isAppointmentTimeFree(LocalDateTime dateTime, int minutes, Long doctorId) {
+        return slotIndex.isFree(doctorId, dateTime, minutes);
     }
 
 
     /**
      * Creates a new appointment.
+     * The availability check, the insert and the slot index update run under the lock of the
+     * (doctor, slot) pair, so concurrent bookings of the same slot cannot both succeed.
      *
      * @param dto the data transfer object containing the appointment details
      * @return the created appointment
@@ -95,15 +161,28 @@ public class AppointmentServiceImpl implements IAppointmentService {
 
         try {
             doctor = doctorRepository.findById(dto.getDoctorId()).orElseThrow(() -> new EntityNotFoundException(Doctor.class, dto.getDoctorId()));
-            LocalDateTime appointmentDateTime = validateAndGetAppointmentDateTime(dto.getYear(), dto.getMonth(), dto.getDay(), dto.getHour(), 0);
-            if (!isAppointmentTimeFree(appointmentDateTime, dto.getDoctorId())) {
-                throw new InvalidAppointmentException("The appointment time is not available.");
-            }
+            DoctorSlots slots = scheduleCache.slotsOf(doctor.getId());
+            LocalDateTime appointmentDateTime = validateAndGetAppointmentDateTime(slots, dto.getYear(), dto.getMonth(), dto.getDay(), dto.getHour(), dto.getMinute());
+            int minutes = slots.slotMinutes();
             appointment.setPatient(patientService.getCurrentPatient());
             appointment.setDoctor(doctor);
             appointment.setAppointmentDateTime(appointmentDateTime);
+            appointment.setDurationMinutes(minutes);
 
-            appointmentRepository.save(appointment);
+            ReentrantLock lock = slotLocks.lockFor(doctor.getId(), appointmentDateTime);
+            lock.lock();
+            try {
+                if (!isAppointmentTimeFree(appointmentDateTime, minutes, doctor.getId())) {
+                    conflictCounter.increment();
+                    throw new SlotUnavailableException();
+                }
+                appointmentRepository.save(appointment);
+                slotIndex.occupy(doctor.getId(), appointmentDateTime, minutes);
+                bookedCounter.increment();
+                publishOnCommit(AppointmentEventBus.APPOINTMENT_CREATED, appointment);
+            } finally {
+                lock.unlock();
+            }
             log.info("Appointment with id: " + appointment.getId() + " has been successfully created");
         } catch (InvalidAppointmentException | EntityNotFoundException e) {
             log.error(e.getMessage());
@@ -112,13 +191,104 @@ public class AppointmentServiceImpl implements IAppointmentService {
         return appointment;
     }
 
+    /**
+     * Books a recurring series of appointments with the same doctor, at the same time of day.
+     * The locks of all the slots of the series are taken at once, the free slots are found in the in-memory
+     * {@link AppointmentSlotIndex}, and the appointments of all of them are inserted in a single transaction,
+     * as JDBC batches. Slots that are already taken, and occurrences on which the doctor does not work at that time,
+     * are skipped and reported, so a 52-week series costs a few statements instead of one availability check
+     * and one insert per week.
+     *
+     * @param dto the data transfer object containing the first appointment, the recurrence and the number of occurrences
+     * @return the booked and the conflicting occurrences
+     * @throws InvalidAppointmentException if the number of occurrences is out of range or the time is outside office hours
+     * @throws EntityNotFoundException     if the doctor or patient does not exist
+     */
+    @Override
+    public AppointmentSeriesResultDTO createAppointmentSeries(AppointmentRegisterDTO dto) throws InvalidAppointmentException, EntityNotFoundException {
+        List<LocalDateTime> booked = new ArrayList<>();
+        List<LocalDateTime> conflicts = new ArrayList<>();
+
+        try {
+            if (dto.getOccurrences() < 1 || dto.getOccurrences() > MAX_SERIES_OCCURRENCES) {
+                throw new InvalidAppointmentException("A series must have between 1 and " + MAX_SERIES_OCCURRENCES + " appointments.");
+            }
+            Doctor doctor = doctorRepository.findById(dto.getDoctorId()).orElseThrow(() -> new EntityNotFoundException(Doctor.class, dto.getDoctorId()));
+            DoctorSlots doctorSlots = scheduleCache.slotsOf(doctor.getId());
+            LocalDateTime first = validateAndGetAppointmentDateTime(doctorSlots, dto.getYear(), dto.getMonth(), dto.getDay(), dto.getHour(), dto.getMinute());
+            int minutes = doctorSlots.slotMinutes();
+            Patient patient = patientService.getCurrentPatient();
+            List<LocalDateTime> slots = occurrencesOf(first, dto.getRecurrence(), dto.getOccurrences());
+
+            List<ReentrantLock> locks = slotLocks.locksFor(doctor.getId(), slots);
+            locks.forEach(ReentrantLock::lock);
+            try {
+                List<Appointment> appointments = new ArrayList<>(slots.size());
+                for (LocalDateTime slot : slots) {
+                    if (!doctorSlots.isSlot(slot) || !isAppointmentTimeFree(slot, minutes, doctor.getId())) {
+                        conflicts.add(slot);
+                        continue;
+                    }
+                    Appointment appointment = new Appointment();
+                    appointment.setDoctor(doctor);
+                    appointment.setPatient(patient);
+                    appointment.setAppointmentDateTime(slot);
+                    appointment.setDurationMinutes(minutes);
+                    appointments.add(appointment);
+                    booked.add(slot);
+                }
+                if (!appointments.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> appointmentRepository.saveAll(appointments));
+                    booked.forEach(slot -> slotIndex.occupy(doctor.getId(), slot, minutes));
+                    appointments.forEach(appointment -> publishOnCommit(AppointmentEventBus.APPOINTMENT_CREATED, appointment));
+                }
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
+            bookedCounter.increment(booked.size());
+            conflictCounter.increment(conflicts.size());
+            log.info("Series of " + booked.size() + " appointments with doctor with id: " + doctor.getId() + " has been created, "
+                    + conflicts.size() + " occurrences were not available");
+        } catch (InvalidAppointmentException | EntityNotFoundException e) {
+            log.error(e.getMessage());
+            throw e;
+        }
+        return new AppointmentSeriesResultDTO(booked, conflicts);
+    }
+
+    private static List<LocalDateTime> occurrencesOf(LocalDateTime first, Recurrence recurrence, int occurrences) {
+        Recurrence rule = recurrence == null ? Recurrence.NONE : recurrence;
+        int count = rule == Recurrence.NONE ? 1 : occurrences;
+        List<LocalDateTime> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Every occurrence is computed from the first one, so month ends do not shift the later ones
+            slots.add(switch (rule) {
+                case NONE -> first;
+                case DAILY -> first.plusDays(i);
+                case WEEKLY -> first.plusWeeks(i);
+                case BIWEEKLY -> first.plusWeeks(2L * i);
+                case MONTHLY -> first.plusMonths(i);
+            });
+        }
+        return slots;
+    }
+
     /**
      * Updates an existing appointment.
+     * The appointment is moved to a slot of the current schedule of the doctor and takes its slot length.
+     * Its own slot does not count as taken, so it can be moved to an overlapping slot of the same day.
+     * Under the locks of both slots the appointment is read again and changed by dirty checking. Outside a transaction
+     * of the caller the second read is a fresh one from the database, so a change committed since the first read fails
+     * the update instead of being lost; within one, the persistence context returns the same appointment and such a
+     * change fails the version check when the move is written.
      *
      * @param dto the data transfer object containing the updated appointment details
      * @return the updated appointment
      * @throws EntityNotFoundException     if the appointment does not exist
      * @throws InvalidAppointmentException if the appointment time is not available or outside office hours
+     * @throws ObjectOptimisticLockingFailureException if the appointment was changed or deleted concurrently
      */
     @Override
     public Appointment updateAppointment(AppointmentUpdateDTO dto) throws EntityNotFoundException, InvalidAppointmentException {
@@ -126,13 +296,52 @@ public class AppointmentServiceImpl implements IAppointmentService {
 
         try {
             appointmentToUpdate = appointmentRepository.findById(dto.getId()).orElseThrow(() -> new EntityNotFoundException(Appointment.class, dto.getId()));
-            LocalDateTime appointmentDateTime = validateAndGetAppointmentDateTime(dto.getYear(), dto.getMonth(), dto.getDay(), dto.getHour(), 0);
-            if (!isAppointmentTimeFree(appointmentDateTime, dto.getDoctorId())) {
-                throw new InvalidAppointmentException("The appointment time is not available.");
-            }
+            long readVersion = appointmentToUpdate.getVersion();
+            Long doctorId = appointmentToUpdate.getDoctor().getId();
+            DoctorSlots slots = scheduleCache.slotsOf(doctorId);
+            LocalDateTime appointmentDateTime = validateAndGetAppointmentDateTime(slots, dto.getYear(), dto.getMonth(), dto.getDay(), dto.getHour(), dto.getMinute());
+            int minutes = slots.slotMinutes();
+            LocalDateTime previousDateTime = appointmentToUpdate.getAppointmentDateTime();
+            int previousMinutes = appointmentToUpdate.getDurationMinutes();
+            boolean active = appointmentToUpdate.getStatus() != AppointmentStatus.CANCELLED;
+
+            List<ReentrantLock> locks = slotLocks.locksFor(doctorId, List.of(previousDateTime, appointmentDateTime));
+            locks.forEach(ReentrantLock::lock);
+            try {
+                if (active) {
+                    slotIndex.release(doctorId, previousDateTime);
+                }
+                if (!isAppointmentTimeFree(appointmentDateTime, minutes, doctorId)) {
+                    if (active) {
+                        slotIndex.occupy(doctorId, previousDateTime, previousMinutes);
+                    }
+                    throw new SlotUnavailableException();
+                }
 
-            appointmentToUpdate.setAppointmentDateTime(appointmentDateTime);
-            appointmentRepository.save(appointmentToUpdate);
+                try {
+                    appointmentToUpdate = transactionTemplate.execute(status -> {
+                        Appointment appointment = appointmentRepository.findById(dto.getId())
+                                .orElseThrow(() -> new ObjectOptimisticLockingFailureException(Appointment.class, dto.getId()));
+                        Versions.check(Appointment.class, dto.getId(), readVersion, appointment.getVersion());
+                        appointment.setAppointmentDateTime(appointmentDateTime);
+                        appointment.setDurationMinutes(minutes);
+                        return appointment;
+                    });
+                } catch (OptimisticLockingFailureException e) {
+                    if (active) {
+                        slotIndex.occupy(doctorId, previousDateTime, previousMinutes);
+                    }
+                    log.error("Appointment with id: " + dto.getId() + " was changed concurrently and has not been moved");
+                    throw e;
+                }
+                if (active) {
+                    slotIndex.occupy(doctorId, appointmentDateTime, minutes);
+                }
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
         } catch (EntityNotFoundException | InvalidAppointmentException e) {
             log.error(e.getMessage());
             throw e;
@@ -142,17 +351,33 @@ public class AppointmentServiceImpl implements IAppointmentService {
 
     /**
      * Deletes an appointment by its ID.
+     * If the appointment held a slot, the slot is given to the waitlist of the doctor for that day.
+     * The slot is locked before anything is written and stays locked until the transaction completes, so no booking
+     * can take the slot before the delete is committed, or keep it after the delete has rolled back.
      *
      * @param id the ID of the appointment to delete
      * @throws EntityNotFoundException if the appointment does not exist
+     * @throws ObjectOptimisticLockingFailureException if the appointment was moved to another slot concurrently
      */
     @Override
+    @Transactional
     public void deleteAppointmentById(Long id) throws EntityNotFoundException {
         Appointment appointmentToDelete;
         try {
             appointmentToDelete = appointmentRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFoundException(Appointment.class, id));
+            Long doctorId = appointmentToDelete.getDoctor().getId();
+            ReentrantLock lock = slotLocks.lockFor(doctorId, appointmentToDelete.getAppointmentDateTime());
+            lock.lock();
+            AfterTransaction.unlockOnCompletion(lock);
+            // Reschedules hold the lock of the slot they leave, so once it is held the slot read here is either still current or stale for good
+            if (!appointmentRepository.findDateTimesByDoctorIdAndIdIn(doctorId, Set.of(id)).equals(List.of(appointmentToDelete.getAppointmentDateTime()))) {
+                throw new ObjectOptimisticLockingFailureException(Appointment.class, id);
+            }
             appointmentRepository.deleteById(id);
+            if (appointmentToDelete.getStatus() != AppointmentStatus.CANCELLED) {
+                freeSlot(appointmentToDelete.getDoctor().getId(), appointmentToDelete.getAppointmentDateTime(), appointmentToDelete.getDurationMinutes());
+            }
             log.info("Appointment with id: " + id + " was successfully deleted");
 
         } catch (EntityNotFoundException e) {
@@ -202,6 +427,78 @@ public class AppointmentServiceImpl implements IAppointmentService {
         return appointments;
     }
 
+    /**
+     * Retrieves one page of the appointments of a specific doctor within a date window.
+     * Pages are read with keyset pagination on (date and time, ID), so the cost of a page does not
+     * depend on how much history the doctor has. Without a window, all the appointments are listed, oldest first.
+     *
+     * @param doctorId  the ID of the doctor
+     * @param from      the start of the window (inclusive), or null for no start
+     * @param to        the end of the window (exclusive), or null for no end
+     * @param afterTime the date and time of the last appointment of the previous page, or null for the first page
+     * @param afterId   the ID of the last appointment of the previous page, or null for the first page
+     * @param size      the maximum number of appointments of the page
+     * @return the page of appointments together with the cursor of the next page
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public AppointmentPageDTO getAppointmentPageByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to, LocalDateTime afterTime, Long afterId, int size) {
+        boolean firstPage = afterTime == null || afterId == null;
+        List<AppointmentReadOnlyDTO> appointments = appointmentRepository.findReadOnlyDTOsByDoctorIdAfter(doctorId,
+                firstPage ? windowStart(from) : afterTime, firstPage ? 0L : afterId, windowEnd(to), PageRequest.of(0, size + 1));
+        return toPage(appointments, size);
+    }
+
+    /**
+     * Retrieves one page of the appointments of the current logged-in patient within a date window.
+     * Pages are read with keyset pagination on (date and time, ID). Without a window, all the
+     * appointments are listed, oldest first.
+     *
+     * @param from      the start of the window (inclusive), or null for no start
+     * @param to        the end of the window (exclusive), or null for no end
+     * @param afterTime the date and time of the last appointment of the previous page, or null for the first page
+     * @param afterId   the ID of the last appointment of the previous page, or null for the first page
+     * @param size      the maximum number of appointments of the page
+     * @return the page of appointments together with the cursor of the next page
+     * @throws EntityNotFoundException if the patient does not exist
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public AppointmentPageDTO getAppointmentPageByPatient(LocalDateTime from, LocalDateTime to, LocalDateTime afterTime, Long afterId, int size) throws EntityNotFoundException {
+        Long patientId;
+        try {
+            patientId = patientService.getCurrentPatientId();
+        } catch (EntityNotFoundException e) {
+            log.error(e.getMessage());
+            throw e;
+        }
+        boolean firstPage = afterTime == null || afterId == null;
+        List<AppointmentReadOnlyDTO> appointments = appointmentRepository.findReadOnlyDTOsByPatientIdAfter(patientId,
+                firstPage ? windowStart(from) : afterTime, firstPage ? 0L : afterId, windowEnd(to), PageRequest.of(0, size + 1));
+        return toPage(appointments, size);
+    }
+
+    private static LocalDateTime windowStart(LocalDateTime from) {
+        return from == null ? NO_WINDOW_START : from;
+    }
+
+    private static LocalDateTime windowEnd(LocalDateTime to) {
+        return to == null ? NO_WINDOW_END : to;
+    }
+
+    /**
+     * Builds a page out of a result that was read with one row more than the page size,
+     * the extra row only telling whether a next page exists.
+     */
+    private static AppointmentPageDTO toPage(List<AppointmentReadOnlyDTO> appointments, int size) {
+        if (appointments.size() <= size) {
+            return new AppointmentPageDTO(appointments, false, null, null);
+        }
+        List<AppointmentReadOnlyDTO> page = appointments.subList(0, size);
+        AppointmentReadOnlyDTO last = page.get(size - 1);
+        return new AppointmentPageDTO(page, true, last.getAppointmentTime(), last.getId());
+    }
+
     /**
      * Retrieves all appointments for the current logged-in patient.
      *
@@ -210,11 +507,9 @@ public class AppointmentServiceImpl implements IAppointmentService {
      */
     @Override
     public List<Appointment> getAppointmentByPatient() throws EntityNotFoundException {
-        Patient patient;
         List<Appointment> appointments;
         try {
-            patient = patientService.getCurrentPatient();
-            appointments = appointmentRepository.findAllByPatientId(patient.getId());
+            appointments = appointmentRepository.findAllByPatientId(patientService.getCurrentPatientId());
 
         } catch (EntityNotFoundException e) {
             log.error(e.getMessage());
@@ -223,22 +518,279 @@ public class AppointmentServiceImpl implements IAppointmentService {
         return appointments;
     }
 
+    /**
+     * Finds the next free slots of every doctor of a speciality within a date range.
+     * The doctors are read one page at a time; the slots of each doctor come from their compiled schedule
+     * and are checked against the in-memory {@link AppointmentSlotIndex}, so apart from the page of doctors
+     * no query is issued.
+     *
+     * @param speciality     the speciality of the doctors
+     * @param from           the first day of the range (inclusive)
+     * @param to             the last day of the range (inclusive)
+     * @param slotsPerDoctor the maximum number of free slots returned for each doctor
+     * @param page           the zero-based page of doctors
+     * @param size           the number of doctors per page
+     * @return the free slots of each doctor of the requested page, in doctor ID order
+     */
+    @Override
+    public List<DoctorFreeSlotsDTO> findFreeSlotsBySpeciality(Speciality speciality, LocalDate from, LocalDate to, int slotsPerDoctor, int page, int size) {
+        List<Object[]> doctors = doctorRepository.findIdAndNameBySpeciality(speciality, PageRequest.of(page, size));
+        List<DoctorFreeSlotsDTO> result = new ArrayList<>(doctors.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime rangeStart = from.atStartOfDay().isAfter(now) ? from.atStartOfDay() : now;
+        for (Object[] doctor : doctors) {
+            Long doctorId = (Long) doctor[0];
+            DoctorSlots slots = scheduleCache.slotsOf(doctorId);
+
+            List<LocalDateTime> freeSlots = new ArrayList<>(slotsPerDoctor);
+            for (LocalDate day = rangeStart.toLocalDate(); !day.isAfter(to) && freeSlots.size() < slotsPerDoctor; day = day.plusDays(1)) {
+                for (LocalDateTime slot : slots.slotsOn(day)) {
+                    if (freeSlots.size() == slotsPerDoctor) break;
+                    if (!slot.isBefore(rangeStart) && isAppointmentTimeFree(slot, slots.slotMinutes(), doctorId)) {
+                        freeSlots.add(slot);
+                    }
+                }
+            }
+            result.add(new DoctorFreeSlotsDTO(doctorId, (String) doctor[1], (String) doctor[2], freeSlots));
+        }
+        log.info("Free slots for " + result.size() + " doctors with speciality: " + speciality + " were found");
+        return result;
+    }
+
+    /**
+     * Retrieves the slot length of a doctor, from the compiled schedule of the doctor.
+     *
+     * @param doctorId the ID of the doctor
+     * @return the length of a slot of the doctor in minutes
+     */
+    @Override
+    public int getSlotMinutes(Long doctorId) {
+        return scheduleCache.slotsOf(doctorId).slotMinutes();
+    }
+
     /**
      * Updates the status of an appointment.
+     * Only the transitions of {@link AppointmentStatus} are allowed; setting the current status again changes nothing.
+     * A cancelled appointment frees its slot, which is booked in the same transaction for the patient
+     * that has waited the longest for the doctor on that day. The patient is notified of the change through
+     * the outbox, so the change does not wait for the notification to be sent.
+     * Setting a status is idempotent, so when the appointment is changed concurrently the update is read again and
+     * retried, up to {@value #MAX_STATUS_ATTEMPTS} times; status updates of the same slot of this instance wait for
+     * each other on the slot lock, so the retries only meet the writes of other instances. Within a transaction of
+     * the caller the update is not retried, as the failure has already marked that transaction for rollback.
      *
      * @param appointmentId the ID of the appointment to update
      * @param status        the new status of the appointment
      * @return the updated appointment
-     * @throws EntityNotFoundException if the appointment does not exist
+     * @throws EntityNotFoundException          if the appointment does not exist
+     * @throws InvalidStatusTransitionException if the appointment cannot be moved from its status to the new one
+     * @throws OptimisticLockingFailureException if the appointment kept being changed concurrently
      */
     @Override
-    public Appointment updateAppointmentStatus(Long appointmentId, AppointmentStatus status) throws EntityNotFoundException {
-        Appointment appointmentToUpdate = appointmentRepository.findById(appointmentId)
+    public Appointment updateAppointmentStatus(Long appointmentId, AppointmentStatus status) throws EntityNotFoundException, InvalidAppointmentException {
+        Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new EntityNotFoundException(Appointment.class, appointmentId));
 
+        Appointment updated;
+        ReentrantLock lock = slotLocks.lockFor(appointment.getDoctor().getId(), appointment.getAppointmentDateTime());
+        lock.lock();
+        try {
+            updated = withStatusRetries("Appointment with id: " + appointmentId, tx -> applyStatus(appointmentId, status));
+        } finally {
+            lock.unlock();
+        }
+        if (updated == null) {
+            throw new EntityNotFoundException(Appointment.class, appointmentId);
+        }
+        if (updated.getStatus() != status) {
+            InvalidStatusTransitionException e = new InvalidStatusTransitionException(updated.getStatus(), status);
+            log.error(e.getMessage());
+            throw e;
+        }
+        log.info("Appointment with id: " + appointmentId + " has been successfully updated with new status: " + status);
+        return updated;
+    }
+
+    /**
+     * Updates the status of many appointments of a doctor at once, such as the confirmations after a morning's triage.
+     * The appointments are read in one query and those whose status can be moved to the new one are updated by a
+     * single statement, guarded by their previous statuses. Appointments that already have the status are left
+     * unchanged, and appointments of other doctors are reported as not found. The slots of the appointments are locked
+     * and the update is retried on a concurrent change, as for a single appointment; cancelled slots are offered to the
+     * waitlist and every patient whose appointment changed is notified through the outbox, all in the same transaction.
+     * The slots to lock are read before the transaction, so if an appointment was rescheduled meanwhile the transaction
+     * changes nothing and the slots are read and locked again.
+     *
+     * @param doctorId       the ID of the doctor the appointments belong to
+     * @param appointmentIds the IDs of the appointments
+     * @param status         the new status of the appointments
+     * @return the outcome for every requested ID, in the requested order
+     * @throws InvalidAppointmentException if no IDs or more than {@value #MAX_BULK_STATUS_UPDATES} are given, or no status
+     * @throws OptimisticLockingFailureException if the appointments kept being changed concurrently
+     */
+    @Override
+    public List<AppointmentStatusResultDTO> updateAppointmentStatuses(Long doctorId, List<Long> appointmentIds, AppointmentStatus status) throws InvalidAppointmentException {
+        Set<Long> ids = new LinkedHashSet<>(appointmentIds == null ? List.of() : appointmentIds);
+        ids.remove(null);
+        if (status == null || ids.isEmpty() || ids.size() > MAX_BULK_STATUS_UPDATES) {
+            InvalidAppointmentException e = new InvalidAppointmentException("A status can be set on 1 to " + MAX_BULK_STATUS_UPDATES + " appointments at once.");
+            log.error(e.getMessage());
+            throw e;
+        }
+
+        List<AppointmentStatusResultDTO> results = null;
+        for (int attempt = 1; results == null; attempt++) {
+            if (attempt > MAX_STATUS_ATTEMPTS) {
+                log.error("Appointments of doctor with id: " + doctorId + " could not be updated, they kept being rescheduled");
+                throw new OptimisticLockingFailureException("Appointments of doctor with id: " + doctorId + " kept being rescheduled while they were updated");
+            }
+            List<ReentrantLock> locks = slotLocks.locksFor(doctorId, appointmentRepository.findDateTimesByDoctorIdAndIdIn(doctorId, ids));
+            locks.forEach(ReentrantLock::lock);
+            try {
+                results = withStatusRetries("Appointments of doctor with id: " + doctorId, tx -> applyStatuses(doctorId, ids, status, locks));
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
+        }
+        log.info(results.stream().filter(result -> result.getOutcome() == StatusUpdateOutcome.UPDATED).count() + " of " + ids.size()
+                + " appointments of doctor with id: " + doctorId + " have been updated with new status: " + status);
+        return results;
+    }
+
+    /**
+     * Runs a status update in a transaction, running it again if a concurrent change made it fail.
+     *
+     * @param what   what is updated, for the log
+     * @param update the status update
+     * @return the result of the update
+     * @throws OptimisticLockingFailureException if every attempt met a concurrent change
+     */
+    private <T> T withStatusRetries(String what, TransactionCallback<T> update) {
+        int maxAttempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : MAX_STATUS_ATTEMPTS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(update);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.error(what + " could not be updated, it was changed concurrently");
+                    throw e;
+                }
+                log.warn(what + " was changed concurrently, retrying the status update");
+            }
+        }
+    }
+
+    /**
+     * Applies a status to an appointment within the current transaction. The appointment is written by dirty
+     * checking on commit, which also checks its version.
+     *
+     * @param appointmentId the ID of the appointment to update
+     * @param status        the new status of the appointment
+     * @return the appointment, left as it was if it cannot be moved to the status, or null if it does not exist
+     */
+    private Appointment applyStatus(Long appointmentId, AppointmentStatus status) {
+        Appointment appointmentToUpdate = appointmentRepository.findById(appointmentId).orElse(null);
+        if (appointmentToUpdate == null || !appointmentToUpdate.getStatus().canMoveTo(status)) {
+            return appointmentToUpdate;
+        }
+
         appointmentToUpdate.setStatus(status);
-        appointmentRepository.save(appointmentToUpdate);
-        log.info("Appointment with id: " + appointmentToUpdate.getId() + " has been successfully updated with new status: " + status);
+        if (status == AppointmentStatus.CANCELLED) {
+            freeSlot(appointmentToUpdate.getDoctor().getId(), appointmentToUpdate.getAppointmentDateTime(), appointmentToUpdate.getDurationMinutes());
+        }
+        notificationService.notifyStatusChange(appointmentToUpdate);
+        publishOnCommit(AppointmentEventBus.APPOINTMENT_STATUS_CHANGED, appointmentToUpdate);
         return appointmentToUpdate;
     }
+
+    /**
+     * Applies a status to appointments of a doctor within the current transaction, with one update statement.
+     *
+     * @param doctorId the ID of the doctor
+     * @param ids      the IDs of the appointments
+     * @param status   the new status of the appointments
+     * @param locked   the slot locks held by the caller
+     * @return the outcome for every ID, or null without any change if an appointment is in a slot that is not locked
+     * @throws OptimisticLockingFailureException if the status of an appointment changed since it was read
+     */
+    private List<AppointmentStatusResultDTO> applyStatuses(Long doctorId, Set<Long> ids, AppointmentStatus status, List<ReentrantLock> locked) {
+        Map<Long, Appointment> appointments = new HashMap<>();
+        List<Long> idsToUpdate = new ArrayList<>();
+        List<LocalDateTime> dateTimes = new ArrayList<>();
+        for (Appointment appointment : appointmentRepository.findAllWithPatientByDoctorIdAndIdIn(doctorId, ids)) {
+            appointments.put(appointment.getId(), appointment);
+            dateTimes.add(appointment.getAppointmentDateTime());
+            if (appointment.getStatus().canMoveTo(status)) {
+                idsToUpdate.add(appointment.getId());
+            }
+        }
+        if (!locked.containsAll(slotLocks.locksFor(doctorId, dateTimes))) {
+            log.warn("Appointments of doctor with id: " + doctorId + " were rescheduled, locking their slots again");
+            return null;
+        }
+        // The update detaches the appointments read above, so the new statuses set below are not written a second time
+        if (!idsToUpdate.isEmpty()
+                && appointmentRepository.updateStatusByIdInAndStatusIn(idsToUpdate, AppointmentStatus.previousStatusesOf(status), status) != idsToUpdate.size()) {
+            throw new OptimisticLockingFailureException("The status of appointments of doctor with id: " + doctorId + " changed while they were updated");
+        }
+
+        List<AppointmentStatusResultDTO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Appointment appointment = appointments.get(id);
+            if (appointment == null) {
+                results.add(new AppointmentStatusResultDTO(id, StatusUpdateOutcome.NOT_FOUND, null));
+            } else if (appointment.getStatus() == status) {
+                results.add(new AppointmentStatusResultDTO(id, StatusUpdateOutcome.UNCHANGED, status));
+            } else if (!appointment.getStatus().canMoveTo(status)) {
+                results.add(new AppointmentStatusResultDTO(id, StatusUpdateOutcome.INVALID_TRANSITION, appointment.getStatus()));
+            } else {
+                appointment.setStatus(status);
+                appointment.setVersion(appointment.getVersion() + 1);
+                if (status == AppointmentStatus.CANCELLED) {
+                    freeSlot(doctorId, appointment.getAppointmentDateTime(), appointment.getDurationMinutes());
+                }
+                notificationService.notifyStatusChange(appointment);
+                publishOnCommit(AppointmentEventBus.APPOINTMENT_STATUS_CHANGED, appointment);
+                results.add(new AppointmentStatusResultDTO(id, StatusUpdateOutcome.UPDATED, status));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Frees the slot of a cancelled or deleted appointment and gives it to the waitlist.
+     * The slot stays locked until the transaction completes; if it rolls back, the appointment keeps its slot and
+     * the slot index is restored before any booking can see the slot free.
+     *
+     * @param doctorId the ID of the doctor
+     * @param dateTime the start of the slot
+     * @param minutes  the length of the slot
+     */
+    private void freeSlot(Long doctorId, LocalDateTime dateTime, int minutes) {
+        ReentrantLock lock = slotLocks.lockFor(doctorId, dateTime);
+        lock.lock();
+        try {
+            slotIndex.release(doctorId, dateTime);
+            AfterTransaction.onRollback(() -> slotIndex.occupy(doctorId, dateTime, minutes));
+            waitlistService.fillFreedSlot(doctorId, dateTime, minutes)
+                    .ifPresent(appointment -> publishOnCommit(AppointmentEventBus.APPOINTMENT_CREATED, appointment));
+        } finally {
+            AfterTransaction.unlockOnCompletion(lock);
+        }
+    }
+
+    /**
+     * Publishes an event of an appointment to the dashboards of its doctor once the current transaction commits,
+     * or right away if there is none. The appointment is read now, while its doctor and patient can still be loaded.
+     *
+     * @param event       the name of the event
+     * @param appointment the appointment
+     */
+    private void publishOnCommit(String event, Appointment appointment) {
+        AppointmentReadOnlyDTO dto = Mapper.mapToAppointmentReadOnlyDTO(appointment);
+        AfterTransaction.onCommit(() -> eventBus.publish(dto.getDoctorInfo().getId(), event, dto));
+    }
 }
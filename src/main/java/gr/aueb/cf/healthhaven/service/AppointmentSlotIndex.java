@@ -0,0 +1,294 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory occupancy index of the appointments of every doctor.
+ * For each doctor and day a small sorted int array is kept, every element packing the minute of the day
+ * an appointment starts at and its duration. The appointments of a day never overlap, so whether a slot is
+ * free is decided by the appointment starting right before its end alone, whatever the slot length of the doctor.
+ * Cancelled appointments never occupy a slot.
+ * <p>
+ * The days are kept in striped open-addressing tables keyed by the doctor and day packed in a primitive long,
+ * so a lookup allocates nothing. Lookups read without locking and only fall back to the stripe's read lock
+ * when a write to the same stripe got in the way.
+ */
+@Component
+@Slf4j
+public class AppointmentSlotIndex {
+
+    private static final int DAY_BITS = 23;
+    // Days are kept relative to this offset, so the days before 1970 stay positive and never reach the doctor bits;
+    // every day within about 11,000 years of 1970 has its own key, well beyond the dates a booking may have
+    private static final long DAY_OFFSET = 1L << (DAY_BITS - 1);
+    private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+    private static final int DURATION_BITS = 16;
+    private static final int DURATION_MASK = (1 << DURATION_BITS) - 1;
+    private static final int STRIPE_BITS = 6;
+
+    private final AppointmentRepository appointmentRepository;
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    @Autowired
+    public AppointmentSlotIndex(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Loads the slots of all the non-cancelled appointments once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Object[]> slots = appointmentRepository.findDoctorIdAndDateTimeAndDurationByStatusNot(AppointmentStatus.CANCELLED);
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+        for (Object[] slot : slots) {
+            occupy((Long) slot[0], (LocalDateTime) slot[1], (Integer) slot[2]);
+        }
+        log.info("Appointment slot index was loaded with " + slots.size() + " appointments");
+    }
+
+    /**
+     * Checks if the slot starting at the given date and time is free for the doctor.
+     *
+     * @param doctorId the ID of the doctor
+     * @param dateTime the start of the slot
+     * @param minutes  the length of the slot
+     * @return true if no active appointment overlaps the slot, false otherwise
+     */
+    public boolean isFree(Long doctorId, LocalDateTime dateTime, int minutes) {
+        long key = key(doctorId, dateTime);
+        int[] appointments = stripeOf(key).get(key);
+        if (appointments == null) return true;
+        int start = minuteOfDay(dateTime);
+        int before = insertionPoint(appointments, start + minutes) - 1;
+        return before < 0 || end(appointments[before]) <= start;
+    }
+
+    /**
+     * Marks the slot starting at the given date and time as occupied.
+     *
+     * @param doctorId the ID of the doctor
+     * @param dateTime the start of the slot
+     * @param minutes  the length of the slot
+     */
+    public void occupy(Long doctorId, LocalDateTime dateTime, int minutes) {
+        int appointment = (minuteOfDay(dateTime) << DURATION_BITS) | (minutes & DURATION_MASK);
+        long key = key(doctorId, dateTime);
+        stripeOf(key).compute(key, current -> {
+            if (current == null) return new int[]{appointment};
+            int at = Arrays.binarySearch(current, appointment);
+            if (at >= 0) return current;
+            int insertAt = -at - 1;
+            int[] updated = new int[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertAt);
+            updated[insertAt] = appointment;
+            System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+            return updated;
+        });
+    }
+
+    /**
+     * Marks the slot starting at the given date and time as free.
+     *
+     * @param doctorId the ID of the doctor
+     * @param dateTime the start of the slot
+     */
+    public void release(Long doctorId, LocalDateTime dateTime) {
+        int start = minuteOfDay(dateTime);
+        long key = key(doctorId, dateTime);
+        stripeOf(key).compute(key, current -> {
+            if (current == null) return null;
+            int at = insertionPoint(current, start);
+            if (at >= current.length || (current[at] >>> DURATION_BITS) != start) return current;
+            if (current.length == 1) return null;
+            int[] updated = new int[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, at);
+            System.arraycopy(current, at + 1, updated, at, current.length - at - 1);
+            return updated;
+        });
+    }
+
+    /**
+     * Returns the position of the first appointment starting at or after the given minute of the day.
+     */
+    private static int insertionPoint(int[] appointments, int minuteOfDay) {
+        int at = Arrays.binarySearch(appointments, minuteOfDay << DURATION_BITS);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private static int end(int appointment) {
+        return (appointment >>> DURATION_BITS) + (appointment & DURATION_MASK);
+    }
+
+    private static int minuteOfDay(LocalDateTime dateTime) {
+        return dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+
+    private static long key(long doctorId, LocalDateTime dateTime) {
+        return (doctorId << DAY_BITS) | ((dateTime.toLocalDate().toEpochDay() + DAY_OFFSET) & DAY_MASK);
+    }
+
+    private Stripe stripeOf(long key) {
+        return stripes[(int) (hash(key) >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    /**
+     * Spreads every bit of the key over the whole hash (the finalizer of MurmurHash3), as the doctor is in the high
+     * bits of the key and the day in the low ones.
+     */
+    private static long hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * Linear-probing table from the doctor and day to its appointments. The day arrays are never changed once
+     * stored, so a reader holding one can use it after the stripe has moved on.
+     */
+    private static final class Stripe {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_CAPACITY);
+        private int size;
+
+        private int[] get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            int[] appointments = table.find(key);
+            if (lock.validate(stamp)) return appointments;
+            stamp = lock.readLock();
+            try {
+                return table.find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Replaces the appointments of the day with the result of the update, which gets null for a day without
+         * appointments and returns null to remove the day.
+         */
+        private void compute(long key, UnaryOperator<int[]> update) {
+            long stamp = lock.writeLock();
+            try {
+                int at = table.indexOf(key);
+                int[] current = table.days[at];
+                int[] updated = update.apply(current);
+                if (updated == current) return;
+                if (updated == null) {
+                    table.delete(at);
+                    size--;
+                } else if (current != null) {
+                    table.days[at] = updated;
+                } else {
+                    table.keys[at] = key;
+                    table.days[at] = updated;
+                    // At most half full, so probes stay short and always end at an empty slot
+                    if (++size * 2 > table.keys.length) {
+                        table = table.resized(table.keys.length * 2);
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_CAPACITY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * The slots of a stripe; a slot without appointments is empty, whatever its key.
+     */
+    private static final class Table {
+
+        private final long[] keys;
+        private final int[][] days;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.days = new int[capacity][];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Returns the appointments of the day, or null. Also called by readers racing a write, so it stays
+         * within the table however torn it sees it and is bounded to one pass.
+         */
+        private int[] find(long key) {
+            int at = (int) hash(key) & mask;
+            for (int probes = 0; probes <= mask; probes++, at = (at + 1) & mask) {
+                int[] appointments = days[at];
+                if (appointments == null) return null;
+                if (keys[at] == key) return appointments;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the slot of the day, or the empty slot it would take.
+         */
+        private int indexOf(long key) {
+            int at = (int) hash(key) & mask;
+            while (days[at] != null && keys[at] != key) {
+                at = (at + 1) & mask;
+            }
+            return at;
+        }
+
+        /**
+         * Empties the slot and moves back the days after it that probed past it, so no probe stops short of its day.
+         */
+        private void delete(int hole) {
+            days[hole] = null;
+            for (int at = (hole + 1) & mask; days[at] != null; at = (at + 1) & mask) {
+                int home = (int) hash(keys[at]) & mask;
+                // The day may only move back if the hole is not before its home slot
+                if (((at - home) & mask) >= ((at - hole) & mask)) {
+                    keys[hole] = keys[at];
+                    days[hole] = days[at];
+                    days[at] = null;
+                    hole = at;
+                }
+            }
+        }
+
+        private Table resized(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (days[i] == null) continue;
+                int at = resized.indexOf(keys[i]);
+                resized.keys[at] = keys[i];
+                resized.days[at] = days[i];
+            }
+            return resized;
+        }
+    }
+}
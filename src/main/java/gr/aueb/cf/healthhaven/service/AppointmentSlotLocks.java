@@ -0,0 +1,68 @@
+package gr.aueb.cf.healthhaven.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped lock table used to serialize bookings of the same doctor slot.
+ * All the slots of a doctor on a day map to the same lock, so two patients racing for the same or for
+ * overlapping slots are ordered whatever the slot length of the doctor, while bookings for other doctors
+ * or days almost never share a stripe.
+ */
+@Component
+public class AppointmentSlotLocks {
+
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public AppointmentSlotLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the lock guarding the given doctor slot.
+     *
+     * @param doctorId the ID of the doctor
+     * @param dateTime the start of the slot
+     * @return the lock of the stripe the slot belongs to
+     */
+    public ReentrantLock lockFor(Long doctorId, LocalDateTime dateTime) {
+        return locks[stripe(doctorId, dateTime)];
+    }
+
+    /**
+     * Returns the locks guarding several slots of a doctor, each lock once, in stripe order.
+     * Taking them in the returned order keeps two callers that need overlapping stripes from deadlocking.
+     *
+     * @param doctorId  the ID of the doctor
+     * @param dateTimes the starts of the slots
+     * @return the distinct locks of the slots, ordered by stripe
+     */
+    public List<ReentrantLock> locksFor(Long doctorId, Collection<LocalDateTime> dateTimes) {
+        BitSet stripes = new BitSet(STRIPES);
+        for (LocalDateTime dateTime : dateTimes) {
+            stripes.set(stripe(doctorId, dateTime));
+        }
+        List<ReentrantLock> result = new ArrayList<>(stripes.cardinality());
+        for (int stripe = stripes.nextSetBit(0); stripe >= 0; stripe = stripes.nextSetBit(stripe + 1)) {
+            result.add(locks[stripe]);
+        }
+        return result;
+    }
+
+    private static int stripe(Long doctorId, LocalDateTime dateTime) {
+        long hash = doctorId * 0x9E3779B97F4A7C15L + dateTime.toLocalDate().toEpochDay();
+        hash ^= (hash >>> 32);
+        hash ^= (hash >>> 16);
+        return (int) (hash & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,132 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.WaitlistStatus;
+import gr.aueb.cf.healthhaven.repository.WaitlistEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * In-memory queues of the patients waiting for a slot, one per doctor and day.
+ * Each queue is a priority heap ordered by the time the patient joined, so the next patient
+ * is found in logarithmic time however many patients wait for a popular doctor.
+ * The queues mirror the waiting entries of the database and are rebuilt from them on startup;
+ * the queues of days that have passed are dropped every night.
+ */
+@Component
+@Slf4j
+public class AppointmentWaitlist {
+
+    private static final int DAY_BITS = 22;
+    private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+
+    private static final Comparator<Waiting> FIRST_COME_FIRST_SERVED =
+            Comparator.comparing(Waiting::requestedAt).thenComparingLong(Waiting::entryId);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ConcurrentHashMap<Long, PriorityBlockingQueue<Waiting>> queues = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AppointmentWaitlist(WaitlistEntryRepository waitlistEntryRepository) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+    }
+
+    /**
+     * A waiting patient, as kept in the queue of a doctor and day.
+     *
+     * @param entryId     the ID of the waitlist entry
+     * @param patientId   the ID of the patient
+     * @param requestedAt the time the patient joined the waitlist
+     */
+    public record Waiting(long entryId, long patientId, LocalDateTime requestedAt) {
+    }
+
+    /**
+     * Loads the waiting entries of today and later once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Object[]> entries = waitlistEntryRepository.findWaitingFromDay(WaitlistStatus.WAITING, LocalDate.now());
+        queues.clear();
+        for (Object[] entry : entries) {
+            add((Long) entry[1], (LocalDate) entry[3], new Waiting((Long) entry[0], (Long) entry[2], (LocalDateTime) entry[4]));
+        }
+        log.info("Appointment waitlist was loaded with " + entries.size() + " waiting patients");
+    }
+
+    /**
+     * Puts a patient in the queue of a doctor and day.
+     *
+     * @param doctorId the ID of the doctor
+     * @param day      the day the patient waits for
+     * @param waiting  the waiting patient
+     */
+    public void add(Long doctorId, LocalDate day, Waiting waiting) {
+        queues.compute(key(doctorId, day), (k, queue) -> {
+            if (queue == null) {
+                queue = new PriorityBlockingQueue<>(16, FIRST_COME_FIRST_SERVED);
+            }
+            queue.add(waiting);
+            return queue;
+        });
+    }
+
+    /**
+     * Removes and returns the patient that has waited the longest for a doctor and day.
+     *
+     * @param doctorId the ID of the doctor
+     * @param day      the day
+     * @return the next waiting patient, or null if nobody waits
+     */
+    public Waiting poll(Long doctorId, LocalDate day) {
+        Waiting[] next = new Waiting[1];
+        // Polling and dropping the emptied queue happen atomically, so a concurrent add never lands in a dropped queue
+        queues.computeIfPresent(key(doctorId, day), (k, queue) -> {
+            next[0] = queue.poll();
+            return queue.isEmpty() ? null : queue;
+        });
+        return next[0];
+    }
+
+    /**
+     * Returns the number of patients waiting for a doctor and day.
+     *
+     * @param doctorId the ID of the doctor
+     * @param day      the day
+     * @return the number of waiting patients
+     */
+    public int size(Long doctorId, LocalDate day) {
+        PriorityBlockingQueue<Waiting> queue = queues.get(key(doctorId, day));
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Drops the queues of the days that have passed, whose slots can no longer be freed.
+     */
+    @Scheduled(cron = "${healthhaven.waitlist.prune-cron:0 5 0 * * *}")
+    public void prunePastDays() {
+        int pruned = prunePastDays(LocalDate.now());
+        log.info("Appointment waitlist dropped the queues of " + pruned + " past days");
+    }
+
+    int prunePastDays(LocalDate today) {
+        long todayEpochDay = today.toEpochDay();
+        int before = queues.size();
+        queues.keySet().removeIf(key -> (key & DAY_MASK) < todayEpochDay);
+        return before - queues.size();
+    }
+
+    private static long key(Long doctorId, LocalDate day) {
+        return (doctorId << DAY_BITS) | day.toEpochDay();
+    }
+}
@@ -0,0 +1,56 @@
+package gr.aueb.cf.healthhaven.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import gr.aueb.cf.healthhaven.repository.DoctorScheduleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache of the compiled slots of every doctor, so that validating a booking or listing free slots
+ * does not read the schedule of the doctor from the database.
+ * A schedule is read once per doctor, or once more after it was changed; doctors without a schedule
+ * are cached with the default slots. Entries also expire after a while, so that schedule changes
+ * made through another instance are eventually picked up.
+ */
+@Component
+public class DoctorScheduleCache {
+
+    private static final int MAX_DOCTORS = 10_000;
+
+    private final DoctorScheduleRepository doctorScheduleRepository;
+    private final LoadingCache<Long, DoctorSlots> slots;
+
+    @Autowired
+    public DoctorScheduleCache(DoctorScheduleRepository doctorScheduleRepository,
+                               @Value("${healthhaven.schedules.cache-ttl:10m}") Duration ttl) {
+        this.doctorScheduleRepository = doctorScheduleRepository;
+        this.slots = Caffeine.newBuilder().maximumSize(MAX_DOCTORS).expireAfterWrite(ttl).build(this::load);
+    }
+
+    /**
+     * Returns the slots of a doctor.
+     *
+     * @param doctorId the ID of the doctor
+     * @return the compiled slots of the schedule of the doctor, or the default slots if the doctor has no schedule
+     */
+    public DoctorSlots slotsOf(Long doctorId) {
+        return slots.get(doctorId);
+    }
+
+    /**
+     * Drops the slots of a doctor, so that they are compiled again from the changed schedule.
+     *
+     * @param doctorId the ID of the doctor
+     */
+    public void evict(Long doctorId) {
+        slots.invalidate(doctorId);
+    }
+
+    private DoctorSlots load(Long doctorId) {
+        return doctorScheduleRepository.findByDoctorId(doctorId).map(DoctorSlots::compile).orElse(DoctorSlots.DEFAULT);
+    }
+}
@@ -0,0 +1,101 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorScheduleDTO;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.DoctorSchedule;
+import gr.aueb.cf.healthhaven.model.ScheduleException;
+import gr.aueb.cf.healthhaven.model.WorkingHours;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import gr.aueb.cf.healthhaven.repository.DoctorScheduleRepository;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidScheduleException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+
+/**
+ * Service implementation for the working schedules of the doctors.
+ * Bookings never read a schedule from the database; they use the slots compiled by the {@link DoctorScheduleCache},
+ * which are dropped here whenever a schedule changes.
+ */
+@Service
+@Slf4j
+@Timed(value = "healthhaven.service", histogram = true)
+public class DoctorScheduleServiceImpl implements IDoctorScheduleService {
+
+    private static final int MIN_SLOT_MINUTES = 5;
+    private static final int MAX_SLOT_MINUTES = 240;
+
+    private final DoctorScheduleRepository doctorScheduleRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorScheduleCache scheduleCache;
+
+    @Autowired
+    public DoctorScheduleServiceImpl(DoctorScheduleRepository doctorScheduleRepository, DoctorRepository doctorRepository,
+                                     DoctorScheduleCache scheduleCache) {
+        this.doctorScheduleRepository = doctorScheduleRepository;
+        this.doctorRepository = doctorRepository;
+        this.scheduleCache = scheduleCache;
+    }
+
+    /**
+     * Creates or replaces the working schedule of a doctor.
+     * Appointments that were already booked keep their time and duration.
+     *
+     * @param doctorId the ID of the doctor
+     * @param dto      the slot length, the weekly hours and the exceptions of the schedule
+     * @return the saved schedule
+     * @throws EntityNotFoundException  if the doctor does not exist
+     * @throws InvalidScheduleException if the slot length is out of range or a period ends before it starts
+     */
+    @Override
+    @Transactional
+    public DoctorSchedule saveSchedule(Long doctorId, DoctorScheduleDTO dto) throws EntityNotFoundException, InvalidScheduleException {
+        DoctorSchedule schedule;
+
+        try {
+            validate(dto);
+            Doctor doctor = doctorRepository.findById(doctorId).orElseThrow(() -> new EntityNotFoundException(Doctor.class, doctorId));
+            schedule = doctorScheduleRepository.findByDoctorId(doctorId).orElseGet(DoctorSchedule::new);
+            schedule.setDoctor(doctor);
+            schedule.setSlotMinutes(dto.getSlotMinutes());
+            schedule.getWeeklyHours().clear();
+            schedule.getWeeklyHours().addAll(dto.getWeeklyHours());
+            schedule.getExceptions().clear();
+            schedule.getExceptions().addAll(dto.getExceptions());
+            doctorScheduleRepository.save(schedule);
+
+            AfterTransaction.onCommit(() -> scheduleCache.evict(doctorId));
+            log.info("Schedule of doctor with id: " + doctorId + " has been saved with " + dto.getSlotMinutes() + "-minute slots");
+        } catch (EntityNotFoundException | InvalidScheduleException e) {
+            log.error(e.getMessage());
+            throw e;
+        }
+        return schedule;
+    }
+
+    private static void validate(DoctorScheduleDTO dto) throws InvalidScheduleException {
+        if (dto.getSlotMinutes() < MIN_SLOT_MINUTES || dto.getSlotMinutes() > MAX_SLOT_MINUTES) {
+            throw new InvalidScheduleException("A slot must last between " + MIN_SLOT_MINUTES + " and " + MAX_SLOT_MINUTES + " minutes.");
+        }
+        for (WorkingHours hours : dto.getWeeklyHours()) {
+            if (hours.getDayOfWeek() == null || !isPeriod(hours.getStartTime(), hours.getEndTime())) {
+                throw new InvalidScheduleException("Invalid working hours: " + hours.getDayOfWeek() + " " + hours.getStartTime() + "-" + hours.getEndTime());
+            }
+        }
+        for (ScheduleException exception : dto.getExceptions()) {
+            boolean dayOff = exception.getStartTime() == null && exception.getEndTime() == null;
+            if (exception.getDay() == null || (!dayOff && !isPeriod(exception.getStartTime(), exception.getEndTime()))) {
+                throw new InvalidScheduleException("Invalid exception: " + exception.getDay() + " " + exception.getStartTime() + "-" + exception.getEndTime());
+            }
+        }
+    }
+
+    private static boolean isPeriod(LocalTime start, LocalTime end) {
+        return start != null && end != null && start.isBefore(end);
+    }
+}
@@ -0,0 +1,441 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory full-text index of the doctors, over their first name, last name, speciality and license number.
+ * The terms of all the doctors are kept in a sorted map, so the doctors whose terms start with a query word are found
+ * with one range scan. Only if the exact and prefix matches do not fill the requested page, terms within one or two
+ * typos of the query word are looked for as well, by walking a trie of the terms that are words; license numbers
+ * are only matched exactly or by prefix.
+ * Every word of a query must match some field of a doctor; the doctors are ranked by how well and on which fields
+ * their words matched. The index is rebuilt on startup and kept up to date by the doctor registrations,
+ * updates and deletions.
+ */
+@Component
+@Slf4j
+public class DoctorSearchIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_QUERY_WORDS = 5;
+
+    // Field weights, in the order the fields are kept in an entry: last name, first name, speciality, license number
+    private static final int[] FIELD_WEIGHTS = {3, 2, 1, 3};
+    private static final int EXACT = 4;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparing(match -> match.entry().lastname())
+            .thenComparing(match -> match.entry().firstname())
+            .thenComparingLong(match -> match.entry().id());
+
+    private final DoctorRepository doctorRepository;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private volatile TrieNode trie = new TrieNode('\0');
+    private final AtomicLong version = new AtomicLong();
+    // Versions restart on every boot and are counted apart on every instance, so they are only compared within one index
+    private final String indexId = UUID.randomUUID().toString();
+
+    @Autowired
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    /**
+     * An indexed doctor, with the normalized words of each field.
+     */
+    private record Entry(long id, String firstname, String lastname, Speciality speciality, String[][] fields) {
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+
+    /**
+     * A node of the trie of the terms, reached from its parent by a letter.
+     * The children are replaced and never modified, so searches walk the trie without locking while a doctor is
+     * being indexed. The terms under a node are counted, so that the nodes of removed terms are dropped.
+     */
+    private static final class TrieNode {
+
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private final char letter;
+        private volatile TrieNode[] children = NO_CHILDREN;
+        private int terms;
+
+        private TrieNode(char letter) {
+            this.letter = letter;
+        }
+
+        private int indexOf(char letter) {
+            TrieNode[] children = this.children;
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (children[middle].letter < letter) low = middle + 1;
+                else if (children[middle].letter > letter) high = middle - 1;
+                else return middle;
+            }
+            return -low - 1;
+        }
+    }
+
+    /**
+     * Loads all the doctors once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        List<Object[]> doctors = doctorRepository.findIdAndSearchFields();
+        entries.clear();
+        postings.clear();
+        trie = new TrieNode('\0');
+        version.incrementAndGet();
+        for (Object[] doctor : doctors) {
+            put((Long) doctor[0], (String) doctor[1], (String) doctor[2], (Speciality) doctor[3], (String) doctor[4]);
+        }
+        log.info("Doctor search index was loaded with " + doctors.size() + " doctors and " + postings.size() + " terms");
+    }
+
+    /**
+     * Adds a doctor to the index, or replaces the indexed fields of a doctor that is already indexed.
+     *
+     * @param doctor the doctor
+     */
+    public void put(Doctor doctor) {
+        put(doctor.getId(), doctor.getFirstname(), doctor.getLastname(), doctor.getSpeciality(), doctor.getMedicalLicenseNumber());
+    }
+
+    /**
+     * Adds a doctor to the index, or replaces the indexed fields of a doctor that is already indexed.
+     *
+     * @param id                   the ID of the doctor
+     * @param firstname            the first name of the doctor
+     * @param lastname             the last name of the doctor
+     * @param speciality           the speciality of the doctor
+     * @param medicalLicenseNumber the license number of the doctor
+     */
+    public synchronized void put(long id, String firstname, String lastname, Speciality speciality, String medicalLicenseNumber) {
+        remove(id);
+        version.incrementAndGet();
+        String[][] fields = {words(lastname), words(firstname),
+                words(speciality == null ? null : speciality.name()), words(medicalLicenseNumber)};
+        Entry entry = new Entry(id, firstname, lastname, speciality, fields);
+        entries.put(id, entry);
+        for (String[] field : fields) {
+            for (String term : field) {
+                Set<Long> ids = postings.get(term);
+                if (ids == null) {
+                    ids = ConcurrentHashMap.newKeySet();
+                    postings.put(term, ids);
+                    addToTrie(term);
+                }
+                ids.add(id);
+            }
+        }
+    }
+
+    /**
+     * Removes a doctor from the index.
+     *
+     * @param id the ID of the doctor
+     */
+    public synchronized void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) return;
+        version.incrementAndGet();
+        for (String[] field : entry.fields()) {
+            for (String term : field) {
+                Set<Long> ids = postings.get(term);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(term);
+                    removeFromTrie(term);
+                }
+            }
+        }
+    }
+
+    private void addToTrie(String term) {
+        if (!isWord(term)) return;
+        TrieNode node = trie;
+        node.terms++;
+        for (int i = 0; i < term.length(); i++) {
+            char letter = term.charAt(i);
+            int at = node.indexOf(letter);
+            if (at < 0) {
+                TrieNode child = new TrieNode(letter);
+                TrieNode[] children = node.children;
+                TrieNode[] updated = new TrieNode[children.length + 1];
+                int insertAt = -at - 1;
+                System.arraycopy(children, 0, updated, 0, insertAt);
+                updated[insertAt] = child;
+                System.arraycopy(children, insertAt, updated, insertAt + 1, children.length - insertAt);
+                node.children = updated;
+                node = child;
+            } else {
+                node = node.children[at];
+            }
+            node.terms++;
+        }
+    }
+
+    private void removeFromTrie(String term) {
+        if (!isWord(term)) return;
+        TrieNode node = trie;
+        node.terms--;
+        for (int i = 0; i < term.length(); i++) {
+            int at = node.indexOf(term.charAt(i));
+            if (at < 0) return;
+            TrieNode child = node.children[at];
+            if (--child.terms == 0) {
+                TrieNode[] children = node.children;
+                TrieNode[] updated = new TrieNode[children.length - 1];
+                System.arraycopy(children, 0, updated, 0, at);
+                System.arraycopy(children, at + 1, updated, at, children.length - at - 1);
+                node.children = updated;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private static boolean isWord(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of indexed doctors.
+     *
+     * @return the number of indexed doctors
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the version of the index, which changes whenever a doctor is added, updated or removed,
+     * so that search results can be validated by clients without searching again.
+     *
+     * @return the version of the index
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Returns a tag of the current contents of the index that is never reused by another index, whether after
+     * a restart or on another instance, so clients can validate their search results against it.
+     *
+     * @return the identity of the index followed by its version
+     */
+    public String versionTag() {
+        return indexId + "-" + version.get();
+    }
+
+    /**
+     * Searches the doctors whose fields match every word of the query, best matches first.
+     *
+     * @param query the words to search for, in any order and of any of the indexed fields
+     * @param page  the zero-based page of results
+     * @param size  the number of results per page
+     * @return the doctors of the requested page, empty if none matches
+     */
+    public List<DoctorReadOnlyDTO> search(String query, int page, int size) {
+        String[] words = words(query);
+        if (words.length == 0) return List.of();
+        if (words.length > MAX_QUERY_WORDS) {
+            words = Arrays.copyOf(words, MAX_QUERY_WORDS);
+        }
+        int offset = page * size;
+        int wanted = offset + size;
+
+        Ranked ranked = rank(words, null, wanted);
+        if (ranked.total() < wanted) {
+            List<NavigableSet<String>> fuzzyPrefixes = new ArrayList<>(words.length);
+            for (String word : words) {
+                fuzzyPrefixes.add(fuzzyPrefixes(word));
+            }
+            ranked = rank(words, fuzzyPrefixes, wanted);
+        }
+
+        List<DoctorReadOnlyDTO> result = new ArrayList<>(size);
+        List<Match> best = ranked.best();
+        for (int i = offset; i < best.size(); i++) {
+            Entry entry = best.get(i).entry();
+            result.add(new DoctorReadOnlyDTO(entry.id(), entry.firstname(), entry.lastname(), entry.speciality()));
+        }
+        return result;
+    }
+
+    /**
+     * The best matches of a query, in order, and the number of all the matches.
+     */
+    private record Ranked(List<Match> best, int total) {
+    }
+
+    /**
+     * Scores the doctors having a term that matches the most selective word of the query against all the words,
+     * and keeps the best of them in a bounded heap.
+     *
+     * @param fuzzyPrefixes for each word, the term prefixes within a few typos of it, or null for exact and prefix matches only
+     */
+    private Ranked rank(String[] words, List<NavigableSet<String>> fuzzyPrefixes, int wanted) {
+        List<Collection<Set<Long>>> driverPostings = null;
+        long fewest = Long.MAX_VALUE;
+        for (int w = 0; w < words.length; w++) {
+            Collection<String> prefixes = fuzzyPrefixes == null ? List.of(words[w]) : fuzzyPrefixes.get(w);
+            List<Collection<Set<Long>>> wordPostings = new ArrayList<>(prefixes.size());
+            long count = 0;
+            for (String prefix : prefixes) {
+                Collection<Set<Long>> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values();
+                wordPostings.add(range);
+                for (Iterator<Set<Long>> it = range.iterator(); it.hasNext() && count < fewest; ) {
+                    count += it.next().size();
+                }
+                if (count >= fewest) break;
+            }
+            if (count < fewest) {
+                fewest = count;
+                driverPostings = wordPostings;
+            }
+        }
+
+        Set<Long> seen = new HashSet<>();
+        PriorityQueue<Match> best = new PriorityQueue<>(wanted + 1, RANKING.reversed());
+        int total = 0;
+        for (Collection<Set<Long>> range : driverPostings) {
+            for (Set<Long> posting : range) {
+                for (Long id : posting) {
+                    Entry entry = entries.get(id);
+                    if (entry == null || !seen.add(id)) continue;
+                    int score = score(entry, words, fuzzyPrefixes);
+                    if (score == 0) continue;
+                    total++;
+                    best.add(new Match(entry, score));
+                    if (best.size() > wanted) best.poll();
+                }
+            }
+        }
+
+        List<Match> ordered = new ArrayList<>(best);
+        ordered.sort(RANKING);
+        return new Ranked(ordered, total);
+    }
+
+    /**
+     * Scores a doctor against the words of a query, each word counting with its best match among the fields.
+     *
+     * @return the score, or 0 if some word matches no field
+     */
+    private static int score(Entry entry, String[] words, List<NavigableSet<String>> fuzzyPrefixes) {
+        int score = 0;
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            int best = 0;
+            for (int field = 0; field < entry.fields().length; field++) {
+                for (String term : entry.fields()[field]) {
+                    int match = term.equals(word) ? EXACT
+                            : term.startsWith(word) ? PREFIX
+                            : fuzzyPrefixes != null && startsWithAny(term, fuzzyPrefixes.get(w)) ? FUZZY : 0;
+                    best = Math.max(best, match * FIELD_WEIGHTS[field]);
+                }
+            }
+            if (best == 0) return 0;
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Checks if a term starts with one of the prefixes. No prefix starts with another, so the only candidate
+     * is the greatest prefix not after the term.
+     */
+    private static boolean startsWithAny(String term, NavigableSet<String> prefixes) {
+        String prefix = prefixes.floor(term);
+        return prefix != null && term.startsWith(prefix);
+    }
+
+    private static int maxEdits(String word) {
+        if (!isWord(word)) return 0;
+        return word.length() < 3 ? 0 : word.length() < 6 ? 1 : 2;
+    }
+
+    /**
+     * Finds the shortest term prefixes within a few edits (insertions, deletions and substitutions) of the word,
+     * so that every term starting with one of them matches the word with typos.
+     * The trie is walked keeping the edit distances of the word's prefixes to the current path, and a branch is left
+     * as soon as every prefix in it is too far from the word, so only a few thousand nodes are visited
+     * however many terms there are.
+     */
+    private NavigableSet<String> fuzzyPrefixes(String word) {
+        NavigableSet<String> prefixes = new TreeSet<>();
+        int maxEdits = maxEdits(word);
+        if (maxEdits == 0) {
+            prefixes.add(word);
+            return prefixes;
+        }
+        int[][] rows = new int[word.length() + maxEdits + 1][word.length() + 1];
+        for (int j = 0; j <= word.length(); j++) {
+            rows[0][j] = j;
+        }
+        collectFuzzyPrefixes(trie, word, maxEdits, new char[rows.length], 0, rows, prefixes);
+        return prefixes;
+    }
+
+    private static void collectFuzzyPrefixes(TrieNode node, String word, int maxEdits, char[] path, int depth,
+                                             int[][] rows, NavigableSet<String> prefixes) {
+        int m = word.length();
+        int[] row = rows[depth];
+        if (row[m] <= maxEdits) {
+            prefixes.add(new String(path, 0, depth));
+            return;
+        }
+        if (depth + 1 == rows.length) return;
+
+        int[] next = rows[depth + 1];
+        for (TrieNode child : node.children) {
+            char letter = child.letter;
+            next[0] = row[0] + 1;
+            int rowMin = next[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = word.charAt(j - 1) == letter ? 0 : 1;
+                next[j] = Math.min(Math.min(row[j] + 1, next[j - 1] + 1), row[j - 1] + cost);
+                rowMin = Math.min(rowMin, next[j]);
+            }
+            if (rowMin > maxEdits) continue;
+            path[depth] = letter;
+            collectFuzzyPrefixes(child, word, maxEdits, path, depth + 1, rows, prefixes);
+        }
+    }
+
+    /**
+     * Splits a text into lower-case words without accents, so that "Παπαδόπουλος" is found by "παπαδοπουλος".
+     */
+    static String[] words(String text) {
+        if (text == null || text.isBlank()) return new String[0];
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT).replace('ς', 'σ');
+        return Arrays.stream(SEPARATORS.split(normalized)).filter(word -> !word.isEmpty()).distinct().toArray(String[]::new);
+    }
+}
@@ -1,10 +1,12 @@
 package gr.aueb.cf.healthhaven.service;
 
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUser;
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUserSessions;
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorRegisterDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorUpdateDTO;
 import gr.aueb.cf.healthhaven.mapper.Mapper;
 import gr.aueb.cf.healthhaven.model.Doctor;
-import gr.aueb.cf.healthhaven.model.Patient;
 import gr.aueb.cf.healthhaven.model.Speciality;
 import gr.aueb.cf.healthhaven.model.User;
 import gr.aueb.cf.healthhaven.repository.DoctorRepository;
@@ -12,12 +14,12 @@ import gr.aueb.cf.healthhaven.repository.UserRepository;
 import gr.aueb.cf.healthhaven.service.exceptions.DoctorAlreadyExistsException;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
 import gr.aueb.cf.healthhaven.service.exceptions.UserAlreadyExistsException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -28,35 +30,60 @@ import java.util.List;
  * Service class for managing doctors within the Medical Appointment Management system.
  * This class handles all business logic related to doctor entities, including registration,
  * updates, deletion, and querying of doctor data.
+ * Doctors and the speciality and lastname searches are served from the Hibernate second-level cache,
+ * which is updated and invalidated by the registrations, updates and deletions made here.
+ * The same changes are applied to the {@link DoctorSearchIndex} once they are committed.
  */
 @Service
 @Slf4j
+@Timed(value = "healthhaven.service", histogram = true)
 public class DoctorServiceImpl implements IDoctorService {
 
     private final DoctorRepository doctorRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final AuthenticatedUserSessions userSessions;
+    private final DoctorSearchIndex searchIndex;
 
     @Autowired
-    public DoctorServiceImpl(DoctorRepository doctorRepository, PasswordEncoder passwordEncoder, UserRepository userRepository) {
+    public DoctorServiceImpl(DoctorRepository doctorRepository, PasswordEncoder passwordEncoder, UserRepository userRepository,
+                             AuthenticatedUserSessions userSessions, DoctorSearchIndex searchIndex) {
         this.doctorRepository = doctorRepository;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.userSessions = userSessions;
+        this.searchIndex = searchIndex;
     }
 
 
-    public Doctor getCurrentDoctor() throws EntityNotFoundException {
+    /**
+     * Retrieves the ID of the currently authenticated doctor from the security context.
+     * The ID is resolved once at login and carried on the principal, so no query is issued.
+     *
+     * @return the ID of the current logged-in doctor
+     * @throws EntityNotFoundException if no doctor is logged in
+     */
+    @Override
+    public Long getCurrentDoctorId() throws EntityNotFoundException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new EntityNotFoundException(Patient.class, null);
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user) || user.getDoctorId() == null) {
+            throw new EntityNotFoundException(Doctor.class, null);
         }
+        return user.getDoctorId();
+    }
 
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-
-        User user = userRepository.findUserByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException(Patient.class, null));
-        return doctorRepository.findById(user.getDoctor().getId())
-                .orElseThrow(() -> new EntityNotFoundException(Patient.class, null));
+    /**
+     * Retrieves the currently authenticated doctor from the security context.
+     *
+     * @return the current logged-in doctor
+     * @throws EntityNotFoundException if the doctor is not found
+     */
+    @Override
+    public Doctor getCurrentDoctor() throws EntityNotFoundException {
+        Long doctorId = getCurrentDoctorId();
+        return doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new EntityNotFoundException(Doctor.class, doctorId));
     }
 
 
@@ -91,6 +118,8 @@ public class DoctorServiceImpl implements IDoctorService {
 
             doctorToRegister.addUser(userToRegister);
             doctorRepository.save(doctorToRegister);
+            Doctor registered = doctorToRegister;
+            AfterTransaction.onCommit(() -> searchIndex.put(registered));
 
             log.info("Doctor with medical license number: " + dto.getMedicalLicenseNumber() + " has been successfully registered.");
 
@@ -104,9 +133,13 @@ public class DoctorServiceImpl implements IDoctorService {
 
     /**
      * Updates an existing doctor's details in the system based on the provided data transfer object.
+     * The changes are written by dirty checking on commit, together with a version check, so an update based
+     * on a version that has since changed fails instead of overwriting the other change.
      * @param dto the data transfer object containing updated doctor details.
      * @return the updated doctor.
      * @throws EntityNotFoundException if the doctor to be updated is not found.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the doctor was changed since the
+     * version of the update, or while it ran.
      */
     @Transactional
     @Override
@@ -115,7 +148,10 @@ public class DoctorServiceImpl implements IDoctorService {
 
         try {
             doctorToUpdate = getCurrentDoctor();
-            doctorToUpdate = doctorRepository.save(Mapper.mapToDoctor(doctorToUpdate, dto));
+            Versions.check(Doctor.class, doctorToUpdate.getId(), dto.getVersion(), doctorToUpdate.getVersion());
+            Mapper.mapToDoctor(doctorToUpdate, dto);
+            Doctor updated = doctorToUpdate;
+            AfterTransaction.onCommit(() -> searchIndex.put(updated));
             log.info("Doctor with id: " + doctorToUpdate.getId() + " was updated");
 
         } catch (EntityNotFoundException e) {
@@ -141,6 +177,12 @@ public class DoctorServiceImpl implements IDoctorService {
                     .orElseThrow(() -> new EntityNotFoundException(Doctor.class, id));
 
             doctorRepository.deleteById(id);
+            AfterTransaction.onCommit(() -> searchIndex.remove(id));
+            if (doctorToDelete.getUser() != null) {
+                // Only once the delete is committed, so a login meanwhile cannot cache the user again
+                String username = doctorToDelete.getUser().getUsername();
+                AfterTransaction.onCommit(() -> userSessions.expireSessionsOf(username));
+            }
             log.info("Doctor with id: " + id + " was deleted") ;
         } catch (EntityNotFoundException e) {
             log.error(e.getMessage());
@@ -172,6 +214,34 @@ public class DoctorServiceImpl implements IDoctorService {
         return doctors;
     }
 
+    /**
+     * Searches the doctors by any words of their first name, last name, speciality or license number.
+     * The search is answered by the in-memory {@link DoctorSearchIndex}, tolerates typos and ranks the best
+     * matches first; unlike the other finders it returns an empty list when nothing matches.
+     *
+     * @param query the words to search for
+     * @param page  the zero-based page of results
+     * @param size  the number of results per page
+     * @return the matching doctors of the requested page
+     */
+    @Override
+    public List<DoctorReadOnlyDTO> searchDoctors(String query, int page, int size) {
+        List<DoctorReadOnlyDTO> doctors = searchIndex.search(query, page, size);
+        log.info(doctors.size() + " doctors matching: " + query + " were found");
+        return doctors;
+    }
+
+    /**
+     * Returns the version of the doctor search results, which changes whenever a doctor is registered,
+     * updated or deleted, and is never repeated after a restart or by another instance.
+     *
+     * @return the version tag of the search index
+     */
+    @Override
+    public String getSearchVersion() {
+        return searchIndex.versionTag();
+    }
+
     /**
      * Retrieves a doctor by their unique identifier.
      * @param id the unique identifier of the doctor to find.
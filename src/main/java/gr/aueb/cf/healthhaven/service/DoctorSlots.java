@@ -0,0 +1,149 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.DoctorSchedule;
+import gr.aueb.cf.healthhaven.model.ScheduleException;
+import gr.aueb.cf.healthhaven.model.WorkingHours;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The appointment slots of a doctor, compiled from their schedule.
+ * The start of every slot is precomputed as a sorted array of minutes of the day, one array per day of the week
+ * and one per exception day, so checking a booking time is a binary search and listing the slots of a day
+ * needs neither a query nor a walk over the schedule. Instances are immutable and shared through the
+ * {@link DoctorScheduleCache}.
+ */
+public final class DoctorSlots {
+
+    public static final int DEFAULT_SLOT_MINUTES = 60;
+    public static final LocalTime DEFAULT_OPENING_TIME = LocalTime.of(9, 0);
+    public static final LocalTime DEFAULT_CLOSING_TIME = LocalTime.of(21, 0);
+
+    /**
+     * The slots of a doctor without a schedule: hourly, from the default opening to the default closing time, every day.
+     */
+    public static final DoctorSlots DEFAULT = defaultSlots();
+
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final int slotMinutes;
+    private final int[][] weeklyStarts;
+    private final Map<LocalDate, int[]> exceptionStarts;
+
+    private DoctorSlots(int slotMinutes, int[][] weeklyStarts, Map<LocalDate, int[]> exceptionStarts) {
+        this.slotMinutes = slotMinutes;
+        this.weeklyStarts = weeklyStarts;
+        this.exceptionStarts = exceptionStarts;
+    }
+
+    /**
+     * Compiles the schedule of a doctor.
+     *
+     * @param schedule the schedule, with its weekly hours and exceptions loaded
+     * @return the slots of the schedule
+     */
+    public static DoctorSlots compile(DoctorSchedule schedule) {
+        int slotMinutes = schedule.getSlotMinutes();
+
+        List<List<WorkingHours>> periodsByDay = new ArrayList<>(DayOfWeek.values().length);
+        for (int i = 0; i < DayOfWeek.values().length; i++) {
+            periodsByDay.add(new ArrayList<>());
+        }
+        for (WorkingHours hours : schedule.getWeeklyHours()) {
+            periodsByDay.get(hours.getDayOfWeek().ordinal()).add(hours);
+        }
+        int[][] weeklyStarts = new int[DayOfWeek.values().length][];
+        for (int i = 0; i < weeklyStarts.length; i++) {
+            weeklyStarts[i] = starts(slotMinutes, periodsByDay.get(i).stream()
+                    .map(hours -> new LocalTime[]{hours.getStartTime(), hours.getEndTime()}).toList());
+        }
+
+        Map<LocalDate, List<LocalTime[]>> periodsByException = new HashMap<>();
+        for (ScheduleException exception : schedule.getExceptions()) {
+            List<LocalTime[]> periods = periodsByException.computeIfAbsent(exception.getDay(), day -> new ArrayList<>());
+            if (exception.getStartTime() != null && exception.getEndTime() != null) {
+                periods.add(new LocalTime[]{exception.getStartTime(), exception.getEndTime()});
+            }
+        }
+        Map<LocalDate, int[]> exceptionStarts = new HashMap<>();
+        periodsByException.forEach((day, periods) -> exceptionStarts.put(day, starts(slotMinutes, periods)));
+
+        return new DoctorSlots(slotMinutes, weeklyStarts, Map.copyOf(exceptionStarts));
+    }
+
+    private static DoctorSlots defaultSlots() {
+        int[] starts = starts(DEFAULT_SLOT_MINUTES, List.<LocalTime[]>of(new LocalTime[]{DEFAULT_OPENING_TIME, DEFAULT_CLOSING_TIME}));
+        int[][] weeklyStarts = new int[DayOfWeek.values().length][];
+        Arrays.fill(weeklyStarts, starts);
+        return new DoctorSlots(DEFAULT_SLOT_MINUTES, weeklyStarts, Map.of());
+    }
+
+    /**
+     * Lays slots of the given length back to back over each period, dropping the last one of a period if it does not fit.
+     */
+    private static int[] starts(int slotMinutes, List<LocalTime[]> periods) {
+        if (periods.isEmpty() || slotMinutes <= 0) return NO_SLOTS;
+        int[] starts = new int[24 * 60 / slotMinutes * periods.size()];
+        int count = 0;
+        for (LocalTime[] period : periods) {
+            int end = minuteOfDay(period[1]);
+            for (int start = minuteOfDay(period[0]); start + slotMinutes <= end; start += slotMinutes) {
+                starts[count++] = start;
+            }
+        }
+        return Arrays.stream(starts, 0, count).sorted().distinct().toArray();
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Returns the length of a slot, which is also the duration of an appointment booked in it.
+     *
+     * @return the length of a slot in minutes
+     */
+    public int slotMinutes() {
+        return slotMinutes;
+    }
+
+    /**
+     * Checks if a slot of the doctor starts at the given date and time.
+     *
+     * @param dateTime the date and time
+     * @return true if a slot starts exactly then, false otherwise
+     */
+    public boolean isSlot(LocalDateTime dateTime) {
+        if (dateTime.getSecond() != 0 || dateTime.getNano() != 0) return false;
+        return Arrays.binarySearch(startsOn(dateTime.toLocalDate()), dateTime.getHour() * 60 + dateTime.getMinute()) >= 0;
+    }
+
+    /**
+     * Returns the starts of the slots of the doctor on a day, in order.
+     *
+     * @param day the day
+     * @return the starts of the slots, empty if the doctor is off
+     */
+    public List<LocalDateTime> slotsOn(LocalDate day) {
+        int[] starts = startsOn(day);
+        List<LocalDateTime> slots = new ArrayList<>(starts.length);
+        LocalDateTime midnight = day.atStartOfDay();
+        for (int start : starts) {
+            slots.add(midnight.plusMinutes(start));
+        }
+        return slots;
+    }
+
+    private int[] startsOn(LocalDate day) {
+        int[] starts = exceptionStarts.get(day);
+        return starts != null ? starts : weeklyStarts[day.getDayOfWeek().ordinal()];
+    }
+}
@@ -0,0 +1,9 @@
+package gr.aueb.cf.healthhaven.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IAppointmentExportService {
+
+    void exportAppointmentsByDoctorId(Long doctorId, AppointmentExportFormat format, OutputStream out) throws IOException;
+}
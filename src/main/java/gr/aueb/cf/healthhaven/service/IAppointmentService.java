@@ -1,23 +1,36 @@
 package gr.aueb.cf.healthhaven.service;
 
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
 import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentSeriesResultDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusResultDTO;
 import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentUpdateDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.DoctorFreeSlotsDTO;
 import gr.aueb.cf.healthhaven.model.Appointment;
 import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.model.Speciality;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
 import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface IAppointmentService {
 
     Appointment createAppointment(AppointmentRegisterDTO dto) throws InvalidAppointmentException, EntityNotFoundException;
+    AppointmentSeriesResultDTO createAppointmentSeries(AppointmentRegisterDTO dto) throws InvalidAppointmentException, EntityNotFoundException;
     Appointment updateAppointment(AppointmentUpdateDTO dto) throws InvalidAppointmentException, EntityNotFoundException;
     void deleteAppointmentById(Long id) throws EntityNotFoundException;
     Appointment getAppointmentById(Long id) throws EntityNotFoundException;
     List<Appointment> getAppointmentsByDoctorId(Long doctorId) throws EntityNotFoundException;
+    AppointmentPageDTO getAppointmentPageByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to, LocalDateTime afterTime, Long afterId, int size);
     List<Appointment> getAppointmentByPatient() throws EntityNotFoundException;
-    Appointment updateAppointmentStatus(Long appointmentId, AppointmentStatus status) throws EntityNotFoundException;
+    AppointmentPageDTO getAppointmentPageByPatient(LocalDateTime from, LocalDateTime to, LocalDateTime afterTime, Long afterId, int size) throws EntityNotFoundException;
+    Appointment updateAppointmentStatus(Long appointmentId, AppointmentStatus status) throws EntityNotFoundException, InvalidAppointmentException;
+    List<AppointmentStatusResultDTO> updateAppointmentStatuses(Long doctorId, List<Long> appointmentIds, AppointmentStatus status) throws InvalidAppointmentException;
+    List<DoctorFreeSlotsDTO> findFreeSlotsBySpeciality(Speciality speciality, LocalDate from, LocalDate to, int slotsPerDoctor, int page, int size);
+    int getSlotMinutes(Long doctorId);
 
 
 
@@ -0,0 +1,11 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorScheduleDTO;
+import gr.aueb.cf.healthhaven.model.DoctorSchedule;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidScheduleException;
+
+public interface IDoctorScheduleService {
+
+    DoctorSchedule saveSchedule(Long doctorId, DoctorScheduleDTO dto) throws EntityNotFoundException, InvalidScheduleException;
+}
@@ -1,5 +1,6 @@
 package gr.aueb.cf.healthhaven.service;
 
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorRegisterDTO;
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorUpdateDTO;
 import gr.aueb.cf.healthhaven.model.Doctor;
@@ -16,8 +17,11 @@ public interface IDoctorService {
     Doctor updateDoctor(DoctorUpdateDTO dto) throws EntityNotFoundException;
     void deleteDoctor(Long id) throws EntityNotFoundException;
     List<Doctor> findAllDoctors(String lastname) throws EntityNotFoundException;
+    List<DoctorReadOnlyDTO> searchDoctors(String query, int page, int size);
+    String getSearchVersion();
     Doctor getDoctorById(Long id) throws EntityNotFoundException;
     List<Doctor> findDoctorBySpeciality(Speciality speciality) throws EntityNotFoundException;
 
     Doctor getCurrentDoctor() throws EntityNotFoundException;
+    Long getCurrentDoctorId() throws EntityNotFoundException;
 }
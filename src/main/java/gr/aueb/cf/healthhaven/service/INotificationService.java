@@ -0,0 +1,13 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.OutboxMessage;
+
+import java.util.Optional;
+
+public interface INotificationService {
+
+    Optional<OutboxMessage> notifyStatusChange(Appointment appointment);
+
+    Optional<OutboxMessage> notifyWaitlistBooking(Appointment appointment);
+}
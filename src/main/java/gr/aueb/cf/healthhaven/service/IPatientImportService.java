@@ -0,0 +1,11 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientImportResultDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+
+import java.util.Iterator;
+
+public interface IPatientImportService {
+
+    PatientImportResultDTO importPatients(Iterator<PatientRegisterDTO> rows);
+}
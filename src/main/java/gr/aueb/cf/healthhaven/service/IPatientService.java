@@ -13,7 +13,8 @@ public interface IPatientService {
     Patient updatePatient(PatientUpdateDTO dto) throws EntityNotFoundException;
     Patient deletePatient(Long id) throws EntityNotFoundException;
 
-    Patient getCurrentPatient()throws EntityNotFoundException;
+    Patient getCurrentPatient() throws EntityNotFoundException;
+    Long getCurrentPatientId() throws EntityNotFoundException;
 
 
 
@@ -0,0 +1,16 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.WaitlistEntry;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IWaitlistService {
+
+    WaitlistEntry joinWaitlist(Long doctorId, LocalDate day) throws EntityNotFoundException, InvalidAppointmentException;
+    Optional<Appointment> fillFreedSlot(Long doctorId, LocalDateTime slot, int minutes);
+}
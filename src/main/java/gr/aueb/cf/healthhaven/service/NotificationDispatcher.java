@@ -0,0 +1,190 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.OutboxMessage;
+import gr.aueb.cf.healthhaven.model.OutboxStatus;
+import gr.aueb.cf.healthhaven.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers the notifications of the outbox by mail, in batches, in the background.
+ * A batch of due messages is claimed in a short transaction that pushes their next attempt past the time
+ * a delivery may take, so no other instance picks them up meanwhile; the batch is then sent over a single
+ * SMTP connection, outside any transaction. Messages that fail are retried with an exponential backoff
+ * and given up after the last attempt. Delivery is at least once: a batch sent by an instance that stops
+ * before recording it is sent again once its claim expires.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final Duration CLAIM_DURATION = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public NotificationDispatcher(OutboxMessageRepository outboxMessageRepository, JavaMailSender mailSender,
+                                  TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                  @Value("${healthhaven.notifications.from:no-reply@healthhaven.gr}") String from,
+                                  @Value("${healthhaven.notifications.batch-size:50}") int batchSize,
+                                  @Value("${healthhaven.notifications.max-attempts:8}") int maxAttempts,
+                                  @Value("${healthhaven.notifications.initial-backoff:30s}") Duration initialBackoff,
+                                  @Value("${healthhaven.notifications.max-backoff:1h}") Duration maxBackoff) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.sentCounter = deliveryCounter(meterRegistry, "sent");
+        this.retriedCounter = deliveryCounter(meterRegistry, "retried");
+        this.failedCounter = deliveryCounter(meterRegistry, "failed");
+    }
+
+    private static Counter deliveryCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("healthhaven.notifications.deliveries")
+                .description("Notification delivery attempts by outcome, a failure being a message given up after its last attempt")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers the due messages of the outbox, batch after batch, until none is left.
+     *
+     * @return the number of messages sent
+     */
+    @Scheduled(fixedDelayString = "${healthhaven.notifications.dispatch-interval:PT5S}")
+    public int dispatch() {
+        int sent = 0;
+        List<OutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                sent += deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+        return sent;
+    }
+
+    private List<OutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessage> due = outboxMessageRepository.findDueForUpdate(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            for (OutboxMessage message : due) {
+                message.setNextAttemptAt(now.plus(CLAIM_DURATION));
+            }
+            return due;
+        });
+    }
+
+    /**
+     * Sends a batch of claimed messages and records which were sent and which are to be retried.
+     */
+    private int deliver(List<OutboxMessage> batch) {
+        SimpleMailMessage[] mails = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            mails[i] = toMail(batch.get(i));
+        }
+
+        Map<Object, Exception> failures;
+        try {
+            mailSender.send(mails);
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(mails, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(mails, e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Exception failure = failures.get(mails[i]);
+            if (failure == null) {
+                markSent(batch.get(i), now);
+                sent++;
+            } else {
+                markFailed(batch.get(i), failure, now);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.saveAll(batch));
+        return sent;
+    }
+
+    private SimpleMailMessage toMail(OutboxMessage message) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setFrom(from);
+        mail.setTo(message.getRecipient());
+        mail.setSubject(message.getSubject());
+        mail.setText(message.getBody());
+        return mail;
+    }
+
+    private static Map<Object, Exception> allFailed(SimpleMailMessage[] mails, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (SimpleMailMessage mail : mails) {
+            failures.put(mail, e);
+        }
+        return failures;
+    }
+
+    private void markSent(OutboxMessage message, LocalDateTime now) {
+        message.setStatus(OutboxStatus.SENT);
+        message.setAttempts(message.getAttempts() + 1);
+        message.setSentAt(now);
+        message.setLastError(null);
+        sentCounter.increment();
+    }
+
+    private void markFailed(OutboxMessage message, Exception failure, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        String error = String.valueOf(failure.getMessage());
+        message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxStatus.FAILED);
+            failedCounter.increment();
+            log.error("Notification with id: " + message.getId() + " to " + message.getRecipient() + " was given up after " + attempts + " attempts: " + error);
+            return;
+        }
+        message.setNextAttemptAt(now.plus(backoff(attempts)));
+        retriedCounter.increment();
+        log.warn("Notification with id: " + message.getId() + " could not be sent, attempt " + attempts + " of " + maxAttempts + ": " + error);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
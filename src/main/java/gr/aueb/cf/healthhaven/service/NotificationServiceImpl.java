@@ -0,0 +1,95 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.OutboxMessage;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.repository.OutboxMessageRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Service implementation for the notifications of the patients.
+ * Notifications are only written to the outbox here, in the transaction of the change they report, so they
+ * are sent if and only if the change is committed and the request never waits for the mail server.
+ * The {@link NotificationDispatcher} delivers them in the background.
+ */
+@Service
+@Slf4j
+@Timed(value = "healthhaven.service", histogram = true)
+public class NotificationServiceImpl implements INotificationService {
+
+    private static final DateTimeFormatter APPOINTMENT_TIME = DateTimeFormatter.ofPattern("EEEE d MMMM yyyy 'at' HH:mm", Locale.ENGLISH);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    public NotificationServiceImpl(OutboxMessageRepository outboxMessageRepository) {
+        this.outboxMessageRepository = outboxMessageRepository;
+    }
+
+    /**
+     * Notifies the patient of an appointment that it was confirmed or cancelled.
+     * Other statuses are not notified.
+     *
+     * @param appointment the appointment, with its new status
+     * @return the queued notification, empty if the status is not notified or the patient has no email
+     */
+    @Override
+    @Transactional
+    public Optional<OutboxMessage> notifyStatusChange(Appointment appointment) {
+        String outcome = switch (appointment.getStatus()) {
+            case CONFIRMED -> "confirmed";
+            case CANCELLED -> "cancelled";
+            default -> null;
+        };
+        if (outcome == null) return Optional.empty();
+        return queue(appointment, "Your appointment has been " + outcome, "has been " + outcome + ".");
+    }
+
+    /**
+     * Notifies a patient on the waitlist that a freed slot was booked for them.
+     *
+     * @param appointment the appointment booked from the waitlist
+     * @return the queued notification, empty if the patient has no email
+     */
+    @Override
+    @Transactional
+    public Optional<OutboxMessage> notifyWaitlistBooking(Appointment appointment) {
+        return queue(appointment, "A slot you were waiting for has been booked for you",
+                "was booked for you from the waitlist. Please contact the clinic if you can no longer attend.");
+    }
+
+    private Optional<OutboxMessage> queue(Appointment appointment, String subject, String outcome) {
+        Patient patient = appointment.getPatient();
+        if (patient.getEmail() == null || patient.getEmail().isBlank()) {
+            log.warn("Patient with id: " + patient.getId() + " has no email, appointment with id: " + appointment.getId() + " was not notified");
+            return Optional.empty();
+        }
+
+        Doctor doctor = appointment.getDoctor();
+        LocalDateTime now = LocalDateTime.now();
+        OutboxMessage message = new OutboxMessage();
+        message.setAppointmentId(appointment.getId());
+        message.setRecipient(patient.getEmail());
+        message.setSubject(subject);
+        message.setBody("Dear " + patient.getFirstname() + " " + patient.getLastname() + ",\n\n"
+                + "Your appointment with Dr. " + doctor.getFirstname() + " " + doctor.getLastname()
+                + " on " + APPOINTMENT_TIME.format(appointment.getAppointmentDateTime()) + " " + outcome + "\n\n"
+                + "HealthHaven");
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        outboxMessageRepository.save(message);
+
+        log.info("Notification of appointment with id: " + appointment.getId() + " was queued");
+        return Optional.of(message);
+    }
+}
@@ -0,0 +1,152 @@
+package gr.aueb.cf.healthhaven.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Streams the rows of a patient import, one {@link PatientRegisterDTO} at a time, so that
+ * the whole file is never held in memory.
+ */
+public final class PatientImportRows {
+
+    private static final Map<String, BiConsumer<PatientRegisterDTO, String>> CSV_COLUMNS = Map.of(
+            "username", PatientRegisterDTO::setUsername,
+            "password", PatientRegisterDTO::setPassword,
+            "firstname", PatientRegisterDTO::setFirstname,
+            "lastname", PatientRegisterDTO::setLastname,
+            "ssn", PatientRegisterDTO::setSsn,
+            "email", PatientRegisterDTO::setEmail,
+            "phonenumber", PatientRegisterDTO::setPhoneNumber
+    );
+
+    private PatientImportRows() {
+    }
+
+    /**
+     * Reads a JSON array, or a sequence of JSON objects, of patient registrations.
+     *
+     * @param in           the JSON stream
+     * @param objectMapper the object mapper
+     * @return the rows of the import
+     * @throws IOException if the stream cannot be read
+     */
+    public static Iterator<PatientRegisterDTO> fromJson(InputStream in, ObjectMapper objectMapper) throws IOException {
+        return objectMapper.readerFor(PatientRegisterDTO.class).readValues(in);
+    }
+
+    /**
+     * Reads a CSV file of patient registrations. The first line is a header naming the columns
+     * username, password, firstname, lastname, ssn, email and phoneNumber, in any order.
+     * Fields may be enclosed in double quotes, with embedded quotes doubled; a quoted field may span lines,
+     * and keeps its line breaks. A quote left open at the end of the file runs to the end of the file.
+     *
+     * @param in the CSV stream, UTF-8 encoded
+     * @return the rows of the import
+     * @throws IOException if the stream cannot be read or the header is missing
+     */
+    public static Iterator<PatientRegisterDTO> fromCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IOException("The CSV file has no header");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<BiConsumer<PatientRegisterDTO, String>> columns = new ArrayList<>();
+        for (String name : splitLine(header)) {
+            columns.add(CSV_COLUMNS.getOrDefault(name.trim().toLowerCase(), (dto, value) -> { }));
+        }
+
+        return new Iterator<>() {
+            private String next = readDataLine();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public PatientRegisterDTO next() {
+                if (next == null) throw new NoSuchElementException();
+                List<String> fields = splitLine(next);
+                PatientRegisterDTO dto = new PatientRegisterDTO();
+                for (int i = 0; i < fields.size() && i < columns.size(); i++) {
+                    columns.get(i).accept(dto, fields.get(i));
+                }
+                next = readDataLine();
+                return dto;
+            }
+
+            private String readDataLine() {
+                try {
+                    String line;
+                    do {
+                        line = reader.readLine();
+                    } while (line != null && line.isBlank());
+                    if (line == null) return null;
+
+                    // An odd number of quotes leaves a quoted field open, so the record goes on to the next line
+                    StringBuilder record = new StringBuilder(line);
+                    boolean open = quotes(line) % 2 == 1;
+                    while (open && (line = reader.readLine()) != null) {
+                        record.append('\n').append(line);
+                        open = quotes(line) % 2 == 0;
+                    }
+                    return record.toString();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static int quotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') count++;
+        }
+        return count;
+    }
+
+    private static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
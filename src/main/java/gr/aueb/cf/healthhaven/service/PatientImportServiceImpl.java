@@ -0,0 +1,201 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientImportErrorDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientImportResultDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+import gr.aueb.cf.healthhaven.mapper.Mapper;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.User;
+import gr.aueb.cf.healthhaven.repository.PatientRepository;
+import gr.aueb.cf.healthhaven.repository.UserRepository;
+import gr.aueb.cf.healthhaven.validator.PatientRegisterValidator;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for importing patients in bulk, when a clinic moves its patients over.
+ * The rows are processed in chunks. The rows of a chunk are validated, checked for unique SSNs and
+ * usernames with one query per column, have their passwords hashed in parallel, and are inserted in
+ * a single transaction with JDBC batching, after which the persistence context is cleared. An invalid or
+ * duplicate row is reported and skipped, without aborting the rest of the import.
+ */
+@Service
+@Slf4j
+public class PatientImportServiceImpl implements IPatientImportService {
+
+    private final PatientRepository patientRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PatientRegisterValidator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ThreadPoolExecutor hashingExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public PatientImportServiceImpl(PatientRepository patientRepository, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                    PatientRegisterValidator validator, TransactionTemplate transactionTemplate,
+                                    @Value("${healthhaven.import.chunk-size:500}") int chunkSize,
+                                    @Value("${healthhaven.import.hashing-threads:4}") int hashingThreads) {
+        this.patientRepository = patientRepository;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        // At most one chunk of passwords is queued; a full queue makes the importing thread hash too
+        this.hashingExecutor = new ThreadPoolExecutor(hashingThreads, hashingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    /**
+     * Imports the patients of the given rows.
+     *
+     * @param rows the patient registrations, in file order
+     * @return the number of rows read and imported, and the error of every skipped row
+     */
+    @Override
+    public PatientImportResultDTO importPatients(Iterator<PatientRegisterDTO> rows) {
+        List<PatientImportErrorDTO> errors = new ArrayList<>();
+        Set<String> seenSsns = new HashSet<>();
+        Set<String> seenUsernames = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        int rowCount = 0;
+        int imported = 0;
+
+        while (rows.hasNext()) {
+            chunk.add(new ImportRow(++rowCount, rows.next()));
+            if (chunk.size() == chunkSize || !rows.hasNext()) {
+                imported += importChunk(chunk, seenSsns, seenUsernames, errors);
+                chunk.clear();
+            }
+        }
+        log.info("Patient import finished, " + imported + " of " + rowCount + " rows were imported");
+        return new PatientImportResultDTO(rowCount, imported, errors);
+    }
+
+    private int importChunk(List<ImportRow> chunk, Set<String> seenSsns, Set<String> seenUsernames, List<PatientImportErrorDTO> errors) {
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = validate(row.dto);
+            if (error == null && !seenSsns.add(row.dto.getSsn())) {
+                error = "Duplicate SSN " + row.dto.getSsn() + " in the import";
+            } else if (error == null && !seenUsernames.add(row.dto.getUsername())) {
+                error = "Duplicate username " + row.dto.getUsername() + " in the import";
+            }
+            if (error == null) {
+                valid.add(row);
+            } else {
+                errors.add(new PatientImportErrorDTO(row.number, error));
+            }
+        }
+        if (valid.isEmpty()) return 0;
+
+        Set<String> existingSsns = patientRepository.findSsnsBySsnIn(valid.stream().map(row -> row.dto.getSsn()).toList());
+        Set<String> existingUsernames = userRepository.findUsernamesByUsernameIn(valid.stream().map(row -> row.dto.getUsername()).toList());
+        List<ImportRow> toInsert = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (existingSsns.contains(row.dto.getSsn())) {
+                errors.add(new PatientImportErrorDTO(row.number, "Patient with SSN " + row.dto.getSsn() + " already exists"));
+            } else if (existingUsernames.contains(row.dto.getUsername())) {
+                errors.add(new PatientImportErrorDTO(row.number, "User with username " + row.dto.getUsername() + " already exists"));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) return 0;
+
+        CompletableFuture.allOf(toInsert.stream()
+                .map(row -> CompletableFuture.runAsync(() -> row.passwordHash = passwordEncoder.encode(row.dto.getPassword()), hashingExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+
+        try {
+            insert(toInsert);
+            return toInsert.size();
+        } catch (DataIntegrityViolationException e) {
+            // A row collided with a concurrent registration; insert the rows one by one to find it
+            int inserted = 0;
+            for (ImportRow row : toInsert) {
+                try {
+                    insert(List.of(row));
+                    inserted++;
+                } catch (DataIntegrityViolationException rowException) {
+                    errors.add(new PatientImportErrorDTO(row.number, "Patient with SSN " + row.dto.getSsn()
+                            + " or user with username " + row.dto.getUsername() + " already exists"));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private void insert(List<ImportRow> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ImportRow row : rows) {
+                Patient patient = Mapper.extractPatientFromRegisterDTO(row.dto);
+                User user = Mapper.extractUserFromRegisterDTO(row.dto);
+                user.setPassword(row.passwordHash);
+                patient.addUser(user);
+                entityManager.persist(patient);
+            }
+            // The chunk's entities are not needed after the insert; clearing them keeps the persistence context from
+            // growing with the import if it is run inside a longer transaction. The repository flush translates
+            // a constraint violation into the DataIntegrityViolationException handled by the caller.
+            patientRepository.flush();
+            entityManager.clear();
+        });
+    }
+
+    private String validate(PatientRegisterDTO dto) {
+        Errors result = new BeanPropertyBindingResult(dto, "patientRegisterDTO");
+        validator.validate(dto, result);
+        if (!result.hasErrors()) return null;
+        return result.getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + message(error))
+                .distinct()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String message(FieldError error) {
+        return error.getDefaultMessage() != null ? error.getDefaultMessage() : error.getCode();
+    }
+
+    private static final class ImportRow {
+        private final int number;
+        private final PatientRegisterDTO dto;
+        private volatile String passwordHash;
+
+        private ImportRow(int number, PatientRegisterDTO dto) {
+            this.number = number;
+            this.dto = dto;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package gr.aueb.cf.healthhaven.service;
 
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUser;
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUserSessions;
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientUpdateDTO;
 import gr.aueb.cf.healthhaven.mapper.Mapper;
@@ -11,12 +13,12 @@ import gr.aueb.cf.healthhaven.repository.UserRepository;
 import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
 import gr.aueb.cf.healthhaven.service.exceptions.PatientAlreadyExistsException;
 import gr.aueb.cf.healthhaven.service.exceptions.UserAlreadyExistsException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -27,41 +29,53 @@ import org.springframework.stereotype.Service;
  */
 @Service
 @Slf4j
+@Timed(value = "healthhaven.service", histogram = true)
 public class PatientServiceImpl implements IPatientService {
 
     private final PatientRepository patientRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final AuthenticatedUserSessions userSessions;
 
     @Autowired
-    public PatientServiceImpl(PatientRepository patientRepository, PasswordEncoder passwordEncoder, UserRepository userRepository) {
+    public PatientServiceImpl(PatientRepository patientRepository, PasswordEncoder passwordEncoder, UserRepository userRepository,
+                              AuthenticatedUserSessions userSessions) {
         this.patientRepository = patientRepository;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.userSessions = userSessions;
     }
 
 
     /**
-     * Retrieves the currently authenticated patient from the security context.
+     * Retrieves the ID of the currently authenticated patient from the security context.
+     * The ID is resolved once at login and carried on the principal, so no query is issued.
      *
-     * @return the current logged-in patient
-     * @throws EntityNotFoundException if the patient is not found
+     * @return the ID of the current logged-in patient
+     * @throws EntityNotFoundException if no patient is logged in
      */
-    public Patient getCurrentPatient() throws EntityNotFoundException {
+    @Override
+    public Long getCurrentPatientId() throws EntityNotFoundException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user) || user.getPatientId() == null) {
             throw new EntityNotFoundException(Patient.class, null);
         }
-
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-
-        User user = userRepository.findUserByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException(Patient.class, null));
-        return patientRepository.findById(user.getPatient().getId())
-                .orElseThrow(() -> new EntityNotFoundException(Patient.class, null));
+        return user.getPatientId();
     }
 
-
+    /**
+     * Retrieves the currently authenticated patient from the security context.
+     *
+     * @return the current logged-in patient
+     * @throws EntityNotFoundException if the patient is not found
+     */
+    @Override
+    public Patient getCurrentPatient() throws EntityNotFoundException {
+        Long patientId = getCurrentPatientId();
+        return patientRepository.findById(patientId)
+                .orElseThrow(() -> new EntityNotFoundException(Patient.class, patientId));
+    }
 
     /**
      * Registers a new patient in the system with the provided registration details.
@@ -109,10 +123,14 @@ public class PatientServiceImpl implements IPatientService {
 
     /**
      * Updates an existing patient's details in the system based on the provided data transfer object.
+     * The patient is written by dirty checking when the transaction commits; if the update is based on a
+     * version of the patient that is no longer the current one, it fails rather than overwrite the newer details.
      *
      * @param dto the data transfer object containing updated patient details.
      * @return the updated patient.
      * @throws EntityNotFoundException if the patient to be updated is not found.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the patient was changed since the
+     *                                 version of the update, or while it ran.
      */
     @Transactional
     @Override
@@ -121,7 +139,8 @@ public class PatientServiceImpl implements IPatientService {
 
         try {
             patientToUpdate = getCurrentPatient();
-            patientToUpdate = patientRepository.save(Mapper.mapToPatient(patientToUpdate, dto));
+            Versions.check(Patient.class, patientToUpdate.getId(), dto.getVersion(), patientToUpdate.getVersion());
+            Mapper.mapToPatient(patientToUpdate, dto);
             log.info("Patient with id: " + patientToUpdate.getId() + " was updated");
 
         } catch (EntityNotFoundException e) {
@@ -147,6 +166,11 @@ public class PatientServiceImpl implements IPatientService {
             patientToDelete = patientRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFoundException(Patient.class, id));
             patientRepository.deleteById(id);
+            if (patientToDelete.getUser() != null) {
+                // Only once the delete is committed, so a login meanwhile cannot cache the user again
+                String username = patientToDelete.getUser().getUsername();
+                AfterTransaction.onCommit(() -> userSessions.expireSessionsOf(username));
+            }
             log.info("Patient with id: " + id + " was deleted");
 
         } catch (EntityNotFoundException e) {
@@ -0,0 +1,28 @@
+package gr.aueb.cf.healthhaven.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Checks the version an update was based on, such as the one of an edit form, against the current version of
+ * the entity. A change committed by someone else in the meantime is reported the same way as one committed
+ * while the update runs, by an {@link ObjectOptimisticLockingFailureException}.
+ */
+final class Versions {
+
+    private Versions() {
+    }
+
+    /**
+     * Fails if the entity has changed since the version the update was based on.
+     *
+     * @param entityClass the class of the entity
+     * @param id          the ID of the entity
+     * @param expected    the version the update was based on, or null if the update does not depend on one
+     * @param current     the current version of the entity
+     */
+    static void check(Class<?> entityClass, Object id, Long expected, long current) {
+        if (expected != null && expected != current) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.WaitlistEntry;
+import gr.aueb.cf.healthhaven.model.WaitlistStatus;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import gr.aueb.cf.healthhaven.repository.WaitlistEntryRepository;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Service implementation for the appointment waitlist.
+ * Patients who find a slot taken can wait for any slot of the doctor on that day; when a slot of that
+ * day is freed, it is booked right away for the patient that has waited the longest, who is then told by mail.
+ * Joining the waitlist is taken as the patient's consent to any slot of that day: offering the slot and waiting
+ * for an answer would keep it empty, or taken by nobody, for as long as the patient takes to reply.
+ */
+@Service
+@Slf4j
+@Timed(value = "healthhaven.service", histogram = true)
+public class WaitlistServiceImpl implements IWaitlistService {
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final IPatientService patientService;
+    private final AppointmentWaitlist waitlist;
+    private final AppointmentSlotIndex slotIndex;
+    private final INotificationService notificationService;
+
+    @Autowired
+    public WaitlistServiceImpl(WaitlistEntryRepository waitlistEntryRepository, AppointmentRepository appointmentRepository,
+                               DoctorRepository doctorRepository, IPatientService patientService,
+                               AppointmentWaitlist waitlist, AppointmentSlotIndex slotIndex,
+                               INotificationService notificationService) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientService = patientService;
+        this.waitlist = waitlist;
+        this.slotIndex = slotIndex;
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * Puts the current logged-in patient on the waitlist of a doctor for a day.
+     * The patient joins the in-memory queue only once the entry is committed.
+     *
+     * @param doctorId the ID of the doctor
+     * @param day      the day the patient waits for
+     * @return the waitlist entry
+     * @throws EntityNotFoundException     if the doctor or the patient does not exist
+     * @throws InvalidAppointmentException if the day is in the past or the patient already waits for it
+     */
+    @Override
+    @Transactional
+    public WaitlistEntry joinWaitlist(Long doctorId, LocalDate day) throws EntityNotFoundException, InvalidAppointmentException {
+        WaitlistEntry entry = new WaitlistEntry();
+
+        try {
+            Doctor doctor = doctorRepository.findById(doctorId).orElseThrow(() -> new EntityNotFoundException(Doctor.class, doctorId));
+            if (day.isBefore(LocalDate.now())) {
+                throw new InvalidAppointmentException("You cannot join the waitlist of a past day.");
+            }
+            Patient patient = patientService.getCurrentPatient();
+            if (waitlistEntryRepository.existsByDoctorIdAndPatientIdAndDayAndStatus(doctorId, patient.getId(), day, WaitlistStatus.WAITING)) {
+                throw new InvalidAppointmentException("You are already on the waitlist of this doctor for this day.");
+            }
+
+            entry.setDoctor(doctor);
+            entry.setPatient(patient);
+            entry.setDay(day);
+            entry.setRequestedAt(LocalDateTime.now());
+            waitlistEntryRepository.save(entry);
+
+            AppointmentWaitlist.Waiting waiting = new AppointmentWaitlist.Waiting(entry.getId(), patient.getId(), entry.getRequestedAt());
+            AfterTransaction.onCommit(() -> waitlist.add(doctorId, day, waiting));
+            log.info("Patient with id: " + patient.getId() + " joined the waitlist of doctor with id: " + doctorId + " for " + day);
+        } catch (EntityNotFoundException | InvalidAppointmentException e) {
+            log.error(e.getMessage());
+            throw e;
+        }
+        return entry;
+    }
+
+    /**
+     * Books a freed slot for the patient that has waited the longest for the doctor on that day, and notifies them.
+     * Must be called by the holder of the slot lock, within the transaction that freed the slot.
+     * If that transaction rolls back, the patient gets their place in the queue back.
+     *
+     * @param doctorId the ID of the doctor
+     * @param slot     the start of the freed slot
+     * @param minutes  the length of the freed slot
+     * @return the appointment booked from the waitlist, or empty if nobody waits or the slot is in the past
+     */
+    @Override
+    @Transactional
+    public Optional<Appointment> fillFreedSlot(Long doctorId, LocalDateTime slot, int minutes) {
+        if (slot.isBefore(LocalDateTime.now())) return Optional.empty();
+        LocalDate day = slot.toLocalDate();
+
+        AppointmentWaitlist.Waiting next;
+        while ((next = waitlist.poll(doctorId, day)) != null) {
+            WaitlistEntry entry = waitlistEntryRepository.findById(next.entryId()).orElse(null);
+            if (entry == null || entry.getStatus() != WaitlistStatus.WAITING) continue;
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(entry.getDoctor());
+            appointment.setPatient(entry.getPatient());
+            appointment.setAppointmentDateTime(slot);
+            appointment.setDurationMinutes(minutes);
+            appointmentRepository.save(appointment);
+            entry.setStatus(WaitlistStatus.BOOKED);
+            entry.setAppointment(appointment);
+            slotIndex.occupy(doctorId, slot, minutes);
+            notificationService.notifyWaitlistBooking(appointment);
+
+            AppointmentWaitlist.Waiting booked = next;
+            AfterTransaction.onRollback(() -> waitlist.add(doctorId, day, booked));
+            log.info("Appointment with id: " + appointment.getId() + " was booked from the waitlist for patient with id: " + next.patientId());
+            return Optional.of(appointment);
+        }
+        return Optional.empty();
+    }
+}
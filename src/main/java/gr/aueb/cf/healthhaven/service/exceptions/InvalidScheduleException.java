@@ -0,0 +1,10 @@
+package gr.aueb.cf.healthhaven.service.exceptions;
+
+public class InvalidScheduleException extends Exception {
+
+    private static final long serialUID = 1L;
+
+    public InvalidScheduleException(String message) {
+        super(message);
+    }
+}
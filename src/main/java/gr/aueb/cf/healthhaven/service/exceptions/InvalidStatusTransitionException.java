@@ -0,0 +1,15 @@
+package gr.aueb.cf.healthhaven.service.exceptions;
+
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+
+/**
+ * Exception thrown when an appointment is moved to a status that cannot follow its current one,
+ * for example when a cancelled appointment is confirmed.
+ */
+public class InvalidStatusTransitionException extends InvalidAppointmentException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidStatusTransitionException(AppointmentStatus from, AppointmentStatus to) {
+        super("A " + from.name().toLowerCase() + " appointment cannot be " + to.name().toLowerCase() + ".");
+    }
+}
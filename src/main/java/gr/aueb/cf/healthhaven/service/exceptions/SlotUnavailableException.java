@@ -0,0 +1,13 @@
+package gr.aueb.cf.healthhaven.service.exceptions;
+
+/**
+ * Exception thrown when a patient tries to book a slot that another appointment already takes.
+ * The patient may join the waitlist of the doctor for that day instead.
+ */
+public class SlotUnavailableException extends InvalidAppointmentException {
+    private static final long serialVersionUID = 1L;
+
+    public SlotUnavailableException() {
+        super("The appointment time is not available.");
+    }
+}
@@ -2,8 +2,8 @@ package gr.aueb.cf.healthhaven.validator;
 
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorRegisterDTO;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
 /**
@@ -29,19 +29,23 @@ public class DoctorRegisterValidator implements Validator {
 
         UsernameAndPasswordValidator.validateUsernameAndPassword(newDoctor.getUsername(), newDoctor.getPassword(), errors);
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors,"firstname","empty");
-        if (newDoctor.getFirstname().length() < 2 || newDoctor.getFirstname().length() > 32) {
+        if (!StringUtils.hasText(newDoctor.getFirstname())) {
+            errors.rejectValue("firstname", "empty");
+        }
+        if (!ValidationRules.hasLengthBetween(newDoctor.getFirstname(), 2, 32)) {
             errors.rejectValue("firstname", "size");
         }
-        if (!newDoctor.getFirstname().matches("^[A-Za-z]+$")) {
+        if (!ValidationRules.isLetters(newDoctor.getFirstname())) {
             errors.rejectValue("firstname", "containsIntegersOrSpecialChars");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "lastname", "empty");
-        if (newDoctor.getLastname().length() < 2 || newDoctor.getLastname().length() > 32) {
+        if (!StringUtils.hasText(newDoctor.getLastname())) {
+            errors.rejectValue("lastname", "empty");
+        }
+        if (!ValidationRules.hasLengthBetween(newDoctor.getLastname(), 2, 32)) {
             errors.rejectValue("lastname", "size");
         }
-        if (!newDoctor.getLastname().matches("^[A-Za-z]+$")) {
+        if (!ValidationRules.isLetters(newDoctor.getLastname())) {
             errors.rejectValue("lastname", "containsIntegersOrSpecialChars");
         }
 
@@ -49,7 +53,7 @@ public class DoctorRegisterValidator implements Validator {
             errors.rejectValue("speciality", "speciality.null", "Specialty is required.");
         }
 
-        if (!newDoctor.getMedicalLicenseNumber().matches("\\d{7}")) {
+        if (!ValidationRules.isDigits(newDoctor.getMedicalLicenseNumber(), 7)) {
             errors.rejectValue("medicalLicenseNumber", "license.format", "Medical License Number must be 7 digits.");
         }
 
@@ -2,8 +2,8 @@ package gr.aueb.cf.healthhaven.validator;
 
 import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorUpdateDTO;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
 /**
@@ -27,14 +27,18 @@ public class DoctorUpdateValidator implements Validator {
 
 
         // Validate firstname
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "firstname", "firstname.empty", "First name cannot be empty.");
-        if (doctorToUpdate.getFirstname() != null && (doctorToUpdate.getFirstname().length() < 2 || doctorToUpdate.getFirstname().length() > 32)) {
+        if (!StringUtils.hasText(doctorToUpdate.getFirstname())) {
+            errors.rejectValue("firstname", "firstname.empty", "First name cannot be empty.");
+        }
+        if (doctorToUpdate.getFirstname() != null && !ValidationRules.hasLengthBetween(doctorToUpdate.getFirstname(), 2, 32)) {
             errors.rejectValue("firstname", "firstname.length", "First name must be between 2 and 32 characters.");
         }
 
         //Validate lastname
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "lastname", "lastname.empty", "Last name cannot be empty.");
-        if (doctorToUpdate.getLastname() != null && (doctorToUpdate.getLastname().length() < 2 || doctorToUpdate.getLastname().length() > 32)) {
+        if (!StringUtils.hasText(doctorToUpdate.getLastname())) {
+            errors.rejectValue("lastname", "lastname.empty", "Last name cannot be empty.");
+        }
+        if (doctorToUpdate.getLastname() != null && !ValidationRules.hasLengthBetween(doctorToUpdate.getLastname(), 2, 32)) {
             errors.rejectValue("lastname", "lastname.length", "Last name must be between 2 and 32 characters.");
         }
 
@@ -2,10 +2,9 @@ package gr.aueb.cf.healthhaven.validator;
 
 
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
-import gr.aueb.cf.healthhaven.dto.patientDTO.PatientUpdateDTO;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
 /**
@@ -19,7 +18,7 @@ import org.springframework.validation.Validator;
 public class PatientRegisterValidator implements Validator {
     @Override
     public boolean supports(Class<?> clazz) {
-        return PatientUpdateDTO.class.equals(clazz);
+        return PatientRegisterDTO.class.equals(clazz);
     }
 
     @Override
@@ -29,33 +28,41 @@ public class PatientRegisterValidator implements Validator {
 
         UsernameAndPasswordValidator.validateUsernameAndPassword(newPatient.getUsername(), newPatient.getPassword(), errors);
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "firstname", "empty", "First name cannot be empty.");
-        if (newPatient.getFirstname().length() < 2 || newPatient.getFirstname().length() > 32) {
+        if (!StringUtils.hasText(newPatient.getFirstname())) {
+            errors.rejectValue("firstname", "empty", "First name cannot be empty.");
+        }
+        if (!ValidationRules.hasLengthBetween(newPatient.getFirstname(), 2, 32)) {
             errors.rejectValue("firstname", "size", "First name must be between 2 and 32 characters.");
         }
-        if (!newPatient.getFirstname().matches("^[A-Za-z]+$")) {
+        if (!ValidationRules.isLetters(newPatient.getFirstname())) {
             errors.rejectValue("firstname", "containsIntegersOrSpecialChars", "First name must contain only letters.");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "lastname", "empty", "Last name cannot be empty.");
-        if (newPatient.getLastname().length() < 2 || newPatient.getLastname().length() > 32) {
+        if (!StringUtils.hasText(newPatient.getLastname())) {
+            errors.rejectValue("lastname", "empty", "Last name cannot be empty.");
+        }
+        if (!ValidationRules.hasLengthBetween(newPatient.getLastname(), 2, 32)) {
             errors.rejectValue("lastname", "size", "Last name must be between 2 and 32 characters.");
         }
-        if (!newPatient.getLastname().matches("^[A-Za-z]+$")) {
+        if (!ValidationRules.isLetters(newPatient.getLastname())) {
             errors.rejectValue("lastname", "containsIntegersOrSpecialChars", "Last name must contain only letters.");
         }
 
-        if (!newPatient.getEmail().matches("^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+$")) {
+        if (!ValidationRules.isEmail(newPatient.getEmail())) {
             errors.rejectValue("email", "invalidEmail", "Invalid email format.");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "phoneNumber", "phoneNumber.empty", "Phone number cannot be empty.");
-        if (!newPatient.getPhoneNumber().matches("^\\d{10}$")) {
+        if (!StringUtils.hasText(newPatient.getPhoneNumber())) {
+            errors.rejectValue("phoneNumber", "phoneNumber.empty", "Phone number cannot be empty.");
+        }
+        if (!ValidationRules.isDigits(newPatient.getPhoneNumber(), 10)) {
             errors.rejectValue("phoneNumber", "phoneNumber.invalid", "Phone number must be exactly 10 digits.");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "ssn", "ssn.empty", "SSN cannot be empty.");
-        if (!newPatient.getSsn().matches("^\\d{9}$")) {
+        if (!StringUtils.hasText(newPatient.getSsn())) {
+            errors.rejectValue("ssn", "ssn.empty", "SSN cannot be empty.");
+        }
+        if (!ValidationRules.isDigits(newPatient.getSsn(), 9)) {
             errors.rejectValue("ssn", "ssn.invalid", "SSN must be exactly 9 digits.");
         }
 
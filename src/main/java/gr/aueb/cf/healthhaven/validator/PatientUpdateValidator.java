@@ -2,8 +2,8 @@ package gr.aueb.cf.healthhaven.validator;
 
 import gr.aueb.cf.healthhaven.dto.patientDTO.PatientUpdateDTO;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
 /**
@@ -37,28 +37,34 @@ public class PatientUpdateValidator implements Validator {
     public void validate(Object target, Errors errors) {
         PatientUpdateDTO patientToUpdate = (PatientUpdateDTO) target;
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "firstname", "empty", "First name cannot be empty.");
-        if (patientToUpdate.getFirstname().length() < 2 || patientToUpdate.getFirstname().length() > 32) {
+        if (!StringUtils.hasText(patientToUpdate.getFirstname())) {
+            errors.rejectValue("firstname", "empty", "First name cannot be empty.");
+        }
+        if (!ValidationRules.hasLengthBetween(patientToUpdate.getFirstname(), 2, 32)) {
             errors.rejectValue("firstname", "size", "First name must be between 2 and 32 characters.");
         }
-        if (!patientToUpdate.getFirstname().matches("^[A-Za-z]+$")) {
+        if (!ValidationRules.isLetters(patientToUpdate.getFirstname())) {
             errors.rejectValue("firstname", "containsIntegersOrSpecialChars", "First name must contain only letters.");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "lastname", "empty", "Last name cannot be empty.");
-        if (patientToUpdate.getLastname().length() < 2 || patientToUpdate.getLastname().length() > 32) {
+        if (!StringUtils.hasText(patientToUpdate.getLastname())) {
+            errors.rejectValue("lastname", "empty", "Last name cannot be empty.");
+        }
+        if (!ValidationRules.hasLengthBetween(patientToUpdate.getLastname(), 2, 32)) {
             errors.rejectValue("lastname", "size", "Last name must be between 2 and 32 characters.");
         }
-        if (!patientToUpdate.getLastname().matches("^[A-Za-z]+$")) {
+        if (!ValidationRules.isLetters(patientToUpdate.getLastname())) {
             errors.rejectValue("lastname", "containsIntegersOrSpecialChars", "Last name must contain only letters.");
         }
 
-        if (!patientToUpdate.getEmail().matches("^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+$")) {
+        if (!ValidationRules.isEmail(patientToUpdate.getEmail())) {
             errors.rejectValue("email", "invalidEmail", "Invalid email format.");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "phoneNumber", "phoneNumber.empty", "Phone number cannot be empty.");
-        if (!patientToUpdate.getPhoneNumber().matches("^\\d{10}$")) {
+        if (!StringUtils.hasText(patientToUpdate.getPhoneNumber())) {
+            errors.rejectValue("phoneNumber", "phoneNumber.empty", "Phone number cannot be empty.");
+        }
+        if (!ValidationRules.isDigits(patientToUpdate.getPhoneNumber(), 10)) {
             errors.rejectValue("phoneNumber", "phoneNumber.invalid", "Phone number must be exactly 10 digits.");
         }
     }
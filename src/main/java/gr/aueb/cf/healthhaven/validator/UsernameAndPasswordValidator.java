@@ -1,7 +1,7 @@
 package gr.aueb.cf.healthhaven.validator;
 
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
-import org.springframework.validation.ValidationUtils;
 
 /**
  * Provides static methods for validating usernames and passwords to ensure they meet
@@ -18,13 +18,17 @@ public class UsernameAndPasswordValidator  {
      */
     public static void validateUsernameAndPassword(String username, String password, Errors errors) {
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "username", "empty");
-        if (username.length() < 5 || username.length() > 20) {
+        if (!StringUtils.hasText(username)) {
+            errors.rejectValue("username", "empty");
+        }
+        if (!ValidationRules.hasLengthBetween(username, 5, 20)) {
             errors.rejectValue("username", "username.invalid", "Username must be between 5 and 20 characters.");
         }
 
-        ValidationUtils.rejectIfEmptyOrWhitespace(errors, "password", "empty");
-        if (password.length() < 8 || !password.matches("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$")) {
+        if (!StringUtils.hasText(password)) {
+            errors.rejectValue("password", "empty");
+        }
+        if (!ValidationRules.isStrongPassword(password)) {
             errors.rejectValue("password", "password.invalid", "Password must be at least 8 characters and include a number, uppercase, lowercase, and special character.");
         }
     }
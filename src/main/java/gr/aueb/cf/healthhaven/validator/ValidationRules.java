@@ -0,0 +1,109 @@
+package gr.aueb.cf.healthhaven.validator;
+
+/**
+ * Field rules shared by all the validators.
+ * Each rule is a single pass over the characters of the value, equivalent to the regular expression
+ * noted on it, so validating a form neither compiles patterns nor allocates.
+ * A null value never satisfies a rule.
+ */
+public final class ValidationRules {
+
+    private static final String PASSWORD_SPECIAL_CHARS = "@#$%^&+=";
+
+    private ValidationRules() {
+    }
+
+    /**
+     * Checks if the value has between min and max characters, inclusive.
+     *
+     * @param value the value to check
+     * @param min   the minimum length
+     * @param max   the maximum length
+     * @return true if the length of the value is within bounds, false otherwise
+     */
+    public static boolean hasLengthBetween(String value, int min, int max) {
+        return value != null && value.length() >= min && value.length() <= max;
+    }
+
+    /**
+     * Checks if the value consists of ASCII letters only, as {@code ^[A-Za-z]+$}.
+     *
+     * @param value the value to check
+     * @return true if the value is a non-empty run of letters, false otherwise
+     */
+    public static boolean isLetters(String value) {
+        if (value == null || value.isEmpty()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (!isAsciiLetter(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the value consists of exactly the given number of digits, as {@code ^\d{length}$}.
+     * Used for the SSN, the phone number and the medical license number.
+     *
+     * @param value  the value to check
+     * @param length the number of digits
+     * @return true if the value is exactly length digits, false otherwise
+     */
+    public static boolean isDigits(String value, int length) {
+        if (value == null || value.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (!isAsciiDigit(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the value is an email address, as {@code ^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+$}.
+     *
+     * @param value the value to check
+     * @return true if the value is an email address, false otherwise
+     */
+    public static boolean isEmail(String value) {
+        if (value == null) return false;
+        int at = value.indexOf('@');
+        if (at <= 0 || at == value.length() - 1) return false;
+        for (int i = 0; i < at; i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c) && c != '+' && c != '_' && c != '.' && c != '-') return false;
+        }
+        for (int i = at + 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c) && c != '.' && c != '-') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the value is a strong password, as
+     * {@code ^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\S+$).{8,}$}:
+     * at least 8 characters without whitespace, with a digit, a lowercase letter,
+     * an uppercase letter and one of {@code @#$%^&+=}.
+     *
+     * @param value the value to check
+     * @return true if the value is a strong password, false otherwise
+     */
+    public static boolean isStrongPassword(String value) {
+        if (value == null || value.length() < 8) return false;
+        boolean digit = false, lower = false, upper = false, special = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') return false;
+            digit |= isAsciiDigit(c);
+            lower |= c >= 'a' && c <= 'z';
+            upper |= c >= 'A' && c <= 'Z';
+            special |= PASSWORD_SPECIAL_CHARS.indexOf(c) >= 0;
+        }
+        return digit && lower && upper && special;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,50 @@
+create table `users` (
+    `id` bigint not null auto_increment,
+    `password` varchar(255) not null,
+    `username` varchar(255) not null,
+    `role` enum ('DOCTOR','PATIENT') not null,
+    primary key (`id`)
+) engine=InnoDB;
+
+create table `doctors` (
+    `id` bigint not null auto_increment,
+    `user_id` bigint,
+    `firstname` varchar(255) not null,
+    `lastname` varchar(255) not null,
+    `medical_license_number` varchar(255) not null,
+    `speciality` enum ('CARDIOLOGY','DERMATOLOGY','NEUROLOGY','PEDIATRICS','ONCOLOGY','ORTHOPEDICS','GASTROENTEROLOGY',
+        'ENDOCRINOLOGY','PSYCHIATRY','OPHTHALMOLOGY','UROLOGY','GYNECOLOGY','PULMONOLOGY','RHEUMATOLOGY','INFECTIOUS_DISEASE',
+        'HEMATOLOGY','NEPHROLOGY','ALLERGY_IMMUNOLOGY','ANESTHESIOLOGY','PLASTIC_SURGERY') not null,
+    primary key (`id`)
+) engine=InnoDB;
+
+create table `patients` (
+    `id` bigint not null auto_increment,
+    `user_id` bigint,
+    `email` varchar(255) not null,
+    `firstname` varchar(255) not null,
+    `lastname` varchar(255) not null,
+    `phone_number` varchar(255) not null,
+    `ssn` varchar(255) not null,
+    primary key (`id`)
+) engine=InnoDB;
+
+create table `appointments` (
+    `id` bigint not null auto_increment,
+    `date` datetime(6) not null,
+    `doctor_id` bigint not null,
+    `patient_id` bigint not null,
+    `status` enum ('PENDING','CONFIRMED','CANCELLED') not null,
+    primary key (`id`)
+) engine=InnoDB;
+
+alter table `users` add constraint `UK_USERS_USERNAME` unique (`username`);
+alter table `doctors` add constraint `UK_DOCTORS_USER_ID` unique (`user_id`);
+alter table `doctors` add constraint `UK_DOCTORS_MEDICAL_LICENSE_NUMBER` unique (`medical_license_number`);
+alter table `patients` add constraint `UK_PATIENTS_USER_ID` unique (`user_id`);
+alter table `patients` add constraint `UK_PATIENTS_SSN` unique (`ssn`);
+
+alter table `doctors` add constraint `FK_DOCTORS_USER_ID` foreign key (`user_id`) references `users` (`id`);
+alter table `patients` add constraint `FK_PATIENTS_USER_ID` foreign key (`user_id`) references `users` (`id`);
+alter table `appointments` add constraint `FK_APPOINTMENTS_DOCTOR_ID` foreign key (`doctor_id`) references `doctors` (`id`);
+alter table `appointments` add constraint `FK_APPOINTMENTS_PATIENT_ID` foreign key (`patient_id`) references `patients` (`id`);
@@ -0,0 +1,4 @@
+create index `IDX_APPOINTMENTS_DOCTOR_DATE_STATUS` on `appointments` (`doctor_id`, `date`, `status`);
+create index `IDX_APPOINTMENTS_PATIENT_DATE` on `appointments` (`patient_id`, `date`);
+create index `IDX_DOCTORS_SPECIALITY` on `doctors` (`speciality`);
+create index `IDX_DOCTORS_LASTNAME` on `doctors` (`lastname`);
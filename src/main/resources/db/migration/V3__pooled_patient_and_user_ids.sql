@@ -0,0 +1,13 @@
+-- Patients and users take their ids from pooled generators, so that bulk imports can batch their inserts.
+-- MySQL has no sequences, so each generator is a single-row table holding the next free id.
+create table `patients_seq` (
+    `next_val` bigint
+) engine=InnoDB;
+
+insert into `patients_seq` select coalesce(max(`id`), 0) + 1 from `patients`;
+
+create table `users_seq` (
+    `next_val` bigint
+) engine=InnoDB;
+
+insert into `users_seq` select coalesce(max(`id`), 0) + 1 from `users`;
@@ -0,0 +1,19 @@
+-- Patients waiting for a slot of a doctor on a given day; a cancelled slot is booked for the longest waiting patient.
+create table `waitlist_entries` (
+    `id` bigint not null auto_increment,
+    `doctor_id` bigint not null,
+    `patient_id` bigint not null,
+    `day` date not null,
+    `requested_at` datetime(6) not null,
+    `status` enum ('WAITING','BOOKED') not null,
+    `appointment_id` bigint,
+    primary key (`id`)
+) engine=InnoDB;
+
+create index `IDX_WAITLIST_ENTRIES_STATUS_DAY` on `waitlist_entries` (`status`, `day`);
+create index `IDX_WAITLIST_ENTRIES_DOCTOR_PATIENT_DAY` on `waitlist_entries` (`doctor_id`, `patient_id`, `day`);
+
+alter table `waitlist_entries` add constraint `UK_WAITLIST_ENTRIES_APPOINTMENT_ID` unique (`appointment_id`);
+alter table `waitlist_entries` add constraint `FK_WAITLIST_ENTRIES_DOCTOR_ID` foreign key (`doctor_id`) references `doctors` (`id`) on delete cascade;
+alter table `waitlist_entries` add constraint `FK_WAITLIST_ENTRIES_PATIENT_ID` foreign key (`patient_id`) references `patients` (`id`) on delete cascade;
+alter table `waitlist_entries` add constraint `FK_WAITLIST_ENTRIES_APPOINTMENT_ID` foreign key (`appointment_id`) references `appointments` (`id`) on delete set null;
@@ -0,0 +1,6 @@
+-- Appointments take their ids from a pooled generator, so that the appointments of a recurring series are inserted in one batch.
+create table `appointments_seq` (
+    `next_val` bigint
+) engine=InnoDB;
+
+insert into `appointments_seq` select coalesce(max(`id`), 0) + 1 from `appointments`;
@@ -0,0 +1,29 @@
+-- Per-doctor working schedules: slot length, weekly hours and days off or with different hours.
+create table `doctor_schedules` (
+    `id` bigint not null auto_increment,
+    `doctor_id` bigint not null,
+    `slot_minutes` integer not null,
+    primary key (`id`)
+) engine=InnoDB;
+
+create table `doctor_working_hours` (
+    `schedule_id` bigint not null,
+    `day_of_week` enum ('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY') not null,
+    `start_time` time not null,
+    `end_time` time not null
+) engine=InnoDB;
+
+create table `doctor_schedule_exceptions` (
+    `schedule_id` bigint not null,
+    `day` date not null,
+    `start_time` time,
+    `end_time` time
+) engine=InnoDB;
+
+alter table `doctor_schedules` add constraint `UK_DOCTOR_SCHEDULES_DOCTOR_ID` unique (`doctor_id`);
+alter table `doctor_schedules` add constraint `FK_DOCTOR_SCHEDULES_DOCTOR_ID` foreign key (`doctor_id`) references `doctors` (`id`) on delete cascade;
+alter table `doctor_working_hours` add constraint `FK_DOCTOR_WORKING_HOURS_SCHEDULE_ID` foreign key (`schedule_id`) references `doctor_schedules` (`id`) on delete cascade;
+alter table `doctor_schedule_exceptions` add constraint `FK_DOCTOR_SCHEDULE_EXCEPTIONS_SCHEDULE_ID` foreign key (`schedule_id`) references `doctor_schedules` (`id`) on delete cascade;
+
+-- Existing appointments were booked on the hourly grid
+alter table `appointments` add column `duration_minutes` integer not null default 60;
@@ -0,0 +1,17 @@
+-- Notifications written together with the appointment changes they report and delivered in the background.
+create table `outbox_messages` (
+    `id` bigint not null auto_increment,
+    `appointment_id` bigint,
+    `recipient` varchar(255) not null,
+    `subject` varchar(255) not null,
+    `body` varchar(2000) not null,
+    `status` enum ('PENDING','SENT','FAILED') not null,
+    `attempts` integer not null,
+    `created_at` datetime(6) not null,
+    `next_attempt_at` datetime(6) not null,
+    `sent_at` datetime(6),
+    `last_error` varchar(500),
+    primary key (`id`)
+) engine=InnoDB;
+
+create index `IDX_OUTBOX_MESSAGES_STATUS_NEXT_ATTEMPT_AT` on `outbox_messages` (`status`, `next_attempt_at`);
@@ -0,0 +1,4 @@
+-- Version columns for the optimistic locking of appointments and profiles, so concurrent edits no longer overwrite each other.
+alter table `appointments` add column `version` bigint not null default 0;
+alter table `doctors` add column `version` bigint not null default 0;
+alter table `patients` add column `version` bigint not null default 0;
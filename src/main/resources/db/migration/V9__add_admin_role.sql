@@ -0,0 +1,2 @@
+-- Administrators, the only users allowed to read the actuator metrics.
+alter table `users` modify column `role` enum ('ADMIN','DOCTOR','PATIENT') not null;
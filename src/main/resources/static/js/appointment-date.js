@@ -3,6 +3,7 @@ document.addEventListener('DOMContentLoaded', function () {
     const monthSelect = document.getElementById('month');
     const daySelect = document.getElementById('day');
     const hourSelect = document.getElementById('hour');
+    const minuteSelect = document.getElementById('minute');
 
     const currentDate = new Date();
     const currentYear = currentDate.getFullYear();
@@ -28,6 +29,12 @@ document.addEventListener('DOMContentLoaded', function () {
         hourSelect.appendChild(new Option(`${hour}:00`, hour));
     }
 
+    // Populate minute dropdown with the slot starts within an hour, for the slot length of the doctor
+    const slotMinutes = parseInt(minuteSelect.dataset.slotMinutes) || 60;
+    for (let minute = 0; minute < 60; minute += slotMinutes) {
+        minuteSelect.appendChild(new Option(String(minute).padStart(2, '0'), minute));
+    }
+
     // Update the days dropdown based on selected year and month
     function updateDays() {
         const selectedYear = parseInt(yearSelect.value);
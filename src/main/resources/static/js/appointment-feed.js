@@ -0,0 +1,65 @@
+document.addEventListener('DOMContentLoaded', function () {
+    const feed = document.getElementById('appointment-feed');
+    const message = document.getElementById('appointment-feed-message');
+    const list = document.getElementById('appointment-list');
+    const template = document.getElementById('appointment-row');
+    if (!feed || !window.EventSource) return;
+
+    // The server pushes the changes of the doctor's appointments, so the rows are patched instead of polled
+    const events = new EventSource(feed.dataset.url);
+    let opened = false;
+
+    // Events sent while the connection was down are lost; the browser reconnects on its own, but the list may be stale
+    events.addEventListener('open', function () {
+        if (opened) message.hidden = false;
+        opened = true;
+    });
+
+    events.addEventListener('appointment-created', function (event) {
+        const appointment = JSON.parse(event.data);
+        if (!list) {
+            message.hidden = false;
+            return;
+        }
+        insert(appointment);
+    });
+
+    events.addEventListener('appointment-status-changed', function (event) {
+        const appointment = JSON.parse(event.data);
+        const item = list && AppointmentRows.find(list, appointment.id);
+        if (item) AppointmentRows.setStatus(item, appointment.status);
+    });
+
+    function insert(appointment) {
+        const time = appointment.appointmentTime.slice(0, 16);
+        if (AppointmentRows.find(list, appointment.id) || !onThisPage(time)) return;
+
+        const item = template.content.firstElementChild.cloneNode(true);
+        item.dataset.id = appointment.id;
+        item.dataset.time = time;
+        item.querySelector('.appointment-select').value = appointment.id;
+        item.querySelector('.patient-firstname').textContent = appointment.patientInfo.firstname;
+        item.querySelector('.patient-lastname').textContent = appointment.patientInfo.lastname;
+        item.querySelector('.appointment-time').textContent = time;
+        item.querySelector('input[name="id"]').value = appointment.id;
+        AppointmentRows.setStatus(item, appointment.status);
+
+        // The rows are in the order of the pages, by date and time and then by ID
+        const next = Array.from(list.children).find(row => {
+            const rowTime = row.dataset.time.slice(0, 16);
+            return rowTime > time || (rowTime === time && Number(row.dataset.id) > appointment.id);
+        });
+        list.insertBefore(item, next || null);
+    }
+
+    // An appointment outside the date window, or belonging to an earlier or a later page, is not shown
+    function onThisPage(time) {
+        const page = list.dataset;
+        const day = time.slice(0, 10);
+        if (page.from && day < page.from) return false;
+        if (page.to && day > page.to) return false;
+        if (page.afterTime && time <= page.afterTime.slice(0, 16)) return false;
+        const last = list.lastElementChild;
+        return !(page.hasNext === 'true' && last && time > last.dataset.time.slice(0, 16));
+    }
+});
@@ -0,0 +1,39 @@
+/**
+ * Updates the appointment rows of the doctor dashboard in place, for the bulk status toolbar and the live feed.
+ */
+const AppointmentRows = (function () {
+    const BADGE_CLASSES = {PENDING: 'badge-pending', CONFIRMED: 'badge-confirmed', CANCELLED: 'badge-cancelled'};
+    // The transitions of AppointmentStatus, to refresh the status menus of the updated rows
+    const NEXT_STATUSES = {PENDING: ['CONFIRMED', 'CANCELLED'], CONFIRMED: ['CANCELLED'], CANCELLED: []};
+
+    function find(list, id) {
+        return list.querySelector('li[data-id="' + id + '"]');
+    }
+
+    function setStatus(item, status) {
+        const badge = item.querySelector('.badge');
+        badge.textContent = status;
+        badge.dataset.status = status;
+        Object.values(BADGE_CLASSES).forEach(name => badge.classList.remove(name));
+        badge.classList.add(BADGE_CLASSES[status]);
+
+        const next = NEXT_STATUSES[status];
+        const box = item.querySelector('.appointment-select');
+        box.disabled = next.length === 0;
+        if (box.disabled) box.checked = false;
+        const form = item.querySelector('.status-form');
+        if (form && next.length === 0) {
+            form.remove();
+        } else if (form) {
+            const select = form.querySelector('select');
+            select.innerHTML = '';
+            [status].concat(next).forEach(value => select.appendChild(new Option(label(value), value)));
+        }
+    }
+
+    function label(status) {
+        return status.charAt(0) + status.slice(1).toLowerCase();
+    }
+
+    return {find: find, setStatus: setStatus};
+})();
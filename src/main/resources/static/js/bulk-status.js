@@ -0,0 +1,53 @@
+document.addEventListener('DOMContentLoaded', function () {
+    const toolbar = document.getElementById('bulk-status');
+    const list = document.getElementById('appointment-list');
+    const message = document.getElementById('bulk-status-message');
+    if (!toolbar || !list) return;
+
+    // One request for the whole selection; the rows are updated in place instead of reloading the dashboard
+    toolbar.querySelectorAll('button[data-status]').forEach(function (button) {
+        button.addEventListener('click', function () {
+            const ids = Array.from(list.querySelectorAll('.appointment-select:checked')).map(box => Number(box.value));
+            if (ids.length === 0) {
+                message.textContent = 'Select the appointments to update first.';
+                return;
+            }
+
+            setBusy(true);
+            fetch(toolbar.dataset.url, {
+                method: 'POST',
+                headers: {'Content-Type': 'application/json', 'Accept': 'application/json'},
+                body: JSON.stringify({ids: ids, status: button.dataset.status})
+            })
+                .then(response => {
+                    if (response.ok) return response.json();
+                    // A rejected request says why in the detail of its problem
+                    return response.json()
+                        .catch(() => ({}))
+                        .then(problem => Promise.reject(problem));
+                })
+                .then(render)
+                .catch(problem => message.textContent = (problem && problem.detail) || 'The appointments could not be updated, please try again.')
+                .finally(() => setBusy(false));
+        });
+    });
+
+    function render(results) {
+        let updated = 0;
+        let skipped = 0;
+        results.forEach(result => {
+            if (result.outcome === 'UPDATED') updated++;
+            else if (result.outcome !== 'UNCHANGED') skipped++;
+
+            const item = AppointmentRows.find(list, result.id);
+            if (!item || !result.status) return;
+            item.querySelector('.appointment-select').checked = false;
+            AppointmentRows.setStatus(item, result.status);
+        });
+        message.textContent = updated + ' updated' + (skipped > 0 ? ', ' + skipped + ' could not be changed to that status' : '') + '.';
+    }
+
+    function setBusy(busy) {
+        toolbar.querySelectorAll('button').forEach(button => button.disabled = busy);
+    }
+});
@@ -0,0 +1,61 @@
+document.addEventListener('DOMContentLoaded', function () {
+    const input = document.getElementById('doctorQuery');
+    const results = document.getElementById('doctorSuggestions');
+    if (!input || !results) return;
+
+    const DEBOUNCE_MS = 250;
+    const MIN_LENGTH = 2;
+    let timer = null;
+    let pending = null;
+
+    // Search only once the patient pauses typing, and drop the answer of a query that has been typed over
+    input.addEventListener('input', function () {
+        clearTimeout(timer);
+        timer = setTimeout(search, DEBOUNCE_MS);
+    });
+
+    function search() {
+        const query = input.value.trim();
+        if (pending) pending.abort();
+        if (query.length < MIN_LENGTH) {
+            results.innerHTML = '';
+            return;
+        }
+
+        pending = new AbortController();
+        fetch(input.dataset.url + '?q=' + encodeURIComponent(query), {
+            signal: pending.signal,
+            headers: {'Accept': 'application/json'}
+        })
+            .then(response => response.ok ? response.json() : [])
+            .then(render)
+            .catch(error => {
+                if (error.name !== 'AbortError') results.innerHTML = '';
+            });
+    }
+
+    function render(doctors) {
+        results.innerHTML = '';
+        if (doctors.length === 0) {
+            const empty = document.createElement('div');
+            empty.className = 'list-group-item text-muted';
+            empty.textContent = 'No doctors found.';
+            results.appendChild(empty);
+            return;
+        }
+        doctors.forEach(doctor => {
+            const item = document.createElement('a');
+            item.className = 'list-group-item list-group-item-action d-flex w-100 justify-content-between';
+            item.href = input.dataset.bookUrl + '?doctorId=' + encodeURIComponent(doctor.id);
+
+            const name = document.createElement('span');
+            name.textContent = doctor.firstname + ' ' + doctor.lastname;
+            const speciality = document.createElement('small');
+            speciality.textContent = doctor.speciality;
+
+            item.appendChild(name);
+            item.appendChild(speciality);
+            results.appendChild(item);
+        });
+    }
+});
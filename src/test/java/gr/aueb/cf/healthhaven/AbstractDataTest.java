@@ -0,0 +1,67 @@
+package gr.aueb.cf.healthhaven;
+
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import gr.aueb.cf.healthhaven.repository.DoctorScheduleRepository;
+import gr.aueb.cf.healthhaven.repository.OutboxMessageRepository;
+import gr.aueb.cf.healthhaven.repository.PatientRepository;
+import gr.aueb.cf.healthhaven.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Base of the tests that run against the H2 database. The code under test runs its own transactions, so the tests
+ * do not run in one: every test starts with one doctor and one patient saved and ends with every table emptied.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class AbstractDataTest {
+
+    @Autowired
+    protected DoctorRepository doctorRepository;
+
+    @Autowired
+    protected PatientRepository patientRepository;
+
+    @Autowired
+    protected AppointmentRepository appointmentRepository;
+
+    @Autowired
+    protected DoctorScheduleRepository doctorScheduleRepository;
+
+    @Autowired
+    protected WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    protected OutboxMessageRepository outboxMessageRepository;
+
+    protected Doctor doctor;
+    protected Patient patient;
+
+    @BeforeEach
+    void saveDoctorAndPatient() {
+        doctor = doctorRepository.save(new Doctor("Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567"));
+        patient = patientRepository.save(new Patient("Maria", "Georgiou", "100000001", "maria@mail.gr", "6900000000"));
+    }
+
+    @AfterEach
+    void deleteAll() {
+        outboxMessageRepository.deleteAll();
+        waitlistEntryRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        doctorScheduleRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+}
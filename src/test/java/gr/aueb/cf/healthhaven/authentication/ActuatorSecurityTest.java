@@ -0,0 +1,43 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "healthhaven.security.bcrypt-strength=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(authorities = "PATIENT")
+    void patientsCannotReadTheMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        // The health check is reachable, whatever it reports about the mail server of the test context
+        mockMvc.perform(get("/actuator/health")).andExpect(status().is(not(403)));
+    }
+
+    @Test
+    @WithMockUser(authorities = "DOCTOR")
+    void doctorsCannotReadTheMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void adminsReadTheMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,53 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import gr.aueb.cf.healthhaven.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private static final String USERNAME = "patient1";
+    private static final String PASSWORD = "Secret123!";
+
+    private final PasswordEncoder passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private CachingAuthenticationProvider authProvider;
+
+    @BeforeEach
+    void setUp() {
+        AuthenticatedUser user = new AuthenticatedUser(1L, USERNAME, passwordEncoder.encode(PASSWORD), Role.PATIENT, null, 1L);
+        when(userDetailsService.loadUserByUsername(USERNAME)).thenAnswer(invocation -> user.copy());
+
+        authProvider = new CachingAuthenticationProvider(new AuthenticationCache(Duration.ofMinutes(5)));
+        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
+    }
+
+    @Test
+    void repeatedLoginSkipsUserLookupAndHashVerification() {
+        assertTrue(authProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD)).isAuthenticated());
+        assertTrue(authProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD)).isAuthenticated());
+
+        verify(userDetailsService, times(1)).loadUserByUsername(USERNAME);
+        verify(passwordEncoder, times(1)).matches(any(), any());
+    }
+
+    @Test
+    void wrongPasswordIsRejectedAfterCachedLogin() {
+        authProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD));
+
+        assertThrows(BadCredentialsException.class,
+                () -> authProvider.authenticate(new UsernamePasswordAuthenticationToken(USERNAME, "wrong")));
+    }
+}
@@ -0,0 +1,51 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "healthhaven.security.bcrypt-strength=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class PatientImportSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(authorities = "DOCTOR")
+    void doctorsCannotImportPatients() throws Exception {
+        mockMvc.perform(importNobody()).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "PATIENT")
+    void patientsCannotImportPatients() throws Exception {
+        mockMvc.perform(importNobody()).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void adminsImportPatients() throws Exception {
+        mockMvc.perform(importNobody())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0));
+    }
+
+    private static MockHttpServletRequestBuilder importNobody() {
+        return post("/patients/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("[]");
+    }
+}
@@ -0,0 +1,86 @@
+package gr.aueb.cf.healthhaven.authentication;
+
+import gr.aueb.cf.healthhaven.model.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "healthhaven.security.bcrypt-strength=4")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class SessionExpiryTest {
+
+    private static final String TYPEAHEAD = "/patients/dashboard/doctors";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private AuthenticatedUserSessions userSessions;
+
+    private final MockHttpSession maria = new MockHttpSession(null, "maria-session");
+    private final MockHttpSession eleni = new MockHttpSession(null, "eleni-session");
+
+    @AfterEach
+    void tearDown() {
+        sessionRegistry.removeSessionInformation(maria.getId());
+        sessionRegistry.removeSessionInformation(eleni.getId());
+    }
+
+    @Test
+    void anonymousRequestsAreSentToTheLogin() throws Exception {
+        mockMvc.perform(get(TYPEAHEAD).param("q", "papa").accept(MediaType.TEXT_HTML))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+
+    @Test
+    void expiredSessionsAreRejectedAndOtherUsersKeepTheirs() throws Exception {
+        logIn(maria, new AuthenticatedUser(1L, "maria", "", Role.PATIENT, null, 10L));
+        logIn(eleni, new AuthenticatedUser(2L, "eleni", "", Role.PATIENT, null, 11L));
+        mockMvc.perform(get(TYPEAHEAD).param("q", "papa").session(maria))
+                .andExpect(status().isOk());
+
+        userSessions.expireSessionsOf("maria");
+
+        mockMvc.perform(get(TYPEAHEAD).param("q", "papa").session(maria))
+                .andExpect(content().string(containsString("This session has been expired")));
+        mockMvc.perform(get(TYPEAHEAD).param("q", "papa").session(eleni))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void aSessionLoggedOutOfIsInvalidated() throws Exception {
+        logIn(maria, new AuthenticatedUser(1L, "maria", "", Role.PATIENT, null, 10L));
+
+        mockMvc.perform(post("/logout").session(maria).accept(MediaType.TEXT_HTML))
+                .andExpect(redirectedUrl("/login"));
+
+        assertTrue(maria.isInvalid());
+    }
+
+    private void logIn(MockHttpSession session, AuthenticatedUser user) {
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+        sessionRegistry.registerNewSession(session.getId(), user);
+    }
+}
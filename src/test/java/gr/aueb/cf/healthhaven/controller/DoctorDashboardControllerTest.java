@@ -0,0 +1,153 @@
+package gr.aueb.cf.healthhaven.controller;
+
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusResultDTO;
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.model.StatusUpdateOutcome;
+import gr.aueb.cf.healthhaven.service.AppointmentEventBus;
+import gr.aueb.cf.healthhaven.service.IAppointmentExportService;
+import gr.aueb.cf.healthhaven.service.IAppointmentService;
+import gr.aueb.cf.healthhaven.service.IDoctorService;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DoctorDashboardController.class)
+@WithMockUser(authorities = "DOCTOR")
+class DoctorDashboardControllerTest {
+
+    private static final Long DOCTOR_ID = 7L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IDoctorService doctorService;
+
+    @MockBean
+    private IAppointmentService appointmentService;
+
+    @MockBean
+    private IAppointmentExportService appointmentExportService;
+
+    @MockBean
+    private AppointmentEventBus appointmentEventBus;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(doctorService.getCurrentDoctorId()).thenReturn(DOCTOR_ID);
+    }
+
+    @Test
+    void statusesOfTheDoctorsAppointmentsAreChangedAtOnce() throws Exception {
+        when(appointmentService.updateAppointmentStatuses(DOCTOR_ID, List.of(1L, 2L), AppointmentStatus.CONFIRMED)).thenReturn(List.of(
+                new AppointmentStatusResultDTO(1L, StatusUpdateOutcome.UPDATED, AppointmentStatus.CONFIRMED),
+                new AppointmentStatusResultDTO(2L, StatusUpdateOutcome.INVALID_TRANSITION, AppointmentStatus.CANCELLED)));
+
+        mockMvc.perform(changeStatuses("{\"ids\":[1,2],\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].outcome").value("INVALID_TRANSITION"))
+                .andExpect(jsonPath("$[1].status").value("CANCELLED"));
+    }
+
+    @Test
+    void aRejectedRequestSaysWhy() throws Exception {
+        when(appointmentService.updateAppointmentStatuses(eq(DOCTOR_ID), anyList(), any()))
+                .thenThrow(new InvalidAppointmentException("A status can be set on 1 to 100 appointments at once."));
+
+        mockMvc.perform(changeStatuses("{\"ids\":[],\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("A status can be set on 1 to 100 appointments at once."));
+    }
+
+    @Test
+    void appointmentsThatKeepChangingAreAConflict() throws Exception {
+        when(appointmentService.updateAppointmentStatuses(eq(DOCTOR_ID), anyList(), any()))
+                .thenThrow(new OptimisticLockingFailureException("changed"));
+
+        mockMvc.perform(changeStatuses("{\"ids\":[1],\"status\":\"CANCELLED\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail").value("The appointments were changed meanwhile, please try again."));
+    }
+
+    @Test
+    void theDashboardOpensOnTheUpcomingAppointments() throws Exception {
+        when(appointmentService.getAppointmentPageByDoctorId(eq(DOCTOR_ID), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AppointmentPageDTO(List.of(), false, null, null));
+
+        mockMvc.perform(get("/doctors/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("from", LocalDate.now()));
+        verify(appointmentService).getAppointmentPageByDoctorId(eq(DOCTOR_ID), eq(LocalDate.now().atStartOfDay()), isNull(), isNull(), isNull(), anyInt());
+
+        // The whole history is listed only when asked for
+        mockMvc.perform(get("/doctors/dashboard").param("all", "true"))
+                .andExpect(status().isOk());
+        verify(appointmentService).getAppointmentPageByDoctorId(eq(DOCTOR_ID), isNull(), isNull(), isNull(), isNull(), anyInt());
+    }
+
+    @Test
+    void aSingleStatusIsChangedOnlyOnTheDoctorsOwnAppointment() throws Exception {
+        when(appointmentService.updateAppointmentStatuses(DOCTOR_ID, List.of(5L), AppointmentStatus.CANCELLED))
+                .thenReturn(List.of(new AppointmentStatusResultDTO(5L, StatusUpdateOutcome.UPDATED, AppointmentStatus.CANCELLED)));
+        when(appointmentService.updateAppointmentStatuses(DOCTOR_ID, List.of(6L), AppointmentStatus.CANCELLED))
+                .thenReturn(List.of(new AppointmentStatusResultDTO(6L, StatusUpdateOutcome.NOT_FOUND, null)));
+
+        mockMvc.perform(changeStatus(5L, "CANCELLED"))
+                .andExpect(redirectedUrl("/doctors/dashboard"))
+                .andExpect(flash().attributeCount(0));
+        // Another doctor's appointment is not found for this doctor
+        mockMvc.perform(changeStatus(6L, "CANCELLED"))
+                .andExpect(view().name("error"));
+
+        verify(appointmentService, never()).updateAppointmentStatus(any(), any());
+    }
+
+    @Test
+    void aStatusThatCannotFollowIsReportedOnTheDashboard() throws Exception {
+        when(appointmentService.updateAppointmentStatuses(DOCTOR_ID, List.of(5L), AppointmentStatus.CONFIRMED))
+                .thenReturn(List.of(new AppointmentStatusResultDTO(5L, StatusUpdateOutcome.INVALID_TRANSITION, AppointmentStatus.CANCELLED)));
+
+        mockMvc.perform(changeStatus(5L, "CONFIRMED"))
+                .andExpect(redirectedUrl("/doctors/dashboard"))
+                .andExpect(flash().attribute("error", "A cancelled appointment cannot be confirmed."));
+    }
+
+    private static MockHttpServletRequestBuilder changeStatus(Long id, String status) {
+        return post("/doctors/appointments/changeStatus").with(csrf())
+                .param("id", id.toString())
+                .param("status", status);
+    }
+
+    private static MockHttpServletRequestBuilder changeStatuses(String body) {
+        return post("/doctors/appointments/statuses").with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
@@ -0,0 +1,103 @@
+package gr.aueb.cf.healthhaven.controller;
+
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.service.IAppointmentService;
+import gr.aueb.cf.healthhaven.service.IDoctorService;
+import gr.aueb.cf.healthhaven.service.IPatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PatientDashboardController.class)
+@WithMockUser(authorities = "PATIENT")
+class PatientDashboardControllerTest {
+
+    private static final String VERSION = "8f14e45f-ceea-467f-a5d5-2d5c7b5e0a51-3";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IDoctorService doctorService;
+
+    @MockBean
+    private IAppointmentService appointmentService;
+
+    @MockBean
+    private IPatientService patientService;
+
+    @BeforeEach
+    void setUp() {
+        when(doctorService.getSearchVersion()).thenReturn(VERSION);
+        when(doctorService.searchDoctors(anyString(), anyInt(), anyInt())).thenReturn(List.of(
+                new DoctorReadOnlyDTO(1L, "Nikos", "Papadopoulos", Speciality.CARDIOLOGY)));
+    }
+
+    @Test
+    void typeaheadReturnsTheMatchingDoctorsWithTheSearchVersionAsETag() throws Exception {
+        mockMvc.perform(get("/patients/dashboard/doctors").param("q", "papa").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + VERSION + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, private"))
+                .andExpect(jsonPath("$[0].lastname").value("Papadopoulos"));
+
+        // The size is capped
+        verify(doctorService).searchDoctors("papa", 0, 20);
+    }
+
+    @Test
+    void typeaheadIsNotModifiedWhileTheSearchVersionIsCurrent() throws Exception {
+        mockMvc.perform(get("/patients/dashboard/doctors").param("q", "papa")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + VERSION + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(doctorService, never()).searchDoctors(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void typeaheadSearchesAgainOnceTheSearchVersionHasChanged() throws Exception {
+        // The tag of a previous boot, or of another instance, with the same version number
+        mockMvc.perform(get("/patients/dashboard/doctors").param("q", "papa")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"c9f0f895-fb98-4b9e-9f2d-7a3c1b2e6d10-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + VERSION + "\""));
+
+        verify(doctorService).searchDoctors("papa", 0, 8);
+    }
+
+    @Test
+    void appointmentsOpenOnTheUpcomingOnes() throws Exception {
+        when(appointmentService.getAppointmentPageByPatient(any(), any(), any(), any(), anyInt()))
+                .thenReturn(new AppointmentPageDTO(List.of(), false, null, null));
+
+        mockMvc.perform(get("/patients/appointments"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("from", LocalDate.now()));
+        verify(appointmentService).getAppointmentPageByPatient(eq(LocalDate.now().atStartOfDay()), isNull(), isNull(), isNull(), anyInt());
+
+        // The whole history is listed only when asked for
+        mockMvc.perform(get("/patients/appointments").param("all", "true"))
+                .andExpect(status().isOk());
+        verify(appointmentService).getAppointmentPageByPatient(isNull(), isNull(), isNull(), isNull(), anyInt());
+    }
+}
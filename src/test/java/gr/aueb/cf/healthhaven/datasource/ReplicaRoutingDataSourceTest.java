@@ -0,0 +1,151 @@
+package gr.aueb.cf.healthhaven.datasource;
+
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import gr.aueb.cf.healthhaven.repository.PatientRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes the repositories of the application through JPA over two embedded databases, the replica holding
+ * older copies of the rows, so that every read shows which of the two served it.
+ */
+@DataJpaTest(properties = "healthhaven.datasource.replica.url=jdbc:h2:mem:replicadb;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(ReplicaDataSourceConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(replicaDataSource).locations("classpath:db/migration").load().migrate();
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        patient = patientRepository.save(new Patient("Maria", "Georgiou", "100000001", "maria@mail.gr", "6900000000"));
+        replica.update("insert into patients (id, email, firstname, lastname, phone_number, ssn, version) values (?, ?, ?, ?, ?, ?, 0)",
+                patient.getId(), "maria@mail.gr", "Maria", "Georgiou", "6900000000", "100000001");
+        primary.update("update patients set phone_number = ? where id = ?", "6900000001", patient.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        replica.update("delete from patients");
+        replica.update("delete from doctors");
+    }
+
+    @Test
+    void requestsDoNotHoldAPersistenceContextAcrossTransactions() {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+        assertFalse(environment.getProperty("spring.jpa.open-in-view", Boolean.class, true));
+    }
+
+    @Test
+    void aWriteAfterAReplicaReadGoesToThePrimary() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Patient read = patientRepository.findById(patient.getId()).orElseThrow();
+        assertEquals("6900000000", read.getPhoneNumber());
+
+        read.setPhoneNumber("6900000002");
+        patientRepository.save(read);
+
+        assertEquals("6900000002", phoneNumber(primary));
+        assertEquals("6900000000", phoneNumber(replica));
+    }
+
+    @Test
+    void readsFollowTheWritesOfTheSameSession() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("6900000000", patientRepository.findById(patient.getId()).orElseThrow().getPhoneNumber());
+
+        patientRepository.save(new Patient("Eleni", "Nikolaou", "100000002", "eleni@mail.gr", "6900000003"));
+        assertEquals("6900000001", patientRepository.findById(patient.getId()).orElseThrow().getPhoneNumber());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("6900000000", patientRepository.findById(patient.getId()).orElseThrow().getPhoneNumber());
+    }
+
+    @Test
+    void doctorsAreReadFromThePrimary() {
+        Doctor doctor = doctorRepository.save(new Doctor("Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567"));
+        replica.update("insert into doctors (id, firstname, lastname, medical_license_number, speciality, version) values (?, ?, ?, ?, ?, 0)",
+                doctor.getId(), "Nikolaos", "Papadopoulos", "1234567", Speciality.CARDIOLOGY.name());
+        entityManagerFactory.getCache().evictAll();
+
+        assertEquals("Nikos", doctorRepository.findById(doctor.getId()).orElseThrow().getFirstname());
+        assertEquals("Nikos", doctorRepository.findDoctorBySpeciality(Speciality.CARDIOLOGY).get(0).getFirstname());
+    }
+
+    @Test
+    void readsInTransactionsThatDidNotWriteLeaveTheSessionOnTheReplica() {
+        Doctor doctor = doctorRepository.save(new Doctor("Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567"));
+        entityManagerFactory.getCache().evictAll();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // The doctor finders run in read-write transactions but only read
+        doctorRepository.findById(doctor.getId()).orElseThrow();
+        doctorRepository.findDoctorBySpeciality(Speciality.CARDIOLOGY);
+
+        assertEquals("6900000000", patientRepository.findById(patient.getId()).orElseThrow().getPhoneNumber());
+    }
+
+    private String phoneNumber(JdbcTemplate database) {
+        return database.queryForObject("select phone_number from patients where id = ?", String.class, patient.getId());
+    }
+}
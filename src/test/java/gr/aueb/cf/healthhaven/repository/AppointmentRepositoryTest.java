@@ -0,0 +1,79 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AppointmentRepositoryTest extends AbstractDataTest {
+
+    private static final int APPOINTMENTS = 30;
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2030, 1, 1, 9, 0);
+    private static final LocalDateTime NO_END = LocalDateTime.of(9999, 12, 31, 23, 59);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Patient patient = new Patient("Maria", "Georgiou", String.format("%09d", i), "maria" + i + "@mail.gr", "6900000000");
+            patient.addUser(User.getNewUserWithPatientRole("maria" + i, "secret"));
+            patientRepository.save(patient);
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDateTime(FIRST_DAY.plusDays(i));
+            appointmentRepository.save(appointment);
+        }
+    }
+
+    @Test
+    void doctorDashboardPageIsReadWithOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<AppointmentReadOnlyDTO> appointments = appointmentRepository.findReadOnlyDTOsByDoctorIdAfter(
+                doctor.getId(), FIRST_DAY, 0L, NO_END, PageRequest.of(0, APPOINTMENTS));
+
+        assertEquals(APPOINTMENTS, appointments.size());
+        assertEquals("Maria", appointments.get(0).getPatientInfo().getFirstname());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void keysetPagesCoverTheWindowWithoutOverlap() {
+        List<Long> seen = new ArrayList<>();
+        LocalDateTime afterTime = FIRST_DAY.plusDays(5);
+        Long afterId = 0L;
+        LocalDateTime beforeTime = FIRST_DAY.plusDays(25);
+
+        List<AppointmentReadOnlyDTO> page;
+        do {
+            page = appointmentRepository.findReadOnlyDTOsByDoctorIdAfter(doctor.getId(), afterTime, afterId, beforeTime, PageRequest.of(0, 7));
+            for (AppointmentReadOnlyDTO appointment : page) {
+                seen.add(appointment.getId());
+                afterTime = appointment.getAppointmentTime();
+                afterId = appointment.getId();
+            }
+        } while (page.size() == 7);
+
+        assertEquals(20, seen.size());
+        assertEquals(20, seen.stream().distinct().count());
+    }
+}
@@ -0,0 +1,81 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs every repository call in its own session, as the services do, so that only the
+ * second-level and query caches can spare the SQL of a repeated search.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DoctorRepositoryCacheTest {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository.save(doctor("Nikos", "Papadopoulos", "7000001"));
+        doctorRepository.save(doctor("Eleni", "Papadaki", "7000002"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedSpecialitySearchIssuesNoSql() {
+        doctorRepository.findDoctorBySpeciality(Speciality.CARDIOLOGY);
+        statistics.clear();
+
+        List<Doctor> doctors = doctorRepository.findDoctorBySpeciality(Speciality.CARDIOLOGY);
+
+        assertEquals(2, doctors.size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void registeringDoctorInvalidatesCachedSearches() {
+        assertEquals(2, doctorRepository.findDoctorBySpeciality(Speciality.CARDIOLOGY).size());
+
+        doctorRepository.save(doctor("Giorgos", "Papadimas", "7000003"));
+        statistics.clear();
+
+        assertEquals(3, doctorRepository.findDoctorBySpeciality(Speciality.CARDIOLOGY).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static Doctor doctor(String firstname, String lastname, String medicalLicenseNumber) {
+        Doctor doctor = new Doctor(firstname, lastname, Speciality.CARDIOLOGY, medicalLicenseNumber);
+        doctor.addUser(User.getNewUserWithDoctorRole(firstname.toLowerCase() + medicalLicenseNumber, "secret"));
+        return doctor;
+    }
+}
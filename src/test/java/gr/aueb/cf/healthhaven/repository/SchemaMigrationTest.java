@@ -0,0 +1,50 @@
+package gr.aueb.cf.healthhaven.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations on an embedded database, lets Hibernate validate the entities against them
+ * and checks that the plans of the hot appointment and doctor queries use the composite indexes.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class SchemaMigrationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void availabilityQueryUsesDoctorDateStatusIndex() {
+        assertPlanUses("SELECT `id` FROM `appointments` WHERE `doctor_id` = 1 AND `date` >= '2030-01-01 09:00:00' " +
+                "AND `date` < '2030-01-02 00:00:00' AND `status` <> 'CANCELLED'", "IDX_APPOINTMENTS_DOCTOR_DATE_STATUS");
+    }
+
+    @Test
+    void patientListingUsesPatientDateIndex() {
+        assertPlanUses("SELECT `id` FROM `appointments` WHERE `patient_id` = 1 AND `date` > '2030-01-01 09:00:00' " +
+                "ORDER BY `date`, `id`", "IDX_APPOINTMENTS_PATIENT_DATE");
+    }
+
+    @Test
+    void specialitySearchUsesSpecialityIndex() {
+        assertPlanUses("SELECT `id` FROM `doctors` WHERE `speciality` = 'CARDIOLOGY'", "IDX_DOCTORS_SPECIALITY");
+    }
+
+    @Test
+    void lastnamePrefixSearchUsesLastnameIndex() {
+        assertPlanUses("SELECT `id` FROM `doctors` WHERE `lastname` LIKE 'Pap%'", "IDX_DOCTORS_LASTNAME");
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+        assertTrue(plan.toUpperCase().contains(index), () -> "Expected " + index + " in plan: " + plan);
+    }
+}
@@ -0,0 +1,214 @@
+package gr.aueb.cf.healthhaven.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentEventBusTest {
+
+    private static final int SENDER_THREADS = 2;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AppointmentEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // The scheduled jobs are run by the tests themselves, the bus is not started
+        bus = new AppointmentEventBus(meterRegistry, 4, SENDER_THREADS, Duration.ofMillis(200), Duration.ofHours(1), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void eventsReachOnlyTheDashboardsOfTheirDoctor() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(null);
+        RecordingEmitter second = new RecordingEmitter(null);
+        RecordingEmitter otherDoctors = new RecordingEmitter(null);
+        bus.subscribe(1L, first);
+        bus.subscribe(1L, second);
+        bus.subscribe(2L, otherDoctors);
+
+        bus.publish(1L, AppointmentEventBus.APPOINTMENT_CREATED, "appointment");
+        bus.publish(3L, AppointmentEventBus.APPOINTMENT_CREATED, "appointment");
+
+        first.await(1);
+        second.await(1);
+        assertTrue(first.events.get(0).contains("event:" + AppointmentEventBus.APPOINTMENT_CREATED));
+        assertTrue(otherDoctors.events.isEmpty());
+        assertEquals(3, bus.subscriberCount());
+    }
+
+    @Test
+    void aDashboardThatFallsBehindIsDisconnectedWithoutHoldingUpTheOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stalled);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        bus.subscribe(1L, slow);
+        bus.subscribe(1L, fast);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            bus.publish(1L, AppointmentEventBus.APPOINTMENT_STATUS_CHANGED, i);
+            fast.await(i + 1);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        assertEquals(1, bus.subscriberCount());
+        assertEquals(1, meterRegistry.get("healthhaven.events.dropped").counter().count());
+
+        stalled.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.events.size() < 20);
+    }
+
+    @Test
+    void dashboardsThatStopReadingDoNotHoldUpTheSenders() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        List<RecordingEmitter> stopped = new ArrayList<>();
+        for (int i = 0; i < SENDER_THREADS; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(stalled);
+            stopped.add(emitter);
+            bus.subscribe(1L, emitter);
+        }
+        RecordingEmitter other = new RecordingEmitter(null);
+        bus.subscribe(2L, other);
+
+        bus.publish(1L, AppointmentEventBus.APPOINTMENT_CREATED, "appointment");
+        for (RecordingEmitter emitter : stopped) {
+            assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        }
+        bus.publish(2L, AppointmentEventBus.APPOINTMENT_CREATED, "appointment");
+        Thread.sleep(300);
+        assertTrue(other.events.isEmpty(), "every sender is blocked by a dashboard that stopped reading");
+
+        bus.closeStalledSends();
+
+        other.await(1);
+        assertEquals(1, bus.subscriberCount());
+        assertEquals(SENDER_THREADS, meterRegistry.get("healthhaven.events.dropped").counter().count());
+        for (RecordingEmitter emitter : stopped) {
+            assertTrue(emitter.failed.await(5, TimeUnit.SECONDS));
+        }
+
+        // The blocked senders have been given back, and the others still get their events
+        bus.publish(2L, AppointmentEventBus.APPOINTMENT_STATUS_CHANGED, "appointment");
+        other.await(2);
+        stalled.countDown();
+    }
+
+    @Test
+    void dashboardsThatHaveGoneAreRemoved() throws Exception {
+        RecordingEmitter gone = new RecordingEmitter(null);
+        gone.failing = true;
+        bus.subscribe(1L, gone);
+
+        bus.heartbeat();
+
+        for (int i = 0; i < 50 && bus.subscriberCount() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, bus.subscriberCount());
+    }
+
+    @Test
+    void aDashboardJoiningWhileTheLastOneOfItsDoctorLeavesGetsItsEvents() throws Exception {
+        for (long doctorId = 1; doctorId <= 200; doctorId++) {
+            RecordingEmitter gone = new RecordingEmitter(null);
+            gone.failing = true;
+            bus.subscribe(doctorId, gone);
+            bus.heartbeat();
+            // Joins while a sender may be removing the doctor's only other dashboard
+            RecordingEmitter reloaded = new RecordingEmitter(null);
+            bus.subscribe(doctorId, reloaded);
+
+            bus.publish(doctorId, AppointmentEventBus.APPOINTMENT_CREATED, "appointment");
+
+            for (int i = 0; i < 250 && reloaded.events.stream().noneMatch(event -> event.contains(AppointmentEventBus.APPOINTMENT_CREATED)); i++) {
+                Thread.sleep(2);
+            }
+            assertTrue(reloaded.events.stream().anyMatch(event -> event.contains(AppointmentEventBus.APPOINTMENT_CREATED)),
+                    "the dashboard of doctor " + doctorId + " missed its event");
+        }
+    }
+
+    @Test
+    void heartbeatsAreSentOnceStarted() throws Exception {
+        AppointmentEventBus started = new AppointmentEventBus(meterRegistry, 4, SENDER_THREADS, Duration.ofMillis(200),
+                Duration.ofMillis(50), Duration.ofMillis(50));
+        try {
+            started.start();
+            RecordingEmitter emitter = new RecordingEmitter(null);
+            started.subscribe(1L, emitter);
+
+            emitter.await(2);
+            assertTrue(emitter.events.get(0).contains("heartbeat"));
+        } finally {
+            started.shutdown();
+        }
+    }
+
+    /**
+     * Records the events sent to it instead of writing them to a response, optionally stalling on the first one
+     * like a client that stopped reading, until the stall ends or the write is interrupted.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private final CountDownLatch stalled;
+        private volatile boolean failing;
+
+        RecordingEmitter(CountDownLatch stalled) {
+            this.stalled = stalled;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) throw new IOException("Broken pipe");
+            if (stalled != null) {
+                sending.countDown();
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    failed.countDown();
+                    throw new IOException("Write aborted");
+                }
+            }
+            StringBuilder event = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                event.append(part.getData());
+            }
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        void await(int count) throws InterruptedException {
+            for (int i = 0; i < 250 && events.size() < count; i++) {
+                Thread.sleep(20);
+            }
+            assertTrue(events.size() >= count, "expected " + count + " events, got " + events.size());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package gr.aueb.cf.healthhaven.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = "healthhaven.export.fetch-size=4")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(AppointmentExportServiceImpl.class)
+class AppointmentExportServiceTest extends AbstractDataTest {
+
+    private static final int APPOINTMENTS = 10;
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired
+    private IAppointmentExportService appointmentExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            Patient patient = new Patient(i == 0 ? "Maria, \"Mary\"" : "Maria", "Georgiou", String.format("%09d", i),
+                    "maria" + i + "@mail.gr", "6900000000");
+            patient.addUser(User.getNewUserWithPatientRole("maria" + i, "secret"));
+            patientRepository.save(patient);
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDateTime(FIRST_DAY.plusDays(APPOINTMENTS - i));
+            appointmentRepository.save(appointment);
+        }
+    }
+
+    @Test
+    void csvExportHasOneLinePerAppointmentOldestFirst() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        appointmentExportService.exportAppointmentsByDoctorId(doctor.getId(), AppointmentExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(APPOINTMENTS + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,appointmentTime,status,"));
+        assertEquals(FIRST_DAY.plusDays(1).toString(), lines[1].split(",")[1]);
+        assertTrue(lines[APPOINTMENTS].contains(",\"Maria, \"\"Mary\"\"\",Georgiou,"));
+    }
+
+    @Test
+    void jsonExportIsAnArrayOfAppointments() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        appointmentExportService.exportAppointmentsByDoctorId(doctor.getId(), AppointmentExportFormat.JSON, out);
+
+        JsonNode appointments = objectMapper.readTree(out.toByteArray());
+        assertEquals(APPOINTMENTS, appointments.size());
+        assertEquals("CARDIOLOGY", appointments.get(0).path("doctorInfo").path("speciality").asText());
+        assertEquals("Georgiou", appointments.get(0).path("patientInfo").path("lastname").asText());
+    }
+}
@@ -0,0 +1,80 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentPageDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentReadOnlyDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@Import(AppointmentServices.class)
+class AppointmentPageTest extends AbstractDataTest {
+
+    private static final LocalDateTime TODAY = LocalDate.now().atTime(9, 0);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Test
+    void upcomingAppointmentsStartTodayAndTheHistoryIsListedWithoutAWindow() throws Exception {
+        Appointment lastYear = appointment(TODAY.minusYears(1));
+        Appointment yesterday = appointment(TODAY.minusDays(1));
+        Appointment later = appointment(TODAY.plusHours(2));
+        Appointment tomorrow = appointment(TODAY.plusDays(1));
+        when(patientService.getCurrentPatientId()).thenReturn(patient.getId());
+
+        // The dashboards open on a window starting today
+        assertEquals(List.of(later.getId(), tomorrow.getId()),
+                ids(appointmentService.getAppointmentPageByDoctorId(doctor.getId(), LocalDate.now().atStartOfDay(), null, null, null, 10)));
+        assertEquals(List.of(later.getId(), tomorrow.getId()),
+                ids(appointmentService.getAppointmentPageByPatient(LocalDate.now().atStartOfDay(), null, null, null, 10)));
+        // and list the whole history, oldest first, only when asked for
+        assertEquals(List.of(lastYear.getId(), yesterday.getId(), later.getId(), tomorrow.getId()),
+                ids(appointmentService.getAppointmentPageByDoctorId(doctor.getId(), null, null, null, null, 10)));
+        assertEquals(List.of(lastYear.getId(), yesterday.getId(), later.getId(), tomorrow.getId()),
+                ids(appointmentService.getAppointmentPageByPatient(null, null, null, null, 10)));
+    }
+
+    @Test
+    void pagesWithoutAWindowWalkTheWholeHistory() {
+        List<Long> booked = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            booked.add(appointment(TODAY.minusDays(10).plusDays(i * 5)).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        AppointmentPageDTO page = appointmentService.getAppointmentPageByDoctorId(doctor.getId(), null, null, null, null, 2);
+        seen.addAll(ids(page));
+        while (page.isHasNext()) {
+            page = appointmentService.getAppointmentPageByDoctorId(doctor.getId(), null, null, page.getNextAfterTime(), page.getNextAfterId(), 2);
+            seen.addAll(ids(page));
+        }
+
+        assertEquals(booked, seen);
+    }
+
+    private Appointment appointment(LocalDateTime dateTime) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(dateTime);
+        return appointmentRepository.save(appointment);
+    }
+
+    private static List<Long> ids(AppointmentPageDTO page) {
+        return page.getAppointments().stream().map(AppointmentReadOnlyDTO::getId).toList();
+    }
+}
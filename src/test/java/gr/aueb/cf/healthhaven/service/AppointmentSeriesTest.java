@@ -0,0 +1,70 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentSeriesResultDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(AppointmentServices.class)
+class AppointmentSeriesTest extends AbstractDataTest {
+
+    private static final LocalDateTime FIRST = LocalDate.now().plusDays(7).atTime(11, 0);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(patientService.getCurrentPatient()).thenReturn(patient);
+    }
+
+    @Test
+    void weeklySeriesIsBookedWithAFewStatementsAndReportsConflicts() throws Exception {
+        LocalDateTime taken = FIRST.plusWeeks(10);
+        appointmentService.createAppointment(new AppointmentRegisterDTO(doctor.getId(),
+                taken.getYear(), taken.getMonthValue(), taken.getDayOfMonth(), taken.getHour()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AppointmentSeriesResultDTO result = appointmentService.createAppointmentSeries(new AppointmentRegisterDTO(doctor.getId(),
+                FIRST.getYear(), FIRST.getMonthValue(), FIRST.getDayOfMonth(), FIRST.getHour(), 0, Recurrence.WEEKLY, 52));
+
+        assertEquals(51, result.getBooked().size());
+        assertEquals(List.of(taken), result.getConflicts());
+        assertEquals(FIRST.plusWeeks(51), result.getBooked().get(50));
+        assertTrue(statistics.getPrepareStatementCount() <= 8, () -> statistics.getPrepareStatementCount() + " statements");
+        assertEquals(52, appointmentRepository.count());
+    }
+
+    @Test
+    void occurrencesAboveTheLimitAreRejected() {
+        assertThrows(InvalidAppointmentException.class, () -> appointmentService.createAppointmentSeries(new AppointmentRegisterDTO(doctor.getId(),
+                FIRST.getYear(), FIRST.getMonthValue(), FIRST.getDayOfMonth(), FIRST.getHour(), 0, Recurrence.WEEKLY, 53)));
+        assertEquals(0, appointmentRepository.count());
+    }
+}
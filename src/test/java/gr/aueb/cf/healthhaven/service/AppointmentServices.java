@@ -0,0 +1,15 @@
+package gr.aueb.cf.healthhaven.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The appointment services and the in-memory state they share, for the tests that run them against the database.
+ * The tests provide the {@link IPatientService}, usually as a mock.
+ */
+@TestConfiguration
+@Import({AppointmentServiceImpl.class, AppointmentEventBus.class, WaitlistServiceImpl.class, AppointmentWaitlist.class, AppointmentSlotIndex.class,
+        DoctorScheduleCache.class, AppointmentSlotLocks.class, NotificationServiceImpl.class, SimpleMeterRegistry.class})
+class AppointmentServices {
+}
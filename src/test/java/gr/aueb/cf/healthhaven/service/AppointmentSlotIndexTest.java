@@ -0,0 +1,143 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AppointmentSlotIndexTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2030, 5, 20, 10, 0);
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final AppointmentSlotIndex slotIndex = new AppointmentSlotIndex(appointmentRepository);
+
+    @Test
+    void slotsOverlapOnlyWhenTheyShareAMinute() {
+        slotIndex.occupy(1L, TEN, 30);
+
+        // Touching at either edge
+        assertTrue(slotIndex.isFree(1L, TEN.minusMinutes(30), 30));
+        assertTrue(slotIndex.isFree(1L, TEN.plusMinutes(30), 30));
+        // Overlapping one minute at either edge
+        assertFalse(slotIndex.isFree(1L, TEN.minusMinutes(29), 30));
+        assertFalse(slotIndex.isFree(1L, TEN.plusMinutes(29), 30));
+        // Inside and around
+        assertFalse(slotIndex.isFree(1L, TEN.plusMinutes(10), 10));
+        assertFalse(slotIndex.isFree(1L, TEN.minusHours(1), 120));
+        // Another doctor
+        assertTrue(slotIndex.isFree(2L, TEN, 30));
+    }
+
+    @Test
+    void daysAtTheEdgesOfTheCalendarAreKeptPerDoctor() {
+        LocalDateTime beforeEpoch = LocalDateTime.of(1969, 12, 31, 10, 0);
+        LocalDateTime firstDay = LocalDateTime.of(1000, 1, 1, 10, 0);
+        LocalDateTime lastDay = LocalDateTime.of(9999, 12, 31, 10, 0);
+        LocalDateTime farFuture = LocalDateTime.of(13_000, 1, 1, 10, 0);
+
+        for (LocalDateTime dateTime : List.of(beforeEpoch, firstDay, lastDay, farFuture)) {
+            slotIndex.occupy(1L, dateTime, 30);
+
+            assertFalse(slotIndex.isFree(1L, dateTime, 30), dateTime.toString());
+            assertTrue(slotIndex.isFree(2L, dateTime, 30), dateTime.toString());
+            assertTrue(slotIndex.isFree(1L, dateTime.plusDays(1), 30), dateTime.toString());
+            assertTrue(slotIndex.isFree(1L, dateTime.minusDays(1), 30), dateTime.toString());
+        }
+        // The day before the epoch and the first day after it are two days
+        assertTrue(slotIndex.isFree(1L, LocalDateTime.of(1970, 1, 1, 10, 0), 30));
+    }
+
+    @Test
+    void aSlotBetweenTwoAppointmentsIsFreeOnlyIfItFitsTheGap() {
+        slotIndex.occupy(1L, TEN, 30);
+        slotIndex.occupy(1L, TEN.plusHours(1), 30);
+
+        assertTrue(slotIndex.isFree(1L, TEN.plusMinutes(30), 30));
+        assertFalse(slotIndex.isFree(1L, TEN.plusMinutes(30), 31));
+        assertFalse(slotIndex.isFree(1L, TEN.plusMinutes(29), 30));
+    }
+
+    @Test
+    void occupyingAndReleasingTwiceChangesNothingMore() {
+        slotIndex.occupy(1L, TEN, 30);
+        slotIndex.occupy(1L, TEN, 30);
+        slotIndex.release(1L, TEN);
+        assertTrue(slotIndex.isFree(1L, TEN, 30));
+
+        slotIndex.release(1L, TEN);
+        assertTrue(slotIndex.isFree(1L, TEN, 30));
+        slotIndex.occupy(1L, TEN, 30);
+        assertFalse(slotIndex.isFree(1L, TEN, 30));
+    }
+
+    @Test
+    void onlyTheStartOfAnAppointmentReleasesIt() {
+        slotIndex.occupy(1L, TEN, 30);
+        slotIndex.occupy(1L, TEN.plusMinutes(30), 30);
+
+        slotIndex.release(1L, TEN.plusMinutes(15));
+        assertFalse(slotIndex.isFree(1L, TEN, 30));
+
+        slotIndex.release(1L, TEN);
+        assertTrue(slotIndex.isFree(1L, TEN, 30));
+        assertFalse(slotIndex.isFree(1L, TEN.plusMinutes(30), 30));
+    }
+
+    @Test
+    void daysAreIndexedApart() {
+        LocalDateTime lastSlot = TEN.withHour(23).withMinute(30);
+        LocalDateTime midnight = TEN.plusDays(1).withHour(0);
+        slotIndex.occupy(1L, lastSlot, 30);
+
+        assertFalse(slotIndex.isFree(1L, lastSlot.plusMinutes(15), 15));
+        assertTrue(slotIndex.isFree(1L, midnight, 30));
+        assertTrue(slotIndex.isFree(1L, lastSlot.minusDays(1), 30));
+
+        slotIndex.occupy(1L, midnight, 30);
+        slotIndex.release(1L, lastSlot);
+        assertTrue(slotIndex.isFree(1L, lastSlot, 30));
+        assertFalse(slotIndex.isFree(1L, midnight, 30));
+    }
+
+    @Test
+    void manyDoctorsAndDaysSurviveGrowthAndRemovals() {
+        int doctors = 500;
+        int days = 20;
+        for (long doctor = 1; doctor <= doctors; doctor++) {
+            for (int day = 0; day < days; day++) {
+                slotIndex.occupy(doctor, TEN.plusDays(day), 30);
+            }
+        }
+        // Release every other day, so the days that probed past them have to move back
+        for (long doctor = 1; doctor <= doctors; doctor++) {
+            for (int day = 0; day < days; day += 2) {
+                slotIndex.release(doctor, TEN.plusDays(day));
+            }
+        }
+
+        for (long doctor = 1; doctor <= doctors; doctor++) {
+            for (int day = 0; day < days; day++) {
+                assertEquals(day % 2 == 0, slotIndex.isFree(doctor, TEN.plusDays(day), 30), "doctor " + doctor + ", day " + day);
+            }
+        }
+    }
+
+    @Test
+    void warmUpReplacesTheIndexWithTheActiveAppointments() {
+        slotIndex.occupy(1L, TEN, 30);
+        when(appointmentRepository.findDoctorIdAndDateTimeAndDurationByStatusNot(AppointmentStatus.CANCELLED))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, TEN, 30}));
+
+        slotIndex.warmUp();
+
+        assertTrue(slotIndex.isFree(1L, TEN, 30));
+        assertFalse(slotIndex.isFree(2L, TEN, 30));
+    }
+}
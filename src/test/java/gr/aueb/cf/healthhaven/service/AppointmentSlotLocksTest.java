@@ -0,0 +1,61 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import gr.aueb.cf.healthhaven.service.exceptions.SlotUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AppointmentSlotLocksTest {
+
+    private final AppointmentSlotLocks slotLocks = new AppointmentSlotLocks();
+
+    @Test
+    void sameSlotAlwaysMapsToSameLock() {
+        LocalDateTime slot = LocalDateTime.of(2030, 5, 20, 10, 0);
+        assertSame(slotLocks.lockFor(7L, slot), slotLocks.lockFor(7L, slot));
+    }
+
+    @Test
+    void onlyOneOfManyConcurrentBookersGetsTheSlot() throws Exception {
+        AppointmentSlotIndex slotIndex = new AppointmentSlotIndex(mock(AppointmentRepository.class));
+        // The insert takes a while, so the bookers that checked the slot before it was taken would all insert without the lock
+        IAppointmentService appointmentService = InMemoryBookings.appointmentService(slotIndex, slotLocks, TimeUnit.MICROSECONDS.toNanos(200));
+        LocalDateTime slot = LocalDateTime.of(2030, 5, 20, 10, 0);
+        AppointmentRegisterDTO booking = new AppointmentRegisterDTO(1L, slot.getYear(), slot.getMonthValue(), slot.getDayOfMonth(), slot.getHour());
+        int bookers = 512;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+
+        for (int i = 0; i < bookers; i++) {
+            executor.submit(() -> {
+                start.await();
+                try {
+                    appointmentService.createAppointment(booking);
+                    booked.incrementAndGet();
+                } catch (SlotUnavailableException e) {
+                    unavailable.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1, booked.get());
+        assertEquals(bookers - 1, unavailable.get());
+        assertFalse(slotIndex.isFree(1L, slot, DoctorSlots.DEFAULT_SLOT_MINUTES));
+    }
+}
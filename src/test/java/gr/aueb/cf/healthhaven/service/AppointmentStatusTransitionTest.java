@@ -0,0 +1,133 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusResultDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidStatusTransitionException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(AppointmentServices.class)
+class AppointmentStatusTransitionTest extends AbstractDataTest {
+
+    private static final LocalDateTime SLOT = LocalDate.now().plusDays(7).atTime(9, 0);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void cancelledAppointmentsCannotBeChangedAgain() throws Exception {
+        Appointment appointment = appointment(doctor, SLOT, AppointmentStatus.PENDING);
+
+        assertEquals(AppointmentStatus.CANCELLED, appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CANCELLED).getStatus());
+        assertThrows(InvalidStatusTransitionException.class, () -> appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CONFIRMED));
+        assertThrows(InvalidStatusTransitionException.class, () -> appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.PENDING));
+
+        assertEquals(AppointmentStatus.CANCELLED, appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CANCELLED).getStatus());
+        assertEquals(1, appointmentRepository.findById(appointment.getId()).orElseThrow().getVersion());
+        assertEquals(1, outboxMessageRepository.count());
+    }
+
+    @Test
+    void bulkUpdatesReportAnOutcomePerAppointment() throws Exception {
+        Appointment first = appointment(doctor, SLOT, AppointmentStatus.PENDING);
+        Appointment second = appointment(doctor, SLOT.plusHours(1), AppointmentStatus.PENDING);
+        Appointment confirmed = appointment(doctor, SLOT.plusHours(2), AppointmentStatus.CONFIRMED);
+        Appointment cancelled = appointment(doctor, SLOT.plusHours(3), AppointmentStatus.CANCELLED);
+        Doctor otherDoctor = doctorRepository.save(new Doctor("Eleni", "Nikolaou", Speciality.NEUROLOGY, "7654321"));
+        Appointment otherDoctors = appointment(otherDoctor, SLOT, AppointmentStatus.PENDING);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(doctor.getId(),
+                List.of(first.getId(), confirmed.getId(), cancelled.getId(), otherDoctors.getId(), second.getId(), first.getId()),
+                AppointmentStatus.CONFIRMED);
+
+        assertEquals(List.of(first.getId(), confirmed.getId(), cancelled.getId(), otherDoctors.getId(), second.getId()),
+                results.stream().map(AppointmentStatusResultDTO::getId).toList());
+        assertEquals(List.of(StatusUpdateOutcome.UPDATED, StatusUpdateOutcome.UNCHANGED, StatusUpdateOutcome.INVALID_TRANSITION,
+                StatusUpdateOutcome.NOT_FOUND, StatusUpdateOutcome.UPDATED), results.stream().map(AppointmentStatusResultDTO::getOutcome).toList());
+        assertEquals(AppointmentStatus.CANCELLED, results.get(2).getStatus());
+        assertEquals(0, statistics.getEntityUpdateCount());
+
+        assertEquals(AppointmentStatus.CONFIRMED, appointmentRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(1, appointmentRepository.findById(second.getId()).orElseThrow().getVersion());
+        assertEquals(0, appointmentRepository.findById(confirmed.getId()).orElseThrow().getVersion());
+        assertEquals(AppointmentStatus.PENDING, appointmentRepository.findById(otherDoctors.getId()).orElseThrow().getStatus());
+        assertEquals(2, outboxMessageRepository.count());
+    }
+
+    @Test
+    void bulkCancellationsFreeTheSlots() throws Exception {
+        Appointment pending = appointment(doctor, SLOT, AppointmentStatus.PENDING);
+        Appointment confirmed = appointment(doctor, SLOT.plusHours(1), AppointmentStatus.CONFIRMED);
+
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(doctor.getId(),
+                List.of(pending.getId(), confirmed.getId()), AppointmentStatus.CANCELLED);
+
+        assertTrue(results.stream().allMatch(result -> result.getOutcome() == StatusUpdateOutcome.UPDATED));
+        assertTrue(slotIndex.isFree(doctor.getId(), SLOT, 60));
+        assertTrue(slotIndex.isFree(doctor.getId(), SLOT.plusHours(1), 60));
+        assertEquals(2, outboxMessageRepository.count());
+    }
+
+    @Test
+    void bulkUpdatesNeedAStatusAndABoundedSelection() {
+        assertThrows(InvalidAppointmentException.class, () -> appointmentService.updateAppointmentStatuses(doctor.getId(), List.of(), AppointmentStatus.CONFIRMED));
+        assertThrows(InvalidAppointmentException.class, () -> appointmentService.updateAppointmentStatuses(doctor.getId(), List.of(1L), null));
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            tooMany.add(id);
+        }
+        assertThrows(InvalidAppointmentException.class, () -> appointmentService.updateAppointmentStatuses(doctor.getId(), tooMany, AppointmentStatus.CONFIRMED));
+    }
+
+    @Test
+    void theTransitionTableIsConsistent() {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            assertFalse(status.canMoveTo(status));
+            for (AppointmentStatus next : status.nextStatuses()) {
+                assertTrue(AppointmentStatus.previousStatusesOf(next).contains(status));
+            }
+        }
+        assertEquals(Collections.emptySet(), AppointmentStatus.CANCELLED.nextStatuses());
+    }
+
+    private Appointment appointment(Doctor doctor, LocalDateTime dateTime, AppointmentStatus status) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(dateTime);
+        appointment.setStatus(status);
+        appointment = appointmentRepository.save(appointment);
+        if (status != AppointmentStatus.CANCELLED) {
+            slotIndex.occupy(doctor.getId(), dateTime, appointment.getDurationMinutes());
+        }
+        return appointment;
+    }
+}
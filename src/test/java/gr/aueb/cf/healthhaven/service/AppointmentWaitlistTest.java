@@ -0,0 +1,67 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AppointmentWaitlistTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 20);
+    private static final LocalDateTime JOINED = LocalDateTime.of(2030, 5, 1, 12, 0);
+
+    private final AppointmentWaitlist waitlist = new AppointmentWaitlist(mock(WaitlistEntryRepository.class));
+
+    @Test
+    void patientsAreServedInTheOrderTheyJoined() {
+        int patients = 5_000;
+        List<AppointmentWaitlist.Waiting> joined = new ArrayList<>(patients);
+        for (int i = 0; i < patients; i++) {
+            joined.add(new AppointmentWaitlist.Waiting(i, 1000 + i, JOINED.plusSeconds(i)));
+        }
+        Collections.shuffle(joined);
+        joined.forEach(waiting -> waitlist.add(7L, DAY, waiting));
+
+        assertEquals(patients, waitlist.size(7L, DAY));
+        for (int i = 0; i < patients; i++) {
+            assertEquals(i, waitlist.poll(7L, DAY).entryId());
+        }
+        assertNull(waitlist.poll(7L, DAY));
+        assertEquals(0, waitlist.size(7L, DAY));
+    }
+
+    @Test
+    void queuesAreKeptPerDoctorAndDay() {
+        waitlist.add(7L, DAY, new AppointmentWaitlist.Waiting(1, 1, JOINED));
+        waitlist.add(8L, DAY, new AppointmentWaitlist.Waiting(2, 2, JOINED));
+        waitlist.add(7L, DAY.plusDays(1), new AppointmentWaitlist.Waiting(3, 3, JOINED));
+
+        assertEquals(2, waitlist.poll(8L, DAY).entryId());
+        assertNull(waitlist.poll(8L, DAY));
+        assertEquals(1, waitlist.poll(7L, DAY).entryId());
+        assertEquals(1, waitlist.size(7L, DAY.plusDays(1)));
+    }
+
+    @Test
+    void queuesOfPastDaysArePruned() {
+        waitlist.add(7L, DAY.minusDays(1), new AppointmentWaitlist.Waiting(1, 1, JOINED));
+        waitlist.add(8L, DAY.minusDays(30), new AppointmentWaitlist.Waiting(2, 2, JOINED));
+        waitlist.add(7L, DAY, new AppointmentWaitlist.Waiting(3, 3, JOINED));
+        waitlist.add(8L, DAY.plusDays(1), new AppointmentWaitlist.Waiting(4, 4, JOINED));
+
+        assertEquals(2, waitlist.prunePastDays(DAY));
+
+        assertEquals(0, waitlist.size(7L, DAY.minusDays(1)));
+        assertEquals(0, waitlist.size(8L, DAY.minusDays(30)));
+        assertEquals(1, waitlist.size(7L, DAY));
+        assertEquals(1, waitlist.size(8L, DAY.plusDays(1)));
+        assertEquals(0, waitlist.prunePastDays(DAY));
+    }
+}
@@ -0,0 +1,139 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUser;
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUserSessions;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.Role;
+import gr.aueb.cf.healthhaven.model.User;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import gr.aueb.cf.healthhaven.repository.PatientRepository;
+import gr.aueb.cf.healthhaven.repository.UserRepository;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentUserTest {
+
+    private static final AuthenticatedUser PATIENT = new AuthenticatedUser(1L, "maria", "", Role.PATIENT, null, 10L);
+    private static final AuthenticatedUser DOCTOR = new AuthenticatedUser(2L, "drnikos", "", Role.DOCTOR, 20L, null);
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthenticatedUserSessions userSessions = mock(AuthenticatedUserSessions.class);
+    private final PatientServiceImpl patientService = new PatientServiceImpl(patientRepository, mock(PasswordEncoder.class), userRepository,
+            userSessions);
+    private final DoctorServiceImpl doctorService = new DoctorServiceImpl(mock(DoctorRepository.class), mock(PasswordEncoder.class), userRepository,
+            mock(AuthenticatedUserSessions.class), mock(DoctorSearchIndex.class));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void idsAreReadFromThePrincipal() throws Exception {
+        logIn(UsernamePasswordAuthenticationToken.authenticated(PATIENT, null, PATIENT.getAuthorities()));
+        assertEquals(10L, patientService.getCurrentPatientId());
+
+        logIn(UsernamePasswordAuthenticationToken.authenticated(DOCTOR, null, DOCTOR.getAuthorities()));
+        assertEquals(20L, doctorService.getCurrentDoctorId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void theCurrentPatientIsLoadedByIdAlone() throws Exception {
+        Patient maria = new Patient("Maria", "Georgiou", "100000001", "maria@mail.gr", "6900000000");
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(maria));
+        logIn(UsernamePasswordAuthenticationToken.authenticated(PATIENT, null, PATIENT.getAuthorities()));
+
+        assertSame(maria, patientService.getCurrentPatient());
+        verify(patientRepository).findById(10L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void aDeletedPatientIsNotFound() {
+        when(patientRepository.findById(10L)).thenReturn(Optional.empty());
+        logIn(UsernamePasswordAuthenticationToken.authenticated(PATIENT, null, PATIENT.getAuthorities()));
+
+        assertThrows(EntityNotFoundException.class, patientService::getCurrentPatient);
+    }
+
+    @Test
+    void theOtherRoleHasNoId() {
+        logIn(UsernamePasswordAuthenticationToken.authenticated(DOCTOR, null, DOCTOR.getAuthorities()));
+        assertThrows(EntityNotFoundException.class, patientService::getCurrentPatientId);
+
+        logIn(UsernamePasswordAuthenticationToken.authenticated(PATIENT, null, PATIENT.getAuthorities()));
+        assertThrows(EntityNotFoundException.class, doctorService::getCurrentDoctorId);
+    }
+
+    @Test
+    void anonymousAndUnauthenticatedUsersHaveNoId() {
+        assertThrows(EntityNotFoundException.class, patientService::getCurrentPatientId);
+        assertThrows(EntityNotFoundException.class, doctorService::getCurrentDoctorId);
+
+        logIn(new AnonymousAuthenticationToken("key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThrows(EntityNotFoundException.class, patientService::getCurrentPatientId);
+        assertThrows(EntityNotFoundException.class, doctorService::getCurrentDoctorId);
+
+        // Credentials that were presented but not authenticated yet
+        logIn(UsernamePasswordAuthenticationToken.unauthenticated(PATIENT, "secret"));
+        assertThrows(EntityNotFoundException.class, patientService::getCurrentPatientId);
+    }
+
+    @Test
+    void aDeletedPatientIsLoggedOutOnlyOnceTheDeleteCommits() throws Exception {
+        Patient maria = new Patient("Maria", "Georgiou", "100000001", "maria@mail.gr", "6900000000");
+        maria.setUser(User.getNewUserWithPatientRole("maria", "secret"));
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(maria));
+
+        TransactionSynchronizationManager.initSynchronization();
+        patientService.deletePatient(10L);
+        verifyNoInteractions(userSessions);
+
+        commit();
+        verify(userSessions).expireSessionsOf("maria");
+    }
+
+    @Test
+    void aPatientWhoseDeleteRollsBackStaysLoggedIn() throws Exception {
+        Patient maria = new Patient("Maria", "Georgiou", "100000001", "maria@mail.gr", "6900000000");
+        maria.setUser(User.getNewUserWithPatientRole("maria", "secret"));
+        when(patientRepository.findById(10L)).thenReturn(Optional.of(maria));
+
+        TransactionSynchronizationManager.initSynchronization();
+        patientService.deletePatient(10L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(userSessions);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void logIn(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
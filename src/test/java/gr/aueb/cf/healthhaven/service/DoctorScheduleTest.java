@@ -0,0 +1,113 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorScheduleDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import gr.aueb.cf.healthhaven.service.exceptions.SlotUnavailableException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({AppointmentServices.class, DoctorScheduleServiceImpl.class})
+class DoctorScheduleTest extends AbstractDataTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+    private static final LocalDate DAY_OFF = MONDAY.plusDays(1);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private IDoctorScheduleService doctorScheduleService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(patientService.getCurrentPatient()).thenReturn(patient);
+
+        Set<WorkingHours> weeklyHours = Set.of(
+                new WorkingHours(DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                new WorkingHours(DayOfWeek.TUESDAY, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        Set<ScheduleException> exceptions = Set.of(new ScheduleException(DAY_OFF, null, null));
+        doctorScheduleService.saveSchedule(doctor.getId(), new DoctorScheduleDTO(20, weeklyHours, exceptions));
+    }
+
+    @Test
+    void onlySlotsOfTheScheduleCanBeBooked() throws Exception {
+        Appointment appointment = book(MONDAY.atTime(8, 20));
+        assertEquals(20, appointment.getDurationMinutes());
+
+        assertThrows(InvalidAppointmentException.class, () -> book(MONDAY.atTime(8, 10)));
+        assertThrows(InvalidAppointmentException.class, () -> book(MONDAY.atTime(11, 50)));
+        assertThrows(InvalidAppointmentException.class, () -> book(MONDAY.atTime(13, 0)));
+        assertThrows(InvalidAppointmentException.class, () -> book(DAY_OFF.atTime(8, 0)));
+        assertThrows(InvalidAppointmentException.class, () -> book(MONDAY.plusDays(2).atTime(8, 0)));
+        // Mondays beyond the dates the database can hold
+        assertThrows(InvalidAppointmentException.class, () -> book(LocalDate.of(999, 1, 1).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(8, 0)));
+        assertThrows(InvalidAppointmentException.class, () -> book(LocalDate.of(10_000, 1, 1).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(8, 0)));
+        assertThrows(SlotUnavailableException.class, () -> book(MONDAY.atTime(8, 20)));
+    }
+
+    @Test
+    void slotsOverlappingAnAppointmentOfAnEarlierSlotLengthAreTaken() throws Exception {
+        book(MONDAY.atTime(8, 20));
+        doctorScheduleService.saveSchedule(doctor.getId(), new DoctorScheduleDTO(30,
+                Set.of(new WorkingHours(DayOfWeek.MONDAY, LocalTime.of(8, 0), LocalTime.of(12, 0))), Set.of()));
+
+        assertThrows(SlotUnavailableException.class, () -> book(MONDAY.atTime(8, 30)));
+        assertThrows(SlotUnavailableException.class, () -> book(MONDAY.atTime(8, 0)));
+        assertEquals(30, book(MONDAY.atTime(9, 0)).getDurationMinutes());
+    }
+
+    @Test
+    void bookingsDoNotReadTheSchedule() throws Exception {
+        book(MONDAY.atTime(8, 0));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        book(MONDAY.atTime(8, 40));
+
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void doctorsWithoutAScheduleKeepTheHourlyOfficeHours() {
+        DoctorSlots slots = DoctorSlots.DEFAULT;
+        assertEquals(12, slots.slotsOn(MONDAY).size());
+        assertTrue(slots.isSlot(MONDAY.atTime(20, 0)));
+        assertFalse(slots.isSlot(MONDAY.atTime(21, 0)));
+        assertFalse(slots.isSlot(MONDAY.atTime(9, 30)));
+    }
+
+    private Appointment book(LocalDateTime dateTime) throws Exception {
+        AppointmentRegisterDTO dto = new AppointmentRegisterDTO(doctor.getId(),
+                dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour());
+        dto.setMinute(dateTime.getMinute());
+        return appointmentService.createAppointment(dto);
+    }
+}
@@ -0,0 +1,91 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.doctorDTO.DoctorReadOnlyDTO;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DoctorSearchIndexTest {
+
+    private final DoctorSearchIndex searchIndex = new DoctorSearchIndex(mock(DoctorRepository.class));
+
+    @BeforeEach
+    void setUp() {
+        searchIndex.put(1L, "Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567");
+        searchIndex.put(2L, "Maria", "Papadaki", Speciality.DERMATOLOGY, "2345678");
+        searchIndex.put(3L, "Giorgos", "Nikolaou", Speciality.CARDIOLOGY, "3456789");
+        searchIndex.put(4L, "Ελένη", "Παπαδοπούλου", Speciality.NEUROLOGY, "4567890");
+    }
+
+    @Test
+    void prefixesOfAnyFieldMatch() {
+        assertEquals(List.of(2L, 1L), ids(searchIndex.search("papad", 0, 10)));
+        assertEquals(List.of(3L, 1L), ids(searchIndex.search("cardio", 0, 10)));
+        assertEquals(List.of(3L), ids(searchIndex.search("3456789", 0, 10)));
+    }
+
+    @Test
+    void everyWordMustMatchAndBetterFieldsRankFirst() {
+        assertEquals(List.of(1L), ids(searchIndex.search("papad cardiology", 0, 10)));
+        // "nikos" is the first name of one doctor and a prefix of the last name of the other
+        assertEquals(List.of(3L, 1L), ids(searchIndex.search("niko", 0, 10)));
+        // Too few exact matches, so "nikolaou", one typo away from "nikos", follows
+        assertEquals(List.of(1L, 3L), ids(searchIndex.search("nikos", 0, 10)));
+    }
+
+    @Test
+    void typosAreToleratedWhenNothingMatchesExactly() {
+        assertEquals(List.of(1L), ids(searchIndex.search("papadopolous", 0, 10)));
+        assertEquals(List.of(3L, 1L), ids(searchIndex.search("cardiolgy", 0, 10)));
+        assertEquals(List.of(3L, 1L), ids(searchIndex.search("kardiology", 0, 10)));
+        assertTrue(searchIndex.search("zzzz", 0, 10).isEmpty());
+    }
+
+    @Test
+    void accentsAndCaseAreIgnored() {
+        assertEquals(List.of(4L), ids(searchIndex.search("ΠΑΠΑΔΟΠΟΥΛΟΥ", 0, 10)));
+        assertEquals(List.of(4L), ids(searchIndex.search("ελενη", 0, 10)));
+    }
+
+    @Test
+    void updatesAndDeletionsAreIndexed() {
+        searchIndex.put(2L, "Maria", "Georgiou", Speciality.DERMATOLOGY, "2345678");
+        assertEquals(List.of(1L), ids(searchIndex.search("papad", 0, 10)));
+        assertEquals(List.of(2L, 3L), ids(searchIndex.search("georg", 0, 10)));
+
+        searchIndex.remove(1L);
+        assertTrue(searchIndex.search("papadop", 0, 10).isEmpty());
+        assertEquals(3, searchIndex.size());
+    }
+
+    @Test
+    void versionTagsAreNotReusedByAnotherIndex() {
+        DoctorSearchIndex restarted = new DoctorSearchIndex(mock(DoctorRepository.class));
+        for (int i = 1; i <= 4; i++) {
+            restarted.put((long) i, "Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567");
+        }
+
+        assertEquals(searchIndex.version(), restarted.version());
+        assertNotEquals(searchIndex.versionTag(), restarted.versionTag());
+        String tag = searchIndex.versionTag();
+        searchIndex.remove(4L);
+        assertNotEquals(tag, searchIndex.versionTag());
+    }
+
+    @Test
+    void resultsArePaged() {
+        assertEquals(List.of(2L), ids(searchIndex.search("papad", 0, 1)));
+        assertEquals(List.of(1L), ids(searchIndex.search("papad", 1, 1)));
+        assertTrue(searchIndex.search("papad", 2, 1).isEmpty());
+    }
+
+    private static List<Long> ids(List<DoctorReadOnlyDTO> doctors) {
+        return doctors.stream().map(DoctorReadOnlyDTO::getId).toList();
+    }
+}
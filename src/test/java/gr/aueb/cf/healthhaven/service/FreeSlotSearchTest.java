@@ -0,0 +1,101 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.DoctorFreeSlotsDTO;
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.AppointmentStatus;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@Import(AppointmentServices.class)
+class FreeSlotSearchTest extends AbstractDataTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    private Doctor second;
+    private Doctor third;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        second = doctorRepository.save(new Doctor("Eleni", "Nikolaou", Speciality.CARDIOLOGY, "2345678"));
+        doctorRepository.save(new Doctor("Kostas", "Ioannou", Speciality.DERMATOLOGY, "3456789"));
+        third = doctorRepository.save(new Doctor("Giorgos", "Papas", Speciality.CARDIOLOGY, "4567890"));
+        when(patientService.getCurrentPatient()).thenReturn(patient);
+    }
+
+    @Test
+    void doctorsOfTheSpecialityArePagedInIdOrder() {
+        assertEquals(List.of(doctor.getId(), second.getId()), doctorIds(search(1, 0, 2)));
+        assertEquals(List.of(third.getId()), doctorIds(search(1, 1, 2)));
+        assertTrue(search(1, 2, 2).isEmpty());
+
+        DoctorFreeSlotsDTO first = search(1, 0, 2).get(0);
+        assertEquals("Nikos", first.getFirstname());
+        assertEquals("Papadopoulos", first.getLastname());
+    }
+
+    @Test
+    void slotsAreCutAtTheLimitOfEachDoctorAcrossDays() {
+        List<DoctorFreeSlotsDTO> doctors = appointmentService.findFreeSlotsBySpeciality(Speciality.CARDIOLOGY, DAY, DAY.plusDays(1), 14, 0, 10);
+
+        // Twelve hourly slots on the first day and two on the next
+        for (DoctorFreeSlotsDTO found : doctors) {
+            List<LocalDateTime> slots = found.getFreeSlots();
+            assertEquals(14, slots.size());
+            assertEquals(DAY.atTime(9, 0), slots.get(0));
+            assertEquals(DAY.atTime(20, 0), slots.get(11));
+            assertEquals(DAY.plusDays(1).atTime(10, 0), slots.get(13));
+        }
+        assertEquals(List.of(DAY.atTime(9, 0), DAY.atTime(10, 0)), search(2, 0, 1).get(0).getFreeSlots());
+    }
+
+    @Test
+    void takenSlotsAreSkippedUntilTheyAreFreedAgain() throws Exception {
+        Appointment booked = appointmentService.createAppointment(new AppointmentRegisterDTO(doctor.getId(),
+                DAY.getYear(), DAY.getMonthValue(), DAY.getDayOfMonth(), 10));
+
+        assertEquals(List.of(DAY.atTime(9, 0), DAY.atTime(11, 0), DAY.atTime(12, 0)), search(3, 0, 1).get(0).getFreeSlots());
+        // Only the doctor of the appointment lost the slot
+        assertEquals(List.of(DAY.atTime(9, 0), DAY.atTime(10, 0), DAY.atTime(11, 0)), search(3, 0, 2).get(1).getFreeSlots());
+
+        appointmentService.updateAppointmentStatus(booked.getId(), AppointmentStatus.CANCELLED);
+        assertEquals(List.of(DAY.atTime(9, 0), DAY.atTime(10, 0), DAY.atTime(11, 0)), search(3, 0, 1).get(0).getFreeSlots());
+    }
+
+    @Test
+    void pastDaysHaveNoFreeSlots() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+
+        List<DoctorFreeSlotsDTO> doctors = appointmentService.findFreeSlotsBySpeciality(Speciality.CARDIOLOGY, yesterday, yesterday, 5, 0, 10);
+
+        assertEquals(3, doctors.size());
+        assertTrue(doctors.stream().allMatch(found -> found.getFreeSlots().isEmpty()));
+    }
+
+    private List<DoctorFreeSlotsDTO> search(int slotsPerDoctor, int page, int size) {
+        return appointmentService.findFreeSlotsBySpeciality(Speciality.CARDIOLOGY, DAY, DAY, slotsPerDoctor, page, size);
+    }
+
+    private static List<Long> doctorIds(List<DoctorFreeSlotsDTO> doctors) {
+        return doctors.stream().map(DoctorFreeSlotsDTO::getDoctorId).toList();
+    }
+}
@@ -0,0 +1,60 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.Appointment;
+import gr.aueb.cf.healthhaven.model.Doctor;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.repository.AppointmentRepository;
+import gr.aueb.cf.healthhaven.repository.DoctorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Builds the real {@link AppointmentServiceImpl} over a given slot index and slot locks, with the database replaced
+ * by stubs whose insert takes a fixed time, so that bookings can be raced and measured without a database.
+ * The stubs record no invocations, so they can take millions of bookings.
+ * Shared with the booking contention benchmark of the jmh source set.
+ */
+public final class InMemoryBookings {
+
+    private InMemoryBookings() {
+    }
+
+    public static AppointmentServiceImpl appointmentService(AppointmentSlotIndex slotIndex, AppointmentSlotLocks slotLocks, long insertNanos) throws Exception {
+        DoctorRepository doctorRepository = mock(DoctorRepository.class, withSettings().stubOnly());
+        when(doctorRepository.findById(any())).thenAnswer(invocation -> {
+            Doctor doctor = new Doctor("Nikos", "Papadopoulos", Speciality.CARDIOLOGY, "1234567");
+            doctor.setId(invocation.getArgument(0));
+            return Optional.of(doctor);
+        });
+
+        AtomicLong ids = new AtomicLong();
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class, withSettings().stubOnly());
+        when(appointmentRepository.save(any())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(insertNanos);
+            Appointment appointment = invocation.getArgument(0);
+            appointment.setId(ids.incrementAndGet());
+            return appointment;
+        });
+
+        Patient patient = new Patient("Maria", "Georgiou", "100000001", "maria@mail.gr", "6900000000");
+        patient.setId(1L);
+        IPatientService patientService = mock(IPatientService.class, withSettings().stubOnly());
+        when(patientService.getCurrentPatient()).thenReturn(patient);
+
+        DoctorScheduleCache scheduleCache = mock(DoctorScheduleCache.class, withSettings().stubOnly());
+        when(scheduleCache.slotsOf(any())).thenReturn(DoctorSlots.DEFAULT);
+
+        return new AppointmentServiceImpl(appointmentRepository, doctorRepository, patientService, slotIndex, slotLocks, scheduleCache,
+                mock(IWaitlistService.class, withSettings().stubOnly()), mock(INotificationService.class, withSettings().stubOnly()),
+                mock(AppointmentEventBus.class, withSettings().stubOnly()), mock(TransactionTemplate.class, withSettings().stubOnly()),
+                new SimpleMeterRegistry());
+    }
+}
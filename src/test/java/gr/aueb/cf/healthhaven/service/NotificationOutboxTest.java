@@ -0,0 +1,124 @@
+package gr.aueb.cf.healthhaven.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.model.*;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {"spring.mail.host=localhost", "spring.mail.port=3025", "healthhaven.notifications.batch-size=2"})
+@ImportAutoConfiguration(MailSenderAutoConfiguration.class)
+@Import({AppointmentServices.class, NotificationDispatcher.class})
+class NotificationOutboxTest extends AbstractDataTest {
+
+    private static final LocalDateTime SLOT = LocalDate.now().plusDays(7).atTime(10, 0);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void statusChangesAreSentInTheBackground() throws Exception {
+        Appointment appointment = appointment(SLOT);
+        appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CONFIRMED);
+
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        assertEquals(OutboxStatus.PENDING, onlyMessage().getStatus());
+
+        assertEquals(1, dispatcher.dispatch());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("maria@mail.gr", received[0].getAllRecipients()[0].toString());
+        assertEquals("Your appointment has been confirmed", received[0].getSubject());
+        assertEquals(OutboxStatus.SENT, onlyMessage().getStatus());
+        assertEquals(0, dispatcher.dispatch());
+    }
+
+    @Test
+    void theOutboxIsDrainedBatchAfterBatch() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            appointmentService.updateAppointmentStatus(appointment(SLOT.plusHours(i)).getId(), AppointmentStatus.CANCELLED);
+        }
+
+        assertEquals(5, dispatcher.dispatch());
+        assertEquals(5, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void rolledBackChangesAreNotNotified() {
+        Appointment appointment = appointment(SLOT);
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CONFIRMED);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxMessageRepository.count());
+    }
+
+    @Test
+    void failedDeliveriesAreRetriedLater() throws Exception {
+        appointmentService.updateAppointmentStatus(appointment(SLOT).getId(), AppointmentStatus.CONFIRMED);
+        greenMail.stop();
+
+        assertEquals(0, dispatcher.dispatch());
+        OutboxMessage message = onlyMessage();
+        assertEquals(OutboxStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getLastError());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        assertEquals(0, dispatcher.dispatch());
+
+        greenMail.start();
+        message.setNextAttemptAt(LocalDateTime.now());
+        outboxMessageRepository.save(message);
+
+        assertEquals(1, dispatcher.dispatch());
+        assertEquals(OutboxStatus.SENT, onlyMessage().getStatus());
+        assertEquals(2, onlyMessage().getAttempts());
+    }
+
+    private Appointment appointment(LocalDateTime dateTime) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(dateTime);
+        return appointmentRepository.save(appointment);
+    }
+
+    private OutboxMessage onlyMessage() {
+        List<OutboxMessage> messages = outboxMessageRepository.findAll();
+        assertEquals(1, messages.size());
+        return messages.get(0);
+    }
+}
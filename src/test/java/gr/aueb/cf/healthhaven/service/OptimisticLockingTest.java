@@ -0,0 +1,270 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUser;
+import gr.aueb.cf.healthhaven.authentication.AuthenticatedUserSessions;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentStatusResultDTO;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentUpdateDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientUpdateDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidStatusTransitionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Import({AppointmentServices.class, PatientServiceImpl.class})
+class OptimisticLockingTest extends AbstractDataTest {
+
+    private static final LocalDateTime SLOT = LocalDate.now().plusDays(7).atTime(9, 0);
+    private static final int APPOINTMENTS = 5;
+    private static final int UPDATES = 200;
+    private static final int THREADS = 8;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private AuthenticatedUserSessions userSessions;
+
+    @SpyBean
+    private NotificationServiceImpl notificationService;
+
+    @SpyBean
+    private DoctorScheduleCache scheduleCache;
+
+    @SpyBean
+    private AppointmentSlotLocks slotLocks;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private IPatientService patientService;
+
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
+
+    @Test
+    void racingStatusUpdatesAreEachAppliedOnce() throws Exception {
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            appointments.add(appointment(SLOT.plusHours(i)));
+        }
+
+        AtomicInteger rejected = new AtomicInteger();
+        race(i -> {
+            Appointment appointment = appointments.get(i % APPOINTMENTS);
+            AppointmentStatus status = i % 3 == 0 ? AppointmentStatus.CANCELLED : AppointmentStatus.CONFIRMED;
+            try {
+                appointmentService.updateAppointmentStatus(appointment.getId(), status);
+            } catch (InvalidStatusTransitionException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertTrue(rejected.get() > 0);
+        List<OutboxMessage> notifications = outboxMessageRepository.findAll();
+        for (Appointment appointment : appointments) {
+            Appointment updated = appointmentRepository.findById(appointment.getId()).orElseThrow();
+            long changes = notifications.stream().filter(message -> message.getAppointmentId().equals(appointment.getId())).count();
+            assertEquals(AppointmentStatus.CANCELLED, updated.getStatus());
+            assertEquals(changes, updated.getVersion());
+            assertEquals(updated.getStatus() == AppointmentStatus.CANCELLED,
+                    slotIndex.isFree(doctor.getId(), updated.getAppointmentDateTime(), updated.getDurationMinutes()));
+        }
+    }
+
+    @Test
+    void aStatusUpdateMeetingAConcurrentChangeIsRetried() throws Exception {
+        Appointment appointment = appointment(SLOT);
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.getAndIncrement() == 0) changeConcurrently(appointment.getId());
+            return invocation.callRealMethod();
+        }).when(notificationService).notifyStatusChange(any());
+
+        appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CONFIRMED);
+
+        assertEquals(2, attempts.get());
+        Appointment updated = appointmentRepository.findById(appointment.getId()).orElseThrow();
+        assertEquals(AppointmentStatus.CONFIRMED, updated.getStatus());
+        // The concurrent change and the update
+        assertEquals(2, updated.getVersion());
+        assertEquals(1, outboxMessageRepository.count());
+    }
+
+    @Test
+    void aStatusUpdateThatKeepsMeetingConcurrentChangesFailsAfterTheLastAttempt() throws Exception {
+        Appointment appointment = appointment(SLOT);
+        doAnswer(invocation -> {
+            changeConcurrently(appointment.getId());
+            return invocation.callRealMethod();
+        }).when(notificationService).notifyStatusChange(any());
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> appointmentService.updateAppointmentStatus(appointment.getId(), AppointmentStatus.CANCELLED));
+
+        verify(notificationService, times(AppointmentServiceImpl.MAX_STATUS_ATTEMPTS)).notifyStatusChange(any());
+        Appointment unchanged = appointmentRepository.findById(appointment.getId()).orElseThrow();
+        assertEquals(AppointmentStatus.PENDING, unchanged.getStatus());
+        assertEquals(AppointmentServiceImpl.MAX_STATUS_ATTEMPTS, unchanged.getVersion());
+        assertEquals(0, outboxMessageRepository.count());
+        // Every rolled back cancellation gave the slot back
+        assertFalse(slotIndex.isFree(doctor.getId(), SLOT, unchanged.getDurationMinutes()));
+    }
+
+    @Test
+    void aRescheduleIsReadAgainUnderTheSlotLocks() throws Exception {
+        Appointment appointment = appointment(SLOT);
+        LocalDateTime target = SLOT.plusHours(2);
+        AppointmentUpdateDTO move = new AppointmentUpdateDTO(appointment.getId(), doctor.getId(),
+                target.getYear(), target.getMonthValue(), target.getDayOfMonth(), target.getHour(), 0);
+        // Changed after it was first read, before the slots are locked
+        doAnswer(invocation -> {
+            changeConcurrently(appointment.getId());
+            return invocation.callRealMethod();
+        }).when(scheduleCache).slotsOf(doctor.getId());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> appointmentService.updateAppointment(move));
+
+        Appointment unchanged = appointmentRepository.findById(appointment.getId()).orElseThrow();
+        assertEquals(SLOT, unchanged.getAppointmentDateTime());
+        assertFalse(slotIndex.isFree(doctor.getId(), SLOT, unchanged.getDurationMinutes()));
+        assertTrue(slotIndex.isFree(doctor.getId(), target, unchanged.getDurationMinutes()));
+
+        doCallRealMethod().when(scheduleCache).slotsOf(doctor.getId());
+        assertEquals(target, appointmentService.updateAppointment(move).getAppointmentDateTime());
+        assertEquals(target, appointmentRepository.findById(appointment.getId()).orElseThrow().getAppointmentDateTime());
+        assertTrue(slotIndex.isFree(doctor.getId(), SLOT, unchanged.getDurationMinutes()));
+    }
+
+    @Test
+    void aBulkUpdateLocksTheSlotsAgainWhenAnAppointmentWasRescheduledMeanwhile() throws Exception {
+        Appointment appointment = appointment(SLOT);
+        LocalDateTime moved = SLOT.plusDays(1);
+        while (slotLocks.lockFor(doctor.getId(), moved) == slotLocks.lockFor(doctor.getId(), SLOT)) {
+            moved = moved.plusDays(1);
+        }
+        LocalDateTime target = moved;
+        // Rescheduled after the slots to lock were read, before the transaction
+        doAnswer(invocation -> {
+            Object locks = invocation.callRealMethod();
+            CompletableFuture.runAsync(() -> jdbcTemplate.update("update appointments set `date` = ?, version = version + 1 where id = ?",
+                    target, appointment.getId())).get(10, TimeUnit.SECONDS);
+            return locks;
+        }).doCallRealMethod().when(slotLocks).locksFor(eq(doctor.getId()), any());
+
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(doctor.getId(),
+                List.of(appointment.getId()), AppointmentStatus.CONFIRMED);
+
+        assertEquals(StatusUpdateOutcome.UPDATED, results.get(0).getOutcome());
+        // Found moved in the first transaction, then locked and found in place in the second one
+        verify(slotLocks, times(3)).locksFor(doctor.getId(), List.of(target));
+        Appointment confirmed = appointmentRepository.findById(appointment.getId()).orElseThrow();
+        assertEquals(AppointmentStatus.CONFIRMED, confirmed.getStatus());
+        assertEquals(target, confirmed.getAppointmentDateTime());
+    }
+
+    @Test
+    void profileUpdatesBasedOnAnOutdatedVersionAreRejected() throws Exception {
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        race(i -> {
+            logInAsPatient();
+            try {
+                long version = patientRepository.findById(patient.getId()).orElseThrow().getVersion();
+                patientService.updatePatient(new PatientUpdateDTO(patient.getId(), "Maria", "Georgiou", "maria@mail.gr",
+                        String.valueOf(6900000001L + i), version));
+                updated.incrementAndGet();
+            } catch (OptimisticLockingFailureException e) {
+                rejected.incrementAndGet();
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+
+        assertEquals(UPDATES, updated.get() + rejected.get());
+        assertEquals(updated.get(), patientRepository.findById(patient.getId()).orElseThrow().getVersion());
+
+        PatientUpdateDTO stale = new PatientUpdateDTO(patient.getId(), "Maria", "Georgiou", "maria@mail.gr", "6911111111", 0L);
+        logInAsPatient();
+        try {
+            assertThrows(OptimisticLockingFailureException.class, () -> patientService.updatePatient(stale));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void race(Update update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(UPDATES);
+            for (int i = 0; i < UPDATES; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    update.run(n);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Commits a change to the appointment from another thread, and so another transaction, as another instance would
+    private void changeConcurrently(Long appointmentId) throws Exception {
+        CompletableFuture.runAsync(() -> jdbcTemplate.update("update appointments set version = version + 1 where id = ?", appointmentId))
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private void logInAsPatient() {
+        AuthenticatedUser user = new AuthenticatedUser(null, "maria", "", Role.PATIENT, null, patient.getId());
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+
+    private Appointment appointment(LocalDateTime dateTime) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(dateTime);
+        appointment = appointmentRepository.save(appointment);
+        slotIndex.occupy(doctor.getId(), dateTime, appointment.getDurationMinutes());
+        return appointment;
+    }
+
+    @FunctionalInterface
+    private interface Update {
+        void run(int n) throws Exception;
+    }
+}
@@ -0,0 +1,136 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientImportErrorDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientImportResultDTO;
+import gr.aueb.cf.healthhaven.dto.patientDTO.PatientRegisterDTO;
+import gr.aueb.cf.healthhaven.model.Patient;
+import gr.aueb.cf.healthhaven.model.User;
+import gr.aueb.cf.healthhaven.repository.PatientRepository;
+import gr.aueb.cf.healthhaven.validator.PatientRegisterValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "healthhaven.import.chunk-size=3")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({PatientImportServiceImpl.class, PatientRegisterValidator.class, PatientImportServiceTest.Encoder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientImportServiceTest {
+
+    @TestConfiguration
+    static class Encoder {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+    }
+
+    @Autowired
+    private IPatientImportService patientImportService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void validRowsAreImportedAndInvalidRowsAreReported() throws IOException {
+        Patient existing = new Patient("Eleni", "Papadaki", "900000001", "eleni@mail.gr", "6900000001");
+        existing.addUser(User.getNewUserWithPatientRole("eleni1", "hash"));
+        patientRepository.save(existing);
+
+        String csv = """
+                username,password,firstname,lastname,ssn,email,phoneNumber
+                maria1,Secret12#,Maria,Georgiou,100000001,maria@mail.gr,6900000002
+                nikos1,Secret12#,Nikos,"Papas",100000002,nikos@mail.gr,6900000003
+                kostas1,weak,Kostas,Kostas,100000003,kostas@mail.gr,6900000004
+                anna01,Secret12#,Anna,Ioannou,100000001,anna@mail.gr,6900000005
+                giorgos1,Secret12#,Giorgos,Ioannou,900000001,giorgos@mail.gr,6900000006
+                eleni1,Secret12#,Eleni,Ioannou,100000004,eleni2@mail.gr,6900000007
+                sofia1,Secret12#,Sofia,Ioannou,100000005,sofia@mail.gr,6900000008
+                """;
+
+        PatientImportResultDTO result = patientImportService.importPatients(
+                PatientImportRows.fromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(7, result.getRows());
+        assertEquals(3, result.getImported());
+        assertEquals(List.of(3, 4, 5, 6), result.getErrors().stream().map(PatientImportErrorDTO::getRow).toList());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("password"));
+        assertEquals(4, patientRepository.count());
+        assertTrue(patientRepository.findPatientBySsn("100000005").isPresent());
+    }
+
+    @Test
+    void importedChunksAreClearedFromThePersistenceContext() {
+        String csv = """
+                username,password,firstname,lastname,ssn,email,phoneNumber
+                maria1,Secret12#,Maria,Georgiou,100000001,maria@mail.gr,6900000002
+                nikos1,Secret12#,Nikos,Papas,100000002,nikos@mail.gr,6900000003
+                sofia1,Secret12#,Sofia,Ioannou,100000003,sofia@mail.gr,6900000004
+                anna01,Secret12#,Anna,Ioannou,100000004,anna@mail.gr,6900000005
+                """;
+
+        int managed = transactionTemplate.execute(status -> {
+            try {
+                assertEquals(4, patientImportService.importPatients(
+                        PatientImportRows.fromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))).getImported());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+
+        assertEquals(0, managed);
+        assertEquals(4, patientRepository.count());
+    }
+
+    @Test
+    void quotedCsvFieldsMaySpanLines() throws IOException {
+        String csv = "username,lastname,firstname\n"
+                + "maria1,\"Georgiou\nPapadaki\",Maria\n"
+                + "nikos1,\"Papas \"\"Jr\"\"\",Nikos\n";
+
+        Iterator<PatientRegisterDTO> rows = PatientImportRows.fromCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        PatientRegisterDTO maria = rows.next();
+        assertEquals("Georgiou\nPapadaki", maria.getLastname());
+        assertEquals("Maria", maria.getFirstname());
+        assertEquals("Papas \"Jr\"", rows.next().getLastname());
+        assertFalse(rows.hasNext());
+    }
+}
@@ -0,0 +1,64 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.model.Speciality;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "healthhaven.security.bcrypt-strength=4")
+@ActiveProfiles("h2")
+class ServiceMetricsTest {
+
+    @Autowired
+    private IDoctorService doctorService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceCallsAreTimedPerMethod() {
+        long before = count(serviceTimer());
+
+        assertThrows(EntityNotFoundException.class, () -> doctorService.findDoctorBySpeciality(Speciality.CARDIOLOGY));
+
+        assertNotNull(serviceTimer());
+        assertEquals(before + 1, serviceTimer().count());
+    }
+
+    @Test
+    void passwordVerificationIsTimedAndBookingCountersAreRegistered() {
+        String hash = passwordEncoder.encode("Secret12#");
+        long before = count(meterRegistry.find("healthhaven.auth.password").tag("operation", "verify").timer());
+
+        passwordEncoder.matches("Secret12#", hash);
+
+        assertEquals(before + 1, meterRegistry.get("healthhaven.auth.password").tag("operation", "verify").timer().count());
+        assertNotNull(meterRegistry.find("healthhaven.appointments.bookings").tag("outcome", "booked").counter());
+        assertNotNull(meterRegistry.find("healthhaven.appointments.bookings").tag("outcome", "conflict").counter());
+    }
+
+    private Timer serviceTimer() {
+        return meterRegistry.find("healthhaven.service")
+                .tag("class", DoctorServiceImpl.class.getName())
+                .tag("method", "findDoctorBySpeciality")
+                .tag("exception", EntityNotFoundException.class.getSimpleName())
+                .timer();
+    }
+
+    // The registry is shared by every test of the cached context, so a timer may not exist yet or may already count other calls
+    private static long count(Timer timer) {
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,137 @@
+package gr.aueb.cf.healthhaven.service;
+
+import gr.aueb.cf.healthhaven.AbstractDataTest;
+import gr.aueb.cf.healthhaven.dto.appointmentDTO.AppointmentRegisterDTO;
+import gr.aueb.cf.healthhaven.model.*;
+import gr.aueb.cf.healthhaven.service.exceptions.EntityNotFoundException;
+import gr.aueb.cf.healthhaven.service.exceptions.InvalidAppointmentException;
+import gr.aueb.cf.healthhaven.service.exceptions.SlotUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@Import(AppointmentServices.class)
+class WaitlistServiceTest extends AbstractDataTest {
+
+    private static final LocalDateTime SLOT = LocalDate.now().plusDays(7).atTime(10, 0);
+
+    @MockBean
+    private IPatientService patientService;
+
+    @Autowired
+    private IAppointmentService appointmentService;
+
+    @Autowired
+    private IWaitlistService waitlistService;
+
+    @Autowired
+    private AppointmentWaitlist waitlist;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cancelledSlotIsBookedForTheLongestWaitingPatient() throws Exception {
+        Patient maria = patient;
+        Patient nikos = patient("Nikos", "100000002");
+        Patient eleni = patient("Eleni", "100000003");
+
+        Appointment booked = book(maria);
+        assertThrows(SlotUnavailableException.class, () -> book(nikos));
+        join(nikos);
+        join(eleni);
+        assertEquals(2, waitlist.size(doctor.getId(), SLOT.toLocalDate()));
+
+        appointmentService.updateAppointmentStatus(booked.getId(), AppointmentStatus.CANCELLED);
+
+        List<Appointment> nikosAppointments = appointmentRepository.findAllByPatientId(nikos.getId());
+        assertEquals(1, nikosAppointments.size());
+        assertEquals(SLOT, nikosAppointments.get(0).getAppointmentDateTime());
+        assertEquals(1, waitlist.size(doctor.getId(), SLOT.toLocalDate()));
+        assertThrows(SlotUnavailableException.class, () -> book(eleni));
+        assertTrue(outboxMessageRepository.findAll().stream()
+                .anyMatch(message -> message.getRecipient().equals("nikos@mail.gr")
+                        && message.getAppointmentId().equals(nikosAppointments.get(0).getId())
+                        && message.getSubject().contains("waiting for")));
+    }
+
+    @Test
+    void slotOfADeleteThatRollsBackCannotBeBookedMeanwhile() throws Exception {
+        Patient maria = patient;
+        Patient nikos = patient("Nikos", "100000002");
+        Appointment booked = book(maria);
+
+        CountDownLatch deleted = new CountDownLatch(1);
+        CountDownLatch rollBack = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> delete = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    appointmentService.deleteAppointmentById(booked.getId());
+                    deleted.countDown();
+                    rollBack.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                status.setRollbackOnly();
+            }));
+            assertTrue(deleted.await(10, TimeUnit.SECONDS));
+
+            when(patientService.getCurrentPatient()).thenReturn(nikos);
+            Future<Appointment> booking = executor.submit(() -> appointmentService.createAppointment(new AppointmentRegisterDTO(doctor.getId(),
+                    SLOT.getYear(), SLOT.getMonthValue(), SLOT.getDayOfMonth(), SLOT.getHour())));
+            // The slot was released in the index, but stays locked until the delete completes
+            assertThrows(TimeoutException.class, () -> booking.get(300, TimeUnit.MILLISECONDS));
+
+            rollBack.countDown();
+            delete.get(10, TimeUnit.SECONDS);
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> booking.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(SlotUnavailableException.class, failure.getCause());
+        } finally {
+            rollBack.countDown();
+            executor.shutdownNow();
+        }
+
+        List<Appointment> appointments = appointmentRepository.findAll();
+        assertEquals(1, appointments.size());
+        assertEquals(maria.getId(), appointments.get(0).getPatient().getId());
+    }
+
+    @Test
+    void patientCannotWaitTwiceForTheSameDay() throws Exception {
+        Patient maria = patient;
+        join(maria);
+        assertThrows(InvalidAppointmentException.class, () -> join(maria));
+    }
+
+    private Patient patient(String firstname, String ssn) {
+        return patientRepository.save(new Patient(firstname, "Georgiou", ssn, firstname.toLowerCase() + "@mail.gr", "6900000000"));
+    }
+
+    private Appointment book(Patient patient) throws InvalidAppointmentException, EntityNotFoundException {
+        when(patientService.getCurrentPatient()).thenReturn(patient);
+        return appointmentService.createAppointment(new AppointmentRegisterDTO(doctor.getId(),
+                SLOT.getYear(), SLOT.getMonthValue(), SLOT.getDayOfMonth(), SLOT.getHour()));
+    }
+
+    private void join(Patient patient) throws InvalidAppointmentException, EntityNotFoundException {
+        when(patientService.getCurrentPatient()).thenReturn(patient);
+        waitlistService.joinWaitlist(doctor.getId(), SLOT.toLocalDate());
+    }
+}
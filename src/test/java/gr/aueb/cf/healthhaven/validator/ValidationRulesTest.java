@@ -0,0 +1,50 @@
+package gr.aueb.cf.healthhaven.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ValidationRulesTest {
+
+    private static final String ALPHABET = "aZ09@#$%^&+=._- \té٣";
+
+    @Test
+    void rulesAgreeWithTheRegularExpressionsTheyReplace() {
+        for (String value : samples()) {
+            assertEquals(value.matches("^[A-Za-z]+$"), ValidationRules.isLetters(value), value);
+            assertEquals(value.matches("^\\d{9}$"), ValidationRules.isDigits(value, 9), value);
+            assertEquals(value.matches("^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+$"), ValidationRules.isEmail(value), value);
+            assertEquals(value.matches("^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[@#$%^&+=])(?=\\S+$).{8,}$"),
+                    ValidationRules.isStrongPassword(value), value);
+        }
+    }
+
+    @Test
+    void nullNeverSatisfiesARule() {
+        assertFalse(ValidationRules.hasLengthBetween(null, 0, 10));
+        assertFalse(ValidationRules.isLetters(null));
+        assertFalse(ValidationRules.isDigits(null, 9));
+        assertFalse(ValidationRules.isEmail(null));
+        assertFalse(ValidationRules.isStrongPassword(null));
+    }
+
+    private static List<String> samples() {
+        List<String> samples = new ArrayList<>(List.of("", "Maria", "123456789", "12345678a", "maria@mail.gr", "@mail.gr",
+                "maria@", "ma@ri@a", "Secret123!", "Secret12#", "Secr et12#", "S3cret#x"));
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(14);
+            for (int j = 0; j < length; j++) {
+                value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            samples.add(value.toString());
+        }
+        return samples;
+    }
+}